@@ -0,0 +1,64 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.service.AppointmentService;
+import com.healthcare.service.AppointmentSlotIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Conflict checking on booking, through the service and against the slot index alone
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AppointmentBookingBenchmark {
+
+    // Half an hour after a seeded appointment, so every attempt is rejected and nothing is written
+    private static final LocalDateTime CONFLICTING_SLOT = BenchmarkData.FIRST_SLOT.plusHours(100).plusMinutes(30);
+
+    @State(Scope.Benchmark)
+    public static class SlotIndexState {
+        private static final int SLOTS = 10_000;
+
+        private final AppointmentSlotIndex index = new AppointmentSlotIndex();
+
+        @Setup
+        public void setUp() {
+            for (int k = 0; k < SLOTS; k++) {
+                index.tryReserve(1L, BenchmarkData.FIRST_SLOT.plusHours(2L * k));
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean createConflictingAppointment(BenchmarkContext context) {
+        AppointmentDto dto = new AppointmentDto();
+        dto.setPatientId(context.getPatientId());
+        dto.setDoctorId(context.getDoctorId());
+        dto.setAppointmentDateTime(CONFLICTING_SLOT);
+        dto.setReason("Benchmark");
+        try {
+            context.bean(AppointmentService.class).createAppointment(dto);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean slotIndexConflictCheck(SlotIndexState state) {
+        return state.index.tryReserve(1L, CONFLICTING_SLOT);
+    }
+}
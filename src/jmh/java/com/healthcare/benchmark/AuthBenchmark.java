@@ -0,0 +1,29 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.dto.LoginRequest;
+import com.healthcare.dto.LoginResponse;
+import com.healthcare.service.AuthService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Full login path: user lookup plus BCrypt verification
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthBenchmark {
+
+    @Benchmark
+    public LoginResponse authenticate(BenchmarkContext context) {
+        LoginRequest request = new LoginRequest(context.getUsername(), BenchmarkContext.PASSWORD);
+        return context.bean(AuthService.class).authenticate(request);
+    }
+}
@@ -0,0 +1,111 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.HealthCareMsApplication;
+import com.healthcare.model.Appointment;
+import com.healthcare.model.Doctor;
+import com.healthcare.model.Patient;
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.UserRepository;
+import com.healthcare.service.AppointmentSlotIndex;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application without a web server against an in-memory H2 database
+// (MySQL mode) and seeds it with synthetic doctors, patients and appointments
+@State(Scope.Benchmark)
+public class BenchmarkContext {
+
+    public static final String PASSWORD = "benchmark-password";
+
+    private static final int DOCTORS = 50;
+    private static final int PATIENTS = 2000;
+    private static final int APPOINTMENTS_PER_DOCTOR = 200;
+
+    private ConfigurableApplicationContext context;
+    private Long doctorId;
+    private Long patientId;
+    private String username;
+
+    @Setup(Level.Trial)
+    public void start() {
+        // Command-line arguments outrank application.properties
+        context = new SpringApplicationBuilder(HealthCareMsApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.show-sql=false",
+                        "--audit.dir=target/benchmark-audit",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.healthcare=WARN");
+        seed();
+        context.getBean(AppointmentSlotIndex.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Long getDoctorId() { return doctorId; }
+
+    public Long getPatientId() { return patientId; }
+
+    public String getUsername() { return username; }
+
+    private void seed() {
+        UserRepository userRepository = bean(UserRepository.class);
+        PatientRepository patientRepository = bean(PatientRepository.class);
+        DoctorRepository doctorRepository = bean(DoctorRepository.class);
+        AppointmentRepository appointmentRepository = bean(AppointmentRepository.class);
+
+        // One hash shared by every synthetic user; BCrypt would otherwise dominate seeding
+        String encodedPassword = bean(PasswordEncoder.class).encode(PASSWORD);
+
+        List<Patient> patients = new ArrayList<>(PATIENTS);
+        for (int n = 1; n <= PATIENTS; n++) {
+            User user = userRepository.save(BenchmarkData.user(n, Role.PATIENT, encodedPassword));
+            patients.add(patientRepository.save(BenchmarkData.patient(n, user)));
+        }
+
+        List<Doctor> doctors = new ArrayList<>(DOCTORS);
+        for (int n = 1; n <= DOCTORS; n++) {
+            User user = userRepository.save(BenchmarkData.user(PATIENTS + n, Role.DOCTOR, encodedPassword));
+            doctors.add(doctorRepository.save(BenchmarkData.doctor(n, user)));
+        }
+
+        List<Appointment> appointments = new ArrayList<>(DOCTORS * APPOINTMENTS_PER_DOCTOR);
+        for (int d = 0; d < DOCTORS; d++) {
+            for (int k = 0; k < APPOINTMENTS_PER_DOCTOR; k++) {
+                Patient patient = patients.get((k * DOCTORS + d) % PATIENTS);
+                appointments.add(BenchmarkData.appointment(patient, doctors.get(d), BenchmarkData.FIRST_SLOT.plusHours(2L * k)));
+            }
+        }
+        appointmentRepository.saveAll(appointments);
+
+        doctorId = doctors.get(0).getId();
+        patientId = patients.get(0).getId();
+        username = patients.get(0).getUser().getUsername();
+    }
+}
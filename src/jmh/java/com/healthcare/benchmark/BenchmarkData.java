@@ -0,0 +1,145 @@
+package com.healthcare.benchmark;
+
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.dto.UserDto;
+import com.healthcare.model.Appointment;
+import com.healthcare.model.AppointmentStatus;
+import com.healthcare.model.Doctor;
+import com.healthcare.model.MedicalRecord;
+import com.healthcare.model.Patient;
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Synthetic entities and DTOs shared by the benchmarks
+public final class BenchmarkData {
+
+    public static final LocalDateTime FIRST_SLOT = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    private BenchmarkData() {}
+
+    public static User user(long n, Role role, String encodedPassword) {
+        User user = new User("user" + n, "user" + n + "@example.com", encodedPassword,
+                "First" + n, "Last" + n, role);
+        user.setPhoneNumber("+1555" + String.format("%07d", n));
+        user.setActive(true);
+        return user;
+    }
+
+    public static Patient patient(long n, User user) {
+        Patient patient = new Patient();
+        patient.setUser(user);
+        patient.setPatientId("P" + String.format("%06d", n));
+        patient.setDateOfBirth(LocalDate.of(1950, 1, 1).plusDays(n % 20000));
+        patient.setGender(n % 2 == 0 ? "FEMALE" : "MALE");
+        patient.setAddress(n + " Synthetic Street, Testville");
+        patient.setEmergencyContact("+1555" + String.format("%07d", n + 1));
+        patient.setBloodGroup("O+");
+        patient.setAllergies("Penicillin");
+        patient.setMedicalHistory("Seasonal allergies; appendectomy in childhood; no chronic conditions recorded.");
+        return patient;
+    }
+
+    public static Doctor doctor(long n, User user) {
+        Doctor doctor = new Doctor();
+        doctor.setUser(user);
+        doctor.setDoctorId("D" + String.format("%06d", n));
+        doctor.setSpecialization(n % 3 == 0 ? "Cardiology" : "General Medicine");
+        doctor.setQualification("MBBS, MD");
+        doctor.setExperience((int) (n % 30));
+        doctor.setDepartment("Outpatient");
+        doctor.setConsultationFee("50.00");
+        doctor.setWorkingHours("Mon-Fri 08:00-17:00");
+        doctor.setAvailable(true);
+        return doctor;
+    }
+
+    public static Appointment appointment(Patient patient, Doctor doctor, LocalDateTime start) {
+        Appointment appointment = new Appointment(patient, doctor, start, "Routine check-up");
+        appointment.setNotes("Patient reports mild symptoms.");
+        return appointment;
+    }
+
+    public static MedicalRecord medicalRecord(Patient patient, Doctor doctor, Appointment appointment) {
+        MedicalRecord record = new MedicalRecord(patient, doctor, appointment);
+        record.setDiagnosis("Acute upper respiratory infection");
+        record.setSymptoms("Cough, sore throat, mild fever for three days");
+        record.setTreatment("Rest, fluids, symptomatic relief");
+        record.setPrescription("Paracetamol 500mg as needed");
+        record.setTestResults("Rapid strep negative");
+        record.setNotes("Review in one week if symptoms persist.");
+        return record;
+    }
+
+    // Detached graph with ids assigned, as the mappers would see it after a fetch-joined load
+    public static Appointment detachedAppointment(long n) {
+        User patientUser = user(2 * n, Role.PATIENT, "x");
+        patientUser.setId(2 * n);
+        User doctorUser = user(2 * n + 1, Role.DOCTOR, "x");
+        doctorUser.setId(2 * n + 1);
+        Patient patient = patient(n, patientUser);
+        patient.setId(n);
+        Doctor doctor = doctor(n, doctorUser);
+        doctor.setId(n);
+        Appointment appointment = appointment(patient, doctor, FIRST_SLOT.plusHours(n));
+        appointment.setId(n);
+        appointment.setVersion(0L);
+        return appointment;
+    }
+
+    public static List<AppointmentDto> appointmentDtos(int size) {
+        List<AppointmentDto> dtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            AppointmentDto dto = new AppointmentDto();
+            dto.setId((long) i);
+            dto.setPatientId((long) i);
+            dto.setDoctorId((long) (i % 100));
+            dto.setPatientName("First" + i + " Last" + i);
+            dto.setDoctorName("Doctor" + (i % 100) + " Smith");
+            dto.setAppointmentDateTime(FIRST_SLOT.plusHours(i));
+            dto.setReason("Routine check-up");
+            dto.setStatus(AppointmentStatus.SCHEDULED);
+            dto.setNotes("Patient reports mild symptoms.");
+            dto.setVersion(0L);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+
+    public static List<PatientDto> patientDtos(int size) {
+        List<PatientDto> dtos = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Patient patient = patient(i, null);
+            PatientDto dto = new PatientDto();
+            dto.setId((long) i);
+            dto.setPatientId(patient.getPatientId());
+            dto.setDateOfBirth(patient.getDateOfBirth());
+            dto.setGender(patient.getGender());
+            dto.setAddress(patient.getAddress());
+            dto.setEmergencyContact(patient.getEmergencyContact());
+            dto.setBloodGroup(patient.getBloodGroup());
+            dto.setAllergies(patient.getAllergies());
+            dto.setMedicalHistory(patient.getMedicalHistory());
+            dto.setVersion(0L);
+
+            UserDto user = new UserDto();
+            user.setId((long) i);
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            user.setPhoneNumber("+1555" + String.format("%07d", i));
+            user.setRole(Role.PATIENT);
+            user.setActive(true);
+            user.setVersion(0L);
+            dto.setUser(user);
+            dtos.add(dto);
+        }
+        return dtos;
+    }
+}
@@ -0,0 +1,61 @@
+package com.healthcare.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.PatientDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Jackson cost of the list payloads, configured like the application's ObjectMapper
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<AppointmentDto> appointments;
+    private List<PatientDto> patients;
+
+    @Setup
+    public void setUp() {
+        objectMapper = JsonMapper.builder()
+                .addModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        appointments = BenchmarkData.appointmentDtos(size);
+        patients = BenchmarkData.patientDtos(size);
+    }
+
+    @Benchmark
+    public void appointmentList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), appointments);
+    }
+
+    @Benchmark
+    public void patientList() throws IOException {
+        objectMapper.writeValue(OutputStream.nullOutputStream(), patients);
+    }
+}
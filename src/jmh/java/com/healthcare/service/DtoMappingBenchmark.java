@@ -0,0 +1,74 @@
+package com.healthcare.service;
+
+import com.healthcare.benchmark.BenchmarkData;
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.DoctorDto;
+import com.healthcare.dto.MedicalRecordDto;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.dto.UserDto;
+import com.healthcare.model.Appointment;
+import com.healthcare.model.MedicalRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The per-row convertToDto mappers; lives in the service package to reach them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private final AppointmentService appointmentService = new AppointmentService();
+    private final MedicalRecordService medicalRecordService = new MedicalRecordService();
+    private final PatientService patientService = new PatientService();
+    private final DoctorService doctorService = new DoctorService();
+    private final UserService userService = new UserService();
+
+    private Appointment appointment;
+    private MedicalRecord medicalRecord;
+
+    @Setup
+    public void setUp() {
+        appointment = BenchmarkData.detachedAppointment(1);
+        medicalRecord = BenchmarkData.medicalRecord(appointment.getPatient(), appointment.getDoctor(), appointment);
+        medicalRecord.setId(1L);
+        medicalRecord.setVersion(0L);
+    }
+
+    @Benchmark
+    public AppointmentDto appointment() {
+        return appointmentService.convertToDto(appointment);
+    }
+
+    @Benchmark
+    public MedicalRecordDto medicalRecord() {
+        return medicalRecordService.convertToDto(medicalRecord);
+    }
+
+    @Benchmark
+    public PatientDto patient() {
+        return patientService.convertToDto(appointment.getPatient());
+    }
+
+    @Benchmark
+    public DoctorDto doctor() {
+        return doctorService.convertToDto(appointment.getDoctor());
+    }
+
+    @Benchmark
+    public UserDto user() {
+        return userService.convertToDto(appointment.getPatient().getUser());
+    }
+}
@@ -0,0 +1,50 @@
+package com.healthcare.config;
+
+import com.healthcare.model.AppointmentStatus;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// appointments.status used to be free text, so older rows may hold "Pending", "canceled" or
+// anything else a client sent. Before JPA starts, every value that is not an enum name is
+// rewritten to the status it stands for; values with no obvious meaning become SCHEDULED,
+// since any such row used to block its doctor's slot just like a scheduled one.
+@Component
+public class AppointmentStatusMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(AppointmentStatusMigration.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void normalize() {
+        // A new database gets the table from Hibernate, with nothing in it to fix
+        if (!DatabaseTables.exists(jdbcTemplate, "appointments")) {
+            return;
+        }
+        int updated = jdbcTemplate.update(
+                "UPDATE appointments SET status = CASE" +
+                        " WHEN UPPER(TRIM(status)) IN ('COMPLETED', 'COMPLETE', 'DONE', 'FINISHED') THEN ?" +
+                        " WHEN UPPER(TRIM(status)) IN ('CANCELLED', 'CANCELED', 'CANCEL') THEN ?" +
+                        " ELSE ? END" +
+                        " WHERE status IS NULL OR status NOT IN (?, ?, ?)",
+                AppointmentStatus.COMPLETED.name(), AppointmentStatus.CANCELLED.name(), AppointmentStatus.SCHEDULED.name(),
+                AppointmentStatus.SCHEDULED.name(), AppointmentStatus.COMPLETED.name(), AppointmentStatus.CANCELLED.name());
+        if (updated > 0) {
+            log.warn("Rewrote the status of {} appointments that did not hold a known status", updated);
+        }
+    }
+
+    // Makes the EntityManagerFactory, and with it every repository, wait for the migration
+    @Component
+    static class BeforeJpa extends EntityManagerFactoryDependsOnPostProcessor {
+        BeforeJpa() {
+            super(AppointmentStatusMigration.class);
+        }
+    }
+}
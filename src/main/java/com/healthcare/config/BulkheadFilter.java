@@ -0,0 +1,182 @@
+package com.healthcare.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Caps how many requests each subsystem may have in flight, and so how many pooled JDBC
+// connections it can hold. The caps add up to less than the Hikari pool size, so one slow
+// subsystem queues on its own semaphore instead of draining the pool for everyone else. This
+// matters most with virtual threads, where the servlet container no longer limits concurrency,
+// so it is switched on with them unless bulkhead.enabled says otherwise.
+@Component
+@ConditionalOnProperty(name = "bulkhead.enabled", havingValue = "true")
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    // Long-lived streams fed from memory; they hold no connection, and a permit held for the
+    // life of each stream would lock their subsystem out
+    private static final Set<String> UNBOUNDED_PATHS = Set.of("/api/appointments/stream");
+
+    private final Map<String, Bulkhead> bulkheadsByPath = new LinkedHashMap<>();
+    private final long acquireTimeoutMillis;
+
+    public BulkheadFilter(MeterRegistry meterRegistry,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                          @Value("${bulkhead.auth.max-concurrent:2}") int auth,
+                          @Value("${bulkhead.appointments.max-concurrent:2}") int appointments,
+                          @Value("${bulkhead.medical-records.max-concurrent:2}") int medicalRecords,
+                          @Value("${bulkhead.exports.max-concurrent:1}") int exports,
+                          @Value("${bulkhead.directory.max-concurrent:2}") int directory,
+                          @Value("${bulkhead.admin.max-concurrent:1}") int admin,
+                          @Value("${bulkhead.acquire-timeout-ms:500}") long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        // Every subsystem at its cap must still leave a connection free
+        int total = auth + appointments + medicalRecords + exports + directory + admin;
+        if (total >= poolSize) {
+            throw new IllegalStateException("bulkhead max-concurrent values add up to " + total
+                    + ", which must stay below the connection pool size of " + poolSize);
+        }
+        register("/api/auth/", new Bulkhead("auth", auth, meterRegistry));
+        register("/api/appointments/", new Bulkhead("appointments", appointments, meterRegistry));
+        // An export holds its permit for as long as it streams, possibly hours, so it gets its own
+        // instead of taking one of the few the rest of the records API runs on; listed first so it
+        // wins over the broader prefix below
+        register("/api/medical-records/export/", new Bulkhead("exports", exports, meterRegistry));
+        register("/api/medical-records/", new Bulkhead("medical-records", medicalRecords, meterRegistry));
+        // Patients, doctors and users share one directory bulkhead
+        Bulkhead directoryBulkhead = new Bulkhead("directory", directory, meterRegistry);
+        register("/api/patients/", directoryBulkhead);
+        register("/api/doctors/", directoryBulkhead);
+        register("/api/users/", directoryBulkhead);
+        register("/api/admin/", new Bulkhead("admin", admin, meterRegistry));
+    }
+
+    private void register(String pathPrefix, Bulkhead bulkhead) {
+        bulkheadsByPath.put(pathPrefix, bulkhead);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Bulkhead bulkhead = bulkheadFor(request.getRequestURI());
+        if (bulkhead == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        boolean acquired;
+        try {
+            acquired = bulkhead.permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            bulkhead.rejected.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            // Streaming exports keep reading after the handler returns, so the permit is held
+            // until the async request completes
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion(bulkhead));
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                bulkhead.permits.release();
+            }
+        }
+    }
+
+    private Bulkhead bulkheadFor(String uri) {
+        if (UNBOUNDED_PATHS.contains(uri)) {
+            return null;
+        }
+        for (Map.Entry<String, Bulkhead> entry : bulkheadsByPath.entrySet()) {
+            String prefix = entry.getKey();
+            // Match both /api/admin and /api/admin/...
+            if (uri.startsWith(prefix) || uri.equals(prefix.substring(0, prefix.length() - 1))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static final class Bulkhead {
+        private final Semaphore permits;
+        private final Counter rejected;
+
+        Bulkhead(String name, int maxConcurrent, MeterRegistry meterRegistry) {
+            if (maxConcurrent < 1) {
+                throw new IllegalStateException("bulkhead." + name + ".max-concurrent must be at least 1, was "
+                        + maxConcurrent);
+            }
+            this.permits = new Semaphore(maxConcurrent, true);
+            this.rejected = Counter.builder("bulkhead.rejected")
+                    .description("Requests turned away because the subsystem was at its concurrency cap")
+                    .tag("subsystem", name)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.available", permits, Semaphore::availablePermits)
+                    .description("Free request slots in the subsystem")
+                    .tag("subsystem", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    // Timeouts and errors end in onComplete as well, once the work started for them has run
+    private static final class ReleaseOnCompletion implements AsyncListener {
+        private final Bulkhead bulkhead;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        ReleaseOnCompletion(Bulkhead bulkhead) {
+            this.bulkhead = bulkhead;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (released.compareAndSet(false, true)) {
+                bulkhead.permits.release();
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A restarted async cycle drops its listeners; stay registered for the new one
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.healthcare.config;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.Locale;
+
+// Startup fix-ups that must tell "the table is not there" apart from every other failure
+final class DatabaseTables {
+
+    private DatabaseTables() {
+    }
+
+    static boolean exists(JdbcTemplate jdbcTemplate, String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            String name = metaData.storesUpperCaseIdentifiers() ? table.toUpperCase(Locale.ROOT) : table;
+            // getTables takes a LIKE pattern, in which the underscore of users_seq is a wildcard
+            String escape = metaData.getSearchStringEscape();
+            String pattern = escape == null ? name : name.replace("_", escape + "_");
+            try (ResultSet tables = metaData.getTables(connection.getCatalog(), connection.getSchema(), pattern, null)) {
+                return tables.next();
+            }
+        }));
+    }
+}
@@ -0,0 +1,159 @@
+package com.healthcare.config;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.DoctorDto;
+import com.healthcare.dto.MedicalRecordDto;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.dto.UserDto;
+import com.healthcare.service.FieldSelection;
+import com.healthcare.service.Projection;
+import com.healthcare.service.Projections;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.io.IOException;
+import java.util.List;
+
+// Sparse fieldsets: ?fields=id,user.firstName on any endpoint returning patients, doctors,
+// appointments, medical records or users. The interceptor validates the paths against the
+// DTO's Projection before the handler runs and rejects unknown ones with 400; handlers that
+// page through a table take the FieldSelection as an argument and select only those columns,
+// and FieldSelectionAdvice trims the JSON of every other response the same way.
+@Configuration
+public class FieldSelectionConfig implements WebMvcConfigurer {
+
+    static final String PARAMETER = "fields";
+    static final String FILTER_ID = "fieldSelection";
+    static final String ATTRIBUTE = FieldSelection.class.getName();
+
+    @JsonFilter(FILTER_ID)
+    private abstract static class FilteredDto {}
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+                    throws IOException {
+                String fields = request.getParameter(PARAMETER);
+                if (fields == null || !(handler instanceof HandlerMethod method)) {
+                    return true;
+                }
+                Projection<?> projection = projectionOf(ResolvableType.forMethodReturnType(method.getMethod()));
+                if (projection == null) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(), "This endpoint does not support fields");
+                    return false;
+                }
+                try {
+                    request.setAttribute(ATTRIBUTE, FieldSelection.parse(fields, projection.names()));
+                    return true;
+                } catch (IllegalArgumentException e) {
+                    response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+                    return false;
+                }
+            }
+        });
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new HandlerMethodArgumentResolver() {
+            @Override
+            public boolean supportsParameter(MethodParameter parameter) {
+                return parameter.getParameterType() == FieldSelection.class;
+            }
+
+            @Override
+            public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                          NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+                Object selection = webRequest.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+                return selection != null ? selection : FieldSelection.ALL;
+            }
+        });
+    }
+
+    // Every response DTO gets the filter; without a selection it writes all properties
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldSelectionFilter() {
+        return builder -> builder
+                .mixIn(UserDto.class, FilteredDto.class)
+                .mixIn(PatientDto.class, FilteredDto.class)
+                .mixIn(DoctorDto.class, FilteredDto.class)
+                .mixIn(AppointmentDto.class, FilteredDto.class)
+                .mixIn(MedicalRecordDto.class, FilteredDto.class)
+                .filters(new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    // Finds the DTO in e.g. ResponseEntity<CursorPage<PatientDto>> or ResponseEntity<List<UserDto>>
+    private static Projection<?> projectionOf(ResolvableType type) {
+        Class<?> raw = type.resolve();
+        if (raw == null) {
+            return null;
+        }
+        Projection<?> projection = Projections.forDto(raw);
+        if (projection != null) {
+            return projection;
+        }
+        for (ResolvableType generic : type.getGenerics()) {
+            projection = projectionOf(generic);
+            if (projection != null) {
+                return projection;
+            }
+        }
+        return null;
+    }
+
+    // Writes a property when its path from the outermost DTO is part of the selection
+    static final class SelectionFilter extends SimpleBeanPropertyFilter {
+
+        private final FieldSelection selection;
+
+        SelectionFilter(FieldSelection selection) {
+            this.selection = selection;
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator gen, SerializerProvider provider,
+                                     PropertyWriter writer) throws Exception {
+            if (selection.includes(pathOf(gen, writer.getName()))) {
+                writer.serializeAsField(pojo, gen, provider);
+            } else if (!gen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, gen, provider);
+            }
+        }
+
+        // Prefixes the names of enclosing DTO properties, e.g. "user" while writing a PatientDto's user
+        private static String pathOf(JsonGenerator gen, String name) {
+            String path = name;
+            JsonStreamContext context = gen.getOutputContext().getParent();
+            while (context != null && context.inObject() && context.getCurrentValue() != null
+                    && Projections.forDto(context.getCurrentValue().getClass()) != null) {
+                path = context.getCurrentName() + "." + path;
+                context = context.getParent();
+            }
+            return path;
+        }
+    }
+}
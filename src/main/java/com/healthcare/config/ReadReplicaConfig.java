@@ -0,0 +1,108 @@
+package com.healthcare.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+// Two pools, one for the primary and one for a read replica, behind a routing DataSource that
+// everything else (JPA, JdbcTemplate, Hikari metrics) sees as the only one. Switched on by
+// setting replica.datasource.url; without it Boot's single auto-configured pool is used.
+//
+// Only @ReplicaRead methods go to the replica. Every Spring Data read is itself a read-only
+// transaction, so routing on that flag would send a write flow's own reads to a database that
+// may not have its writes yet.
+@Configuration
+@ConditionalOnProperty("replica.datasource.url")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    // Credentials and driver default to the primary's
+    @Bean
+    @ConfigurationProperties("replica.datasource.hikari")
+    HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                       @Value("${replica.datasource.url}") String url,
+                                       @Value("${replica.datasource.username:}") String username,
+                                       @Value("${replica.datasource.password:}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username.isEmpty() ? properties.determineUsername() : username)
+                .password(password.isEmpty() ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    // The lazy proxy holds off choosing a pool until the first statement, by which time the
+    // transaction and the routing flag are in place
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                          @Qualifier("replicaDataSource") DataSource replica,
+                          ReplicaRouting replicaRouting) {
+        RoutingDataSource routing = new RoutingDataSource(replicaRouting);
+        routing.setTargetDataSources(Map.of(
+                RoutingDataSource.Target.PRIMARY, primary,
+                RoutingDataSource.Target.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // An open-in-view session otherwise keeps its first connection for the whole request, so a
+    // replica read would reuse a primary connection taken earlier, or the other way round
+    @Bean
+    HibernatePropertiesCustomizer releaseConnectionsAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    @Bean
+    ReplicaRouting replicaRouting(@Value("${replica.sticky-ms:5000}") long stickyMillis) {
+        return new ReplicaRouting(stickyMillis);
+    }
+
+    @Bean
+    ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                        @Qualifier("replicaDataSource") DataSource replica,
+                                        MeterRegistry meterRegistry,
+                                        @Value("${replica.max-lag-ms:3000}") long maxLagMillis,
+                                        @Value("${replica.heartbeat-ms:1000}") long heartbeatMillis) {
+        return new ReplicaLagMonitor(primary, replica, meterRegistry, maxLagMillis, heartbeatMillis);
+    }
+
+    @Bean
+    ReplicaReadAspect replicaReadAspect(ReplicaRouting replicaRouting, ReplicaLagMonitor replicaLagMonitor,
+                                        EntityManagerFactory entityManagerFactory,
+                                        PlatformTransactionManager transactionManager,
+                                        MeterRegistry meterRegistry) {
+        return new ReplicaReadAspect(replicaRouting, replicaLagMonitor, entityManagerFactory,
+                transactionManager, meterRegistry);
+    }
+}
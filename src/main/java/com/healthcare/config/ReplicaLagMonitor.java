@@ -0,0 +1,95 @@
+package com.healthcare.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+// Measures replication lag with a heartbeat row: each check stamps the current time on the
+// primary and reads back whatever stamp has reached the replica. Reads are only sent to the
+// replica while the last check is recent and the lag it saw is within max-lag-ms.
+class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private final long heartbeatMillis;
+
+    // -1 while the replica is unreachable or has not been checked yet
+    private volatile long lagMillis = -1;
+    private volatile long checkedAt;
+
+    ReplicaLagMonitor(DataSource primary, DataSource replica, MeterRegistry meterRegistry,
+                      long maxLagMillis, long heartbeatMillis) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLagMillis;
+        this.heartbeatMillis = heartbeatMillis;
+        Gauge.builder("datasource.replica.lag", this, monitor -> monitor.lagMillis)
+                .description("Replication lag seen by the last heartbeat in milliseconds, -1 when unknown")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void createHeartbeat() {
+        primary.execute("CREATE TABLE IF NOT EXISTS replication_heartbeat " +
+                "(id INT NOT NULL PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        try {
+            primary.update("INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, ?)", System.currentTimeMillis());
+        } catch (DuplicateKeyException e) {
+            // Row left by an earlier start
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${replica.heartbeat-ms:1000}")
+    void check() {
+        long now = System.currentTimeMillis();
+        try {
+            primary.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", now);
+        } catch (DataAccessException e) {
+            // Without a fresh beat the replica's stamp says nothing about its lag
+            log.warn("Could not write replication heartbeat: {}", e.getMessage());
+            return;
+        }
+        long lag;
+        try {
+            Long beatAt = replica.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1", Long.class);
+            lag = beatAt != null ? Math.max(0, now - beatAt) : -1;
+        } catch (DataAccessException e) {
+            log.debug("Could not read replication heartbeat: {}", e.getMessage());
+            lag = -1;
+        }
+        boolean wasCaughtUp = isCaughtUp();
+        lagMillis = lag;
+        checkedAt = now;
+        if (wasCaughtUp != isCaughtUp()) {
+            if (isCaughtUp()) {
+                log.info("Replica caught up (lag {} ms), routing read-only queries to it", lag);
+            } else if (lag < 0) {
+                log.warn("Replica unreachable, reading from the primary");
+            } else {
+                log.warn("Replica lag {} ms exceeds {} ms, reading from the primary", lag, maxLagMillis);
+            }
+        }
+    }
+
+    boolean isCaughtUp() {
+        long lag = lagMillis;
+        return lag >= 0 && lag <= maxLagMillis
+                && System.currentTimeMillis() - checkedAt <= 3 * heartbeatMillis;
+    }
+
+    // A replica connection failed; stay on the primary until the next heartbeat reaches it
+    void markDown() {
+        lagMillis = -1;
+    }
+}
@@ -0,0 +1,115 @@
+package com.healthcare.config;
+
+import com.healthcare.service.ReplicaRead;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Runs @ReplicaRead methods in a read-only transaction on the replica. Calls already inside a
+// transaction stay where they are, and so do callers that wrote recently or arrive while the
+// replica is behind. The request's open-in-view EntityManager is set aside for the call, so
+// entities read from the replica never mix with ones the request loaded from the primary.
+@Aspect
+public class ReplicaReadAspect {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaReadAspect.class);
+
+    private final ReplicaRouting routing;
+    private final ReplicaLagMonitor monitor;
+    private final EntityManagerFactory entityManagerFactory;
+    private final TransactionTemplate readOnly;
+    private final Counter stickyReads;
+    private final Counter laggingReads;
+    private final Counter replicaReads;
+    private final Counter fallbackReads;
+
+    ReplicaReadAspect(ReplicaRouting routing, ReplicaLagMonitor monitor, EntityManagerFactory entityManagerFactory,
+                      PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.routing = routing;
+        this.monitor = monitor;
+        this.entityManagerFactory = entityManagerFactory;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.stickyReads = counter(meterRegistry, "primary", "sticky");
+        this.laggingReads = counter(meterRegistry, "primary", "lagging");
+        this.replicaReads = counter(meterRegistry, "replica", "caught_up");
+        this.fallbackReads = counter(meterRegistry, "primary", "unavailable");
+    }
+
+    @Around("@annotation(replicaRead)")
+    public Object route(ProceedingJoinPoint joinPoint, ReplicaRead replicaRead) throws Throwable {
+        if (routing.isOnReplica() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        if (routing.isSticky()) {
+            stickyReads.increment();
+            return joinPoint.proceed();
+        }
+        if (!monitor.isCaughtUp()) {
+            laggingReads.increment();
+            return joinPoint.proceed();
+        }
+        try {
+            Object result = onReplica(joinPoint);
+            replicaReads.increment();
+            return result;
+        } catch (DataAccessResourceFailureException | CannotCreateTransactionException e) {
+            monitor.markDown();
+            if (!replicaRead.retryOnPrimary()) {
+                throw e;
+            }
+            log.warn("Replica read {} failed, retrying on the primary: {}",
+                    joinPoint.getSignature().toShortString(), e.getMessage());
+            fallbackReads.increment();
+            return joinPoint.proceed();
+        }
+    }
+
+    private Object onReplica(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object openInView = TransactionSynchronizationManager.unbindResourceIfPossible(entityManagerFactory);
+        routing.enterReplica();
+        try {
+            return readOnly.execute(status -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new CheckedFailure(t);
+                }
+            });
+        } catch (CheckedFailure e) {
+            throw e.getCause();
+        } finally {
+            routing.exitReplica();
+            if (openInView != null) {
+                TransactionSynchronizationManager.bindResource(entityManagerFactory, openInView);
+            }
+        }
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String target, String reason) {
+        return Counter.builder("datasource.routed.reads")
+                .description("@ReplicaRead calls by the database they ran on")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    // Carries a checked exception out of the TransactionCallback, which rolls back on it
+    private static final class CheckedFailure extends RuntimeException {
+        CheckedFailure(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.healthcare.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Which pool the current thread reads from, and who has written recently enough that their
+// reads must go to the primary: the rest of a request that wrote, and the same user for
+// sticky-ms afterwards so a GET right after a POST sees the new row.
+class ReplicaRouting {
+
+    private static final String WROTE = ReplicaRouting.class.getName() + ".WROTE";
+
+    private final ThreadLocal<Boolean> onReplica = new ThreadLocal<>();
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final long stickyMillis;
+
+    ReplicaRouting(long stickyMillis) {
+        this.stickyMillis = stickyMillis;
+    }
+
+    boolean isOnReplica() {
+        return onReplica.get() != null;
+    }
+
+    void enterReplica() {
+        onReplica.set(Boolean.TRUE);
+    }
+
+    void exitReplica() {
+        onReplica.remove();
+    }
+
+    // Called when a read-write transaction takes a primary connection
+    void recordWrite() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            request.setAttribute(WROTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        String user = currentUser();
+        if (user != null) {
+            stickyUntil.put(user, System.currentTimeMillis() + stickyMillis);
+        }
+    }
+
+    boolean isSticky() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(WROTE, RequestAttributes.SCOPE_REQUEST) != null) {
+            return true;
+        }
+        String user = currentUser();
+        Long until = user != null ? stickyUntil.get(user) : null;
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.sticky-ms:5000}")
+    void prune() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
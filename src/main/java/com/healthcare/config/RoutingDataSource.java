@@ -0,0 +1,30 @@
+package com.healthcare.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Hands out replica connections inside @ReplicaRead methods and primary ones everywhere else.
+// Sits behind a LazyConnectionDataSourceProxy, so the lookup happens at the first statement,
+// after the transaction's read-only flag is known.
+class RoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaRouting routing;
+
+    RoutingDataSource(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (routing.isOnReplica()) {
+            return Target.REPLICA;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            routing.recordWrite();
+        }
+        return Target.PRIMARY;
+    }
+}
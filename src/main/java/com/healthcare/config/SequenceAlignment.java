@@ -0,0 +1,47 @@
+package com.healthcare.config;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// users and patients moved from IDENTITY to pooled sequences. On MySQL, Hibernate emulates
+// a sequence with a one-row table that starts at 1, so on a database that already has rows
+// the table is raised past the current MAX(id) before anything is inserted.
+@Component
+@DependsOn("entityManagerFactory")
+public class SequenceAlignment {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceAlignment.class);
+
+    // Matches allocationSize on the entities; a pooled block can reach this far below next_val
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void align() {
+        align("users_seq", "users");
+        align("patients_seq", "patients");
+    }
+
+    private void align(String sequenceTable, String table) {
+        // Databases with native sequences have no table to align. Any other failure stops
+        // startup, since the first pooled insert would then reuse an existing id.
+        if (!DatabaseTables.exists(jdbcTemplate, sequenceTable)) {
+            log.debug("Skipping alignment of {}: no such table", sequenceTable);
+            return;
+        }
+        int updated = jdbcTemplate.update(
+                "UPDATE " + sequenceTable + " SET next_val = (SELECT COALESCE(MAX(id), 0) + ? FROM " + table + ") " +
+                        "WHERE next_val <= (SELECT COALESCE(MAX(id), 0) + ? FROM " + table + ")",
+                ALLOCATION_SIZE + 1, ALLOCATION_SIZE);
+        if (updated > 0) {
+            log.info("Raised {} past the existing ids in {}", sequenceTable, table);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.healthcare.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Times every public method of the @Service beans as service.method{class, method, exception},
+// with percentiles and a histogram for Prometheus. Controllers are already covered by Spring
+// MVC's http.server.requests and repositories by spring.data.repository.invocations.
+@Aspect
+@Component
+public class ServiceMetricsAspect {
+
+    private final MeterRegistry meterRegistry;
+    // Timers by method, then by exception tag, so a call does not rebuild and look up its meter
+    private final Map<Method, Map<String, Timer>> timers = new ConcurrentHashMap<>();
+
+    public ServiceMetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.healthcare.service..*(..)) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable t) {
+            exception = t.getClass().getSimpleName();
+            throw t;
+        } finally {
+            sample.stop(timer((MethodSignature) joinPoint.getSignature(), exception));
+        }
+    }
+
+    private Timer timer(MethodSignature signature, String exception) {
+        return timers.computeIfAbsent(signature.getMethod(), method -> new ConcurrentHashMap<>())
+                .computeIfAbsent(exception, tag -> Timer.builder("service.method")
+                        .description("Time spent in public service methods")
+                        .tag("class", signature.getDeclaringType().getSimpleName())
+                        .tag("method", signature.getName())
+                        .tag("exception", tag)
+                        .publishPercentiles(0.5, 0.95, 0.99)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+    }
+}
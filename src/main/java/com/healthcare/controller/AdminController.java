@@ -1,20 +1,20 @@
 package com.healthcare.controller;
 
 import com.healthcare.dto.UserDto;
-import com.healthcare.dto.PatientDto;
-import com.healthcare.dto.DoctorDto;
-import com.healthcare.dto.AppointmentDto;
+import com.healthcare.model.AppointmentStatus;
 import com.healthcare.model.Role;
 import com.healthcare.service.UserService;
 import com.healthcare.service.PatientService;
-import com.healthcare.service.DoctorService;
 import com.healthcare.service.AppointmentService;
+import com.healthcare.service.DashboardService;
+import com.healthcare.exception.PasswordHashingRejectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +22,8 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:3000")
 public class AdminController {
 
+    private static final int RECENT_APPOINTMENTS = 10;
+
     @Autowired
     private UserService userService;
 
@@ -29,7 +31,7 @@ public class AdminController {
     private PatientService patientService;
 
     @Autowired
-    private DoctorService doctorService;
+    private DashboardService dashboardService;
 
     @Autowired
     private AppointmentService appointmentService;
@@ -38,76 +40,74 @@ public class AdminController {
     public ResponseEntity<Map<String, Object>> getDashboardData() {
         Map<String, Object> dashboardData = new HashMap<>();
 
-        // Get counts
-        List<UserDto> allUsers = userService.getAllUsers();
-        List<PatientDto> allPatients = patientService.getAllPatients();
-        List<DoctorDto> allDoctors = doctorService.getAllDoctors();
-        List<AppointmentDto> allAppointments = appointmentService.getAllAppointments();
-        List<AppointmentDto> todaysAppointments = appointmentService.getTodaysAppointments();
-
-        dashboardData.put("totalUsers", allUsers.size());
-        dashboardData.put("totalPatients", allPatients.size());
-        dashboardData.put("totalDoctors", allDoctors.size());
-        dashboardData.put("totalAppointments", allAppointments.size());
-        dashboardData.put("todaysAppointments", todaysAppointments.size());
+        // Counts come from the materialized dashboard counters
+        dashboardData.put("totalUsers", dashboardService.getTotalUsers());
+        dashboardData.put("totalPatients", dashboardService.getTotalPatients());
+        dashboardData.put("totalDoctors", dashboardService.getTotalDoctors());
+        dashboardData.put("totalAppointments", dashboardService.getTotalAppointments());
+        dashboardData.put("todaysAppointments", dashboardService.getTodaysAppointmentCount());
 
         // Get recent data
-        dashboardData.put("recentPatients", allPatients.size() > 5 ?
-                allPatients.subList(allPatients.size() - 5, allPatients.size()) : allPatients);
-        dashboardData.put("recentAppointments", todaysAppointments);
+        dashboardData.put("recentPatients", patientService.getRecentPatients());
+        dashboardData.put("recentAppointments", appointmentService.getTodaysAppointments(RECENT_APPOINTMENTS));
 
         // Get users by role
-        List<UserDto> admins = userService.getUsersByRole(Role.ADMIN);
-        List<UserDto> doctors = userService.getUsersByRole(Role.DOCTOR);
-        List<UserDto> patients = userService.getUsersByRole(Role.PATIENT);
-
-        dashboardData.put("adminCount", admins.size());
-        dashboardData.put("doctorCount", doctors.size());
-        dashboardData.put("patientCount", patients.size());
+        dashboardData.put("adminCount", dashboardService.getUserCount(Role.ADMIN));
+        dashboardData.put("doctorCount", dashboardService.getUserCount(Role.DOCTOR));
+        dashboardData.put("patientCount", dashboardService.getUserCount(Role.PATIENT));
 
         return ResponseEntity.ok(dashboardData);
     }
 
     @GetMapping("/users/stats")
-    public ResponseEntity<Map<String, Integer>> getUserStats() {
-        Map<String, Integer> stats = new HashMap<>();
+    public ResponseEntity<Map<String, Long>> getUserStats() {
+        Map<String, Long> stats = new HashMap<>();
 
-        List<UserDto> admins = userService.getUsersByRole(Role.ADMIN);
-        List<UserDto> doctors = userService.getUsersByRole(Role.DOCTOR);
-        List<UserDto> patients = userService.getUsersByRole(Role.PATIENT);
+        long admins = dashboardService.getUserCount(Role.ADMIN);
+        long doctors = dashboardService.getUserCount(Role.DOCTOR);
+        long patients = dashboardService.getUserCount(Role.PATIENT);
 
-        stats.put("admins", admins.size());
-        stats.put("doctors", doctors.size());
-        stats.put("patients", patients.size());
-        stats.put("total", admins.size() + doctors.size() + patients.size());
+        stats.put("admins", admins);
+        stats.put("doctors", doctors);
+        stats.put("patients", patients);
+        stats.put("total", admins + doctors + patients);
 
         return ResponseEntity.ok(stats);
     }
 
     @GetMapping("/appointments/stats")
-    public ResponseEntity<Map<String, Integer>> getAppointmentStats() {
-        Map<String, Integer> stats = new HashMap<>();
+    public ResponseEntity<Map<String, Long>> getAppointmentStats() {
+        Map<String, Long> stats = new HashMap<>();
 
-        List<AppointmentDto> scheduled = appointmentService.getAppointmentsByStatus("SCHEDULED");
-        List<AppointmentDto> completed = appointmentService.getAppointmentsByStatus("COMPLETED");
-        List<AppointmentDto> cancelled = appointmentService.getAppointmentsByStatus("CANCELLED");
-        List<AppointmentDto> today = appointmentService.getTodaysAppointments();
+        long scheduled = dashboardService.getAppointmentCount(AppointmentStatus.SCHEDULED);
+        long completed = dashboardService.getAppointmentCount(AppointmentStatus.COMPLETED);
+        long cancelled = dashboardService.getAppointmentCount(AppointmentStatus.CANCELLED);
 
-        stats.put("scheduled", scheduled.size());
-        stats.put("completed", completed.size());
-        stats.put("cancelled", cancelled.size());
-        stats.put("today", today.size());
-        stats.put("total", scheduled.size() + completed.size() + cancelled.size());
+        stats.put("scheduled", scheduled);
+        stats.put("completed", completed);
+        stats.put("cancelled", cancelled);
+        stats.put("today", dashboardService.getTodaysAppointmentCount());
+        stats.put("total", scheduled + completed + cancelled);
 
         return ResponseEntity.ok(stats);
     }
 
+    @PostMapping("/dashboard/refresh")
+    public ResponseEntity<Void> refreshDashboard() {
+        dashboardService.refresh();
+        return ResponseEntity.ok().build();
+    }
+
     @PostMapping("/create-admin")
     public ResponseEntity<UserDto> createAdmin(@RequestBody UserDto userDto) {
         try {
             userDto.setRole(Role.ADMIN);
             UserDto createdAdmin = userService.createUser(userDto);
             return ResponseEntity.ok(createdAdmin);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -1,15 +1,30 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.FreeSlotDto;
+import com.healthcare.model.AppointmentStatus;
+import com.healthcare.service.FieldSelection;
+import com.healthcare.service.AppointmentEventBroadcaster;
 import com.healthcare.service.AppointmentService;
+import com.healthcare.service.FreeSlotService;
+import com.healthcare.exception.InvalidStatusTransitionException;
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -19,10 +34,24 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private FreeSlotService freeSlotService;
+
+    @Autowired
+    private AppointmentEventBroadcaster appointmentEventBroadcaster;
+
     @GetMapping
-    public ResponseEntity<List<AppointmentDto>> getAllAppointments() {
-        List<AppointmentDto> appointments = appointmentService.getAllAppointments();
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<CursorPage<AppointmentDto>> getAllAppointments(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields,
+            WebRequest request) {
+        try {
+            return ConditionalGet.respond(request, appointmentService.getAppointmentsVersion(),
+                    () -> appointmentService.getAppointments(fields, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/today")
@@ -32,21 +61,42 @@ public class AppointmentController {
     }
 
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<AppointmentDto>> getAppointmentsByPatient(@PathVariable Long patientId) {
-        List<AppointmentDto> appointments = appointmentService.getAppointmentsByPatient(patientId);
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<CursorPage<AppointmentDto>> getAppointmentsByPatient(@PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<AppointmentDto> appointments = appointmentService.getAppointmentsByPatient(fields, patientId, cursor, size);
+            return ResponseEntity.ok(appointments);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<AppointmentDto>> getAppointmentsByDoctor(@PathVariable Long doctorId) {
-        List<AppointmentDto> appointments = appointmentService.getAppointmentsByDoctor(doctorId);
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<CursorPage<AppointmentDto>> getAppointmentsByDoctor(@PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<AppointmentDto> appointments = appointmentService.getAppointmentsByDoctor(fields, doctorId, cursor, size);
+            return ResponseEntity.ok(appointments);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<AppointmentDto>> getAppointmentsByStatus(@PathVariable String status) {
-        List<AppointmentDto> appointments = appointmentService.getAppointmentsByStatus(status);
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<CursorPage<AppointmentDto>> getAppointmentsByStatus(@PathVariable AppointmentStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<AppointmentDto> appointments = appointmentService.getAppointmentsByStatus(fields, status, cursor, size);
+            return ResponseEntity.ok(appointments);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/date-range")
@@ -57,11 +107,52 @@ public class AppointmentController {
         return ResponseEntity.ok(appointments);
     }
 
+    // Live appointment changes as Server-Sent Events. Browsers resend the last id they saw in the
+    // Last-Event-ID header on reconnect; other clients may pass it as a parameter instead.
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamAppointmentEvents(
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String lastEventId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader) {
+        String resumeFrom = lastEventIdHeader != null ? lastEventIdHeader : lastEventId;
+        try {
+            Long after = resumeFrom != null ? Long.valueOf(resumeFrom.trim()) : null;
+            return ResponseEntity.ok(appointmentEventBroadcaster.subscribe(doctorId, department, after));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Earliest open starts across matching doctors; the window defaults to two weeks from today
+    @GetMapping("/free-slots")
+    public ResponseEntity<List<FreeSlotDto>> getFreeSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<FreeSlotDto> slots = freeSlotService.findFreeSlots(specialization, department, startDate, endDate, limit);
+            return ResponseEntity.ok(slots);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<AppointmentDto> getAppointmentById(@PathVariable Long id) {
-        Optional<AppointmentDto> appointment = appointmentService.getAppointmentById(id);
-        return appointment.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<AppointmentDto> getAppointmentById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, appointmentService.getAppointmentVersion(id),
+                () -> appointmentService.getAppointmentById(id));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, BatchEntry<AppointmentDto>>> getAppointmentsByIds(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(appointmentService.getAppointmentsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -79,16 +170,42 @@ public class AppointmentController {
         try {
             AppointmentDto updatedAppointment = appointmentService.updateAppointment(id, appointmentDto);
             return ResponseEntity.ok(updatedAppointment);
+        } catch (VersionConflictException | InvalidStatusTransitionException e) {
+            return appointmentService.getAppointmentById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (VersionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<AppointmentDto> patchAppointment(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(appointmentService.patchAppointment(id, patch));
+        } catch (VersionConflictException | InvalidStatusTransitionException e) {
+            return appointmentService.getAppointmentById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
     }
 
     @PutMapping("/{id}/status")
-    public ResponseEntity<AppointmentDto> updateAppointmentStatus(@PathVariable Long id, @RequestParam String status) {
+    public ResponseEntity<AppointmentDto> updateAppointmentStatus(@PathVariable Long id,
+                                                                  @RequestParam AppointmentStatus status) {
         try {
             AppointmentDto updatedAppointment = appointmentService.updateAppointmentStatus(id, status);
             return ResponseEntity.ok(updatedAppointment);
+        } catch (VersionConflictException | InvalidStatusTransitionException e) {
+            return appointmentService.getAppointmentById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -3,7 +3,10 @@ package com.healthcare.controller;
 import com.healthcare.dto.LoginRequest;
 import com.healthcare.dto.LoginResponse;
 import com.healthcare.service.AuthService;
+import com.healthcare.exception.PasswordHashingRejectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,6 +24,10 @@ public class AuthController {
         try {
             LoginResponse response = authService.authenticate(loginRequest);
             return ResponseEntity.ok(response);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new LoginResponse(false, "Too many login attempts, please retry shortly"));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new LoginResponse(false, "Login failed: " + e.getMessage()));
@@ -0,0 +1,49 @@
+package com.healthcare.controller;
+
+import com.healthcare.service.ResourceVersion;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Answers If-None-Match / If-Modified-Since from a ResourceVersion before the body is loaded.
+// The version is read first, so a body that changed in between only ever carries an older tag,
+// which costs the client one extra full response rather than a stale copy.
+final class ConditionalGet {
+
+    // Clients may keep a copy but must revalidate it, and shared caches must not hold patient data.
+    // Also stops Spring Security from adding its default no-store header.
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private ConditionalGet() {}
+
+    static <T> ResponseEntity<T> respond(WebRequest request, Optional<ResourceVersion> version, Supplier<Optional<T>> body) {
+        if (version.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // Sets ETag and Last-Modified on the response either way
+        if (notModified(request, version.get())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE).build();
+        }
+        return body.get()
+                .map(dto -> ResponseEntity.ok().cacheControl(REVALIDATE).body(dto))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    static <T> ResponseEntity<T> respond(WebRequest request, ResourceVersion version, Supplier<T> body) {
+        return respond(request, Optional.of(version), () -> Optional.of(body.get()));
+    }
+
+    private static boolean notModified(WebRequest request, ResourceVersion version) {
+        String etag = "\"" + version.tag() + "\"";
+        if (version.lastModified() == null) {
+            return request.checkNotModified(etag);
+        }
+        long lastModified = version.lastModified().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return request.checkNotModified(etag, lastModified);
+    }
+}
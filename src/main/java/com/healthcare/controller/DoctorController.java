@@ -1,12 +1,23 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.DoctorDto;
+import com.healthcare.service.FieldSelection;
 import com.healthcare.service.DoctorService;
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
+import com.healthcare.exception.PasswordHashingRejectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -18,9 +29,17 @@ public class DoctorController {
     private DoctorService doctorService;
 
     @GetMapping
-    public ResponseEntity<List<DoctorDto>> getAllDoctors() {
-        List<DoctorDto> doctors = doctorService.getAllDoctors();
-        return ResponseEntity.ok(doctors);
+    public ResponseEntity<CursorPage<DoctorDto>> getAllDoctors(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields,
+            WebRequest request) {
+        try {
+            return ConditionalGet.respond(request, doctorService.getDoctorsVersion(),
+                    () -> doctorService.getDoctors(fields, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/active")
@@ -41,11 +60,27 @@ public class DoctorController {
         return ResponseEntity.ok(doctors);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<DoctorDto>> searchDoctorsByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "10") int size) {
+        List<DoctorDto> doctors = doctorService.searchDoctorsByName(name, size);
+        return ResponseEntity.ok(doctors);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<DoctorDto> getDoctorById(@PathVariable Long id) {
-        Optional<DoctorDto> doctor = doctorService.getDoctorById(id);
-        return doctor.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<DoctorDto> getDoctorById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, doctorService.getDoctorVersion(id),
+                () -> doctorService.getDoctorById(id));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, BatchEntry<DoctorDto>>> getDoctorsByIds(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(doctorService.getDoctorsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/doctor-id/{doctorId}")
@@ -60,6 +95,10 @@ public class DoctorController {
         try {
             DoctorDto createdDoctor = doctorService.createDoctor(doctorDto);
             return ResponseEntity.ok(createdDoctor);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -70,6 +109,27 @@ public class DoctorController {
         try {
             DoctorDto updatedDoctor = doctorService.updateDoctor(id, doctorDto);
             return ResponseEntity.ok(updatedDoctor);
+        } catch (VersionConflictException e) {
+            return doctorService.getDoctorById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (VersionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<DoctorDto> patchDoctor(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(doctorService.patchDoctor(id, patch));
+        } catch (VersionConflictException e) {
+            return doctorService.getDoctorById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
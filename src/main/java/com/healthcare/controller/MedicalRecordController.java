@@ -1,16 +1,31 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.MedicalRecordDto;
+import com.healthcare.service.FieldSelection;
+import com.healthcare.service.MedicalRecordExportService;
 import com.healthcare.service.MedicalRecordService;
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/medical-records")
@@ -20,29 +35,57 @@ public class MedicalRecordController {
     @Autowired
     private MedicalRecordService medicalRecordService;
 
+    @Autowired
+    private MedicalRecordExportService medicalRecordExportService;
+
+    // A full export outlives the default async request timeout (about 30s in the container)
+    @Value("${medical-records.export.timeout-ms:14400000}")
+    private long exportTimeoutMillis;
+
     @GetMapping
-    public ResponseEntity<List<MedicalRecordDto>> getAllMedicalRecords() {
-        List<MedicalRecordDto> records = medicalRecordService.getAllMedicalRecords();
-        return ResponseEntity.ok(records);
+    public ResponseEntity<CursorPage<MedicalRecordDto>> getAllMedicalRecords(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields,
+            WebRequest request) {
+        try {
+            return ConditionalGet.respond(request, medicalRecordService.getMedicalRecordsVersion(),
+                    () -> medicalRecordService.getMedicalRecords(fields, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MedicalRecordDto> getMedicalRecordById(@PathVariable Long id) {
-        Optional<MedicalRecordDto> record = medicalRecordService.getMedicalRecordById(id);
-        return record.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<MedicalRecordDto> getMedicalRecordById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, medicalRecordService.getMedicalRecordVersion(id),
+                () -> medicalRecordService.getMedicalRecordById(id));
     }
 
     @GetMapping("/patient/{patientId}")
-    public ResponseEntity<List<MedicalRecordDto>> getMedicalRecordsByPatient(@PathVariable Long patientId) {
-        List<MedicalRecordDto> records = medicalRecordService.getMedicalRecordsByPatient(patientId);
-        return ResponseEntity.ok(records);
+    public ResponseEntity<CursorPage<MedicalRecordDto>> getMedicalRecordsByPatient(@PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<MedicalRecordDto> records = medicalRecordService.getMedicalRecordsByPatient(fields, patientId, cursor, size);
+            return ResponseEntity.ok(records);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/doctor/{doctorId}")
-    public ResponseEntity<List<MedicalRecordDto>> getMedicalRecordsByDoctor(@PathVariable Long doctorId) {
-        List<MedicalRecordDto> records = medicalRecordService.getMedicalRecordsByDoctor(doctorId);
-        return ResponseEntity.ok(records);
+    public ResponseEntity<CursorPage<MedicalRecordDto>> getMedicalRecordsByDoctor(@PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<MedicalRecordDto> records = medicalRecordService.getMedicalRecordsByDoctor(fields, doctorId, cursor, size);
+            return ResponseEntity.ok(records);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/appointment/{appointmentId}")
@@ -60,9 +103,44 @@ public class MedicalRecordController {
         return ResponseEntity.ok(records);
     }
 
+    // Streams every matching record as one JSON object per line, gzipped when the client accepts it
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportMedicalRecords(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long patientId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            NativeWebRequest request) {
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        // The streaming body runs as async processing under this request's timeout
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeoutMillis);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        StreamingResponseBody body = output -> {
+            if (gzip) {
+                // Sync flush, so each flushed batch reaches the client instead of waiting in the deflater
+                GZIPOutputStream compressed = new GZIPOutputStream(output, 8192, true);
+                medicalRecordExportService.export(startDate, endDate, patientId, doctorId, compressed);
+                compressed.finish();
+            } else {
+                medicalRecordExportService.export(startDate, endDate, patientId, doctorId, output);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"));
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
     @GetMapping("/search")
-    public ResponseEntity<List<MedicalRecordDto>> searchByDiagnosis(@RequestParam String diagnosis) {
-        List<MedicalRecordDto> records = medicalRecordService.searchByDiagnosis(diagnosis);
+    public ResponseEntity<List<MedicalRecordDto>> searchByDiagnosis(@RequestParam String diagnosis,
+                                                                    @RequestParam(defaultValue = "20") int size) {
+        List<MedicalRecordDto> records = medicalRecordService.searchByDiagnosis(diagnosis, size);
         return ResponseEntity.ok(records);
     }
 
@@ -81,6 +159,27 @@ public class MedicalRecordController {
         try {
             MedicalRecordDto updatedRecord = medicalRecordService.updateMedicalRecord(id, medicalRecordDto);
             return ResponseEntity.ok(updatedRecord);
+        } catch (VersionConflictException e) {
+            return medicalRecordService.getMedicalRecordById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (VersionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<MedicalRecordDto> patchMedicalRecord(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(medicalRecordService.patchMedicalRecord(id, patch));
+        } catch (VersionConflictException e) {
+            return medicalRecordService.getMedicalRecordById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,12 +1,30 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.AuditEntryDto;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.ImportReport;
 import com.healthcare.dto.PatientDto;
+import com.healthcare.service.FieldSelection;
+import com.healthcare.service.AuditService;
+import com.healthcare.service.PatientImportService;
 import com.healthcare.service.PatientService;
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
+import com.healthcare.exception.PasswordHashingRejectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -17,23 +35,60 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private PatientImportService patientImportService;
+
+    @Autowired
+    private AuditService auditService;
+
     @GetMapping
-    public ResponseEntity<List<PatientDto>> getAllPatients() {
-        List<PatientDto> patients = patientService.getAllPatients();
-        return ResponseEntity.ok(patients);
+    public ResponseEntity<CursorPage<PatientDto>> getAllPatients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields,
+            WebRequest request) {
+        try {
+            return ConditionalGet.respond(request, patientService.getPatientsVersion(),
+                    () -> patientService.getPatients(fields, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<PatientDto>> getActivePatients() {
-        List<PatientDto> patients = patientService.getActivePatients();
+    public ResponseEntity<CursorPage<PatientDto>> getActivePatients(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<PatientDto> patients = patientService.getActivePatients(fields, cursor, size);
+            return ResponseEntity.ok(patients);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<PatientDto>> searchPatientsByName(
+            @RequestParam String name,
+            @RequestParam(defaultValue = "10") int size) {
+        List<PatientDto> patients = patientService.searchPatientsByName(name, size);
         return ResponseEntity.ok(patients);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDto> getPatientById(@PathVariable Long id) {
-        Optional<PatientDto> patient = patientService.getPatientById(id);
-        return patient.map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<PatientDto> getPatientById(@PathVariable Long id, WebRequest request) {
+        return ConditionalGet.respond(request, patientService.getPatientVersion(id),
+                () -> patientService.getPatientById(id));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, BatchEntry<PatientDto>>> getPatientsByIds(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(patientService.getPatientsByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/patient-id/{patientId}")
@@ -43,21 +98,75 @@ public class PatientController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    // Changes to the patient, their medical records and appointments, newest first. Also
+    // answers for deleted patients, whose history outlives them.
+    @GetMapping("/{id}/audit")
+    public ResponseEntity<List<AuditEntryDto>> getPatientAuditHistory(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            List<AuditEntryDto> history = auditService.getPatientHistory(id, limit);
+            return ResponseEntity.ok(history);
+        } catch (UncheckedIOException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
     @PostMapping
     public ResponseEntity<PatientDto> createPatient(@RequestBody PatientDto patientDto) {
         try {
             PatientDto createdPatient = patientService.createPatient(patientDto);
             return ResponseEntity.ok(createdPatient);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // Streams a CSV (with header) or NDJSON file of patients; the report lists every rejected row
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<ImportReport> importPatients(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        try {
+            ImportReport report = contentType.startsWith("text/csv")
+                    ? patientImportService.importCsv(body)
+                    : patientImportService.importNdjson(body);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException | IOException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<PatientDto> updatePatient(@PathVariable Long id, @RequestBody PatientDto patientDto) {
         try {
             PatientDto updatedPatient = patientService.updatePatient(id, patientDto);
             return ResponseEntity.ok(updatedPatient);
+        } catch (VersionConflictException e) {
+            return patientService.getPatientById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (VersionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<PatientDto> patchPatient(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(patientService.patchPatient(id, patch));
+        } catch (VersionConflictException e) {
+            return patientService.getPatientById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,14 +1,24 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.UserDto;
 import com.healthcare.model.Role;
+import com.healthcare.service.FieldSelection;
 import com.healthcare.service.UserService;
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
+import com.healthcare.exception.PasswordHashingRejectedException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @RestController
@@ -20,9 +30,16 @@ public class UserController {
     private UserService userService;
 
     @GetMapping
-    public ResponseEntity<List<UserDto>> getAllUsers() {
-        List<UserDto> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<CursorPage<UserDto>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<UserDto> users = userService.getUsers(fields, cursor, size);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -32,10 +49,26 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Map<Long, BatchEntry<UserDto>>> getUsersByIds(@RequestBody List<Long> ids) {
+        try {
+            return ResponseEntity.ok(userService.getUsersByIds(ids));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/role/{role}")
-    public ResponseEntity<List<UserDto>> getUsersByRole(@PathVariable Role role) {
-        List<UserDto> users = userService.getUsersByRole(role);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<CursorPage<UserDto>> getUsersByRole(@PathVariable Role role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            FieldSelection fields) {
+        try {
+            CursorPage<UserDto> users = userService.getUsersByRole(fields, role, cursor, size);
+            return ResponseEntity.ok(users);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @PostMapping
@@ -43,6 +76,10 @@ public class UserController {
         try {
             UserDto createdUser = userService.createUser(userDto);
             return ResponseEntity.ok(createdUser);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -53,6 +90,35 @@ public class UserController {
         try {
             UserDto updatedUser = userService.updateUser(id, userDto);
             return ResponseEntity.ok(updatedUser);
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        } catch (VersionConflictException e) {
+            return userService.getUserById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (VersionRequiredException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<UserDto> patchUser(@PathVariable Long id, @RequestBody JsonNode patch) {
+        try {
+            return ResponseEntity.ok(userService.patchUser(id, patch));
+        } catch (PasswordHashingRejectedException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+        } catch (VersionConflictException e) {
+            return userService.getUserById(id)
+                    .map(current -> ResponseEntity.status(HttpStatus.CONFLICT).body(current))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -60,8 +126,12 @@ public class UserController {
 
     @PutMapping("/{id}/deactivate")
     public ResponseEntity<Void> deactivateUser(@PathVariable Long id) {
-        userService.deactivateUser(id);
-        return ResponseEntity.ok().build();
+        try {
+            userService.deactivateUser(id);
+            return ResponseEntity.ok().build();
+        } catch (VersionConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
     }
 
     @DeleteMapping("/{id}")
@@ -1,5 +1,7 @@
 package com.healthcare.dto;
 
+import com.healthcare.model.AppointmentStatus;
+
 import java.time.LocalDateTime;
 
 public class AppointmentDto {
@@ -10,9 +12,10 @@ public class AppointmentDto {
     private String doctorName;
     private LocalDateTime appointmentDateTime;
     private String reason;
-    private String status;
+    private AppointmentStatus status;
     private String notes;
     private String prescription;
+    private Long version;
 
     // Constructors
     public AppointmentDto() {}
@@ -39,12 +42,15 @@ public class AppointmentDto {
     public String getReason() { return reason; }
     public void setReason(String reason) { this.reason = reason; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public AppointmentStatus getStatus() { return status; }
+    public void setStatus(AppointmentStatus status) { this.status = status; }
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
 
     public String getPrescription() { return prescription; }
     public void setPrescription(String prescription) { this.prescription = prescription; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
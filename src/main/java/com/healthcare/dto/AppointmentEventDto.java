@@ -0,0 +1,64 @@
+package com.healthcare.dto;
+
+import com.healthcare.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+public class AppointmentEventDto {
+    private long id;
+    private Type type;
+    private Long appointmentId;
+    private Long doctorId;
+    private String department;
+    private AppointmentDto appointment;
+    private LocalDateTime previousAppointmentDateTime;
+    private AppointmentStatus previousStatus;
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        CREATED, RESCHEDULED, STATUS_CHANGED, UPDATED, DELETED
+    }
+
+    // Constructors
+    public AppointmentEventDto() {}
+
+    public AppointmentEventDto(Type type, AppointmentDto appointment, String department,
+                               LocalDateTime previousAppointmentDateTime, AppointmentStatus previousStatus) {
+        this.type = type;
+        this.appointmentId = appointment.getId();
+        this.doctorId = appointment.getDoctorId();
+        this.department = department;
+        this.appointment = appointment;
+        this.previousAppointmentDateTime = previousAppointmentDateTime;
+        this.previousStatus = previousStatus;
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+
+    public Long getAppointmentId() { return appointmentId; }
+    public void setAppointmentId(Long appointmentId) { this.appointmentId = appointmentId; }
+
+    public Long getDoctorId() { return doctorId; }
+    public void setDoctorId(Long doctorId) { this.doctorId = doctorId; }
+
+    public String getDepartment() { return department; }
+    public void setDepartment(String department) { this.department = department; }
+
+    public AppointmentDto getAppointment() { return appointment; }
+    public void setAppointment(AppointmentDto appointment) { this.appointment = appointment; }
+
+    public LocalDateTime getPreviousAppointmentDateTime() { return previousAppointmentDateTime; }
+    public void setPreviousAppointmentDateTime(LocalDateTime previousAppointmentDateTime) { this.previousAppointmentDateTime = previousAppointmentDateTime; }
+
+    public AppointmentStatus getPreviousStatus() { return previousStatus; }
+    public void setPreviousStatus(AppointmentStatus previousStatus) { this.previousStatus = previousStatus; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
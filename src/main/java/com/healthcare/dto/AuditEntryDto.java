@@ -0,0 +1,87 @@
+package com.healthcare.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// patientId leads each log line so AuditLog can filter lines without parsing them
+@JsonPropertyOrder({"patientId", "occurredAt", "entityType", "entityId", "action", "actor", "changes"})
+public class AuditEntryDto {
+    private LocalDateTime occurredAt;
+    private EntityType entityType;
+    private Long entityId;
+    private Long patientId;
+    private Action action;
+    private String actor;
+    private List<FieldChange> changes;
+
+    public enum EntityType {
+        PATIENT, MEDICAL_RECORD, APPOINTMENT
+    }
+
+    public enum Action {
+        CREATE, UPDATE, DELETE
+    }
+
+    public static class FieldChange {
+        private String field;
+        private String oldValue;
+        private String newValue;
+
+        // Constructors
+        public FieldChange() {}
+
+        public FieldChange(String field, String oldValue, String newValue) {
+            this.field = field;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        // Getters and Setters
+        public String getField() { return field; }
+        public void setField(String field) { this.field = field; }
+
+        public String getOldValue() { return oldValue; }
+        public void setOldValue(String oldValue) { this.oldValue = oldValue; }
+
+        public String getNewValue() { return newValue; }
+        public void setNewValue(String newValue) { this.newValue = newValue; }
+    }
+
+    // Constructors
+    public AuditEntryDto() {}
+
+    public AuditEntryDto(EntityType entityType, Long entityId, Long patientId, Action action,
+                         String actor, List<FieldChange> changes) {
+        this.occurredAt = LocalDateTime.now();
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.patientId = patientId;
+        this.action = action;
+        this.actor = actor;
+        this.changes = changes;
+    }
+
+    // Getters and Setters
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+
+    public EntityType getEntityType() { return entityType; }
+    public void setEntityType(EntityType entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    public Long getPatientId() { return patientId; }
+    public void setPatientId(Long patientId) { this.patientId = patientId; }
+
+    public Action getAction() { return action; }
+    public void setAction(Action action) { this.action = action; }
+
+    public String getActor() { return actor; }
+    public void setActor(String actor) { this.actor = actor; }
+
+    public List<FieldChange> getChanges() { return changes; }
+    public void setChanges(List<FieldChange> changes) { this.changes = changes; }
+}
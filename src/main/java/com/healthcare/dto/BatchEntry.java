@@ -0,0 +1,41 @@
+package com.healthcare.dto;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class BatchEntry<T> {
+    private boolean found;
+    private T item;
+
+    // Constructors
+    public BatchEntry() {}
+
+    public BatchEntry(boolean found, T item) {
+        this.found = found;
+        this.item = item;
+    }
+
+    // One entry per requested id in request order; ids without a row get found=false
+    public static <E, T> Map<Long, BatchEntry<T>> mapOf(Collection<Long> ids, List<E> rows,
+                                                        Function<E, Long> idOf, Function<E, T> mapper) {
+        Map<Long, E> byId = rows.stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        Map<Long, BatchEntry<T>> entries = new LinkedHashMap<>();
+        for (Long id : ids) {
+            E row = byId.get(id);
+            entries.put(id, row != null ? new BatchEntry<>(true, mapper.apply(row)) : new BatchEntry<>(false, null));
+        }
+        return entries;
+    }
+
+    // Getters and Setters
+    public boolean isFound() { return found; }
+    public void setFound(boolean found) { this.found = found; }
+
+    public T getItem() { return item; }
+    public void setItem(T item) { this.item = item; }
+}
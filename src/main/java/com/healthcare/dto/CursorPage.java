@@ -0,0 +1,49 @@
+package com.healthcare.dto;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    private int size;
+
+    // Constructors
+    public CursorPage() {}
+
+    public CursorPage(List<T> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.size = items.size();
+    }
+
+    // Builds a page from a keyset slice; the cursor points just past the last row returned
+    public static <E, T> CursorPage<T> of(Slice<E> slice, Function<E, T> mapper, Function<E, String> cursorOf) {
+        List<E> content = slice.getContent();
+        List<T> items = content.stream()
+                .map(mapper)
+                .collect(Collectors.toList());
+        String nextCursor = slice.hasNext() && !content.isEmpty()
+                ? cursorOf.apply(content.get(content.size() - 1))
+                : null;
+        return new CursorPage<>(items, nextCursor, slice.hasNext());
+    }
+
+    // Getters and Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+
+    public boolean isHasMore() { return hasMore; }
+    public void setHasMore(boolean hasMore) { this.hasMore = hasMore; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+}
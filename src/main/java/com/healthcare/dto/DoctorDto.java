@@ -11,6 +11,7 @@ public class DoctorDto {
     private String consultationFee;
     private String workingHours;
     private Boolean available;
+    private Long version;
 
     // Constructors
     public DoctorDto() {}
@@ -45,4 +46,7 @@ public class DoctorDto {
 
     public Boolean getAvailable() { return available; }
     public void setAvailable(Boolean available) { this.available = available; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
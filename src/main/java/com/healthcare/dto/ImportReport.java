@@ -0,0 +1,57 @@
+package com.healthcare.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private int totalRows;
+    private int imported;
+    private int failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    // Constructors
+    public ImportReport() {}
+
+    public void addImported(int rows) {
+        totalRows += rows;
+        imported += rows;
+    }
+
+    // Row numbers are 1-based data rows, not counting a CSV header
+    public void addError(int row, String message) {
+        totalRows++;
+        failed++;
+        errors.add(new RowError(row, message));
+    }
+
+    // Getters and Setters
+    public int getTotalRows() { return totalRows; }
+    public void setTotalRows(int totalRows) { this.totalRows = totalRows; }
+
+    public int getImported() { return imported; }
+    public void setImported(int imported) { this.imported = imported; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public static class RowError {
+        private int row;
+        private String message;
+
+        public RowError() {}
+
+        public RowError(int row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public int getRow() { return row; }
+        public void setRow(int row) { this.row = row; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
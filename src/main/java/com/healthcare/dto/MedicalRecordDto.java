@@ -16,6 +16,7 @@ public class MedicalRecordDto {
     private String testResults;
     private String notes;
     private LocalDateTime visitDate;
+    private Long version;
 
     // Constructors
     public MedicalRecordDto() {}
@@ -59,4 +60,7 @@ public class MedicalRecordDto {
 
     public LocalDateTime getVisitDate() { return visitDate; }
     public void setVisitDate(LocalDateTime visitDate) { this.visitDate = visitDate; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
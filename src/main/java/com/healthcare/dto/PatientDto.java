@@ -13,6 +13,7 @@ public class PatientDto {
     private String bloodGroup;
     private String allergies;
     private String medicalHistory;
+    private Long version;
 
     // Constructors
     public PatientDto() {}
@@ -47,4 +48,7 @@ public class PatientDto {
 
     public String getMedicalHistory() { return medicalHistory; }
     public void setMedicalHistory(String medicalHistory) { this.medicalHistory = medicalHistory; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ public class UserDto {
     private String phoneNumber;
     private Role role;
     private Boolean active;
+    private Long version;
 
     // Constructors
     public UserDto() {}
@@ -50,4 +51,7 @@ public class UserDto {
 
     public Boolean getActive() { return active; }
     public void setActive(Boolean active) { this.active = active; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.healthcare.exception;
+
+import com.healthcare.model.AppointmentStatus;
+
+// Thrown when an appointment is asked to move to a status its current status cannot reach
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    private final AppointmentStatus from;
+    private final AppointmentStatus to;
+
+    public InvalidStatusTransitionException(AppointmentStatus from, AppointmentStatus to) {
+        super("Appointment cannot move from " + from + " to " + to);
+        this.from = from;
+        this.to = to;
+    }
+
+    public AppointmentStatus getFrom() { return from; }
+
+    public AppointmentStatus getTo() { return to; }
+}
@@ -0,0 +1,13 @@
+package com.healthcare.exception;
+
+// Thrown when the password hashing pool is saturated and the request should be retried later
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
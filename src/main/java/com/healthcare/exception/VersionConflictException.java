@@ -0,0 +1,19 @@
+package com.healthcare.exception;
+
+// Thrown when an update was based on a stale version of an entity
+public class VersionConflictException extends RuntimeException {
+
+    private final Long currentVersion;
+
+    public VersionConflictException(String message, Long currentVersion) {
+        super(message);
+        this.currentVersion = currentVersion;
+    }
+
+    public VersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+        this.currentVersion = null;
+    }
+
+    public Long getCurrentVersion() { return currentVersion; }
+}
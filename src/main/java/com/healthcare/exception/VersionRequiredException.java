@@ -0,0 +1,9 @@
+package com.healthcare.exception;
+
+// Thrown when a full replacement arrives without the version it was based on
+public class VersionRequiredException extends RuntimeException {
+
+    public VersionRequiredException(String message) {
+        super(message);
+    }
+}
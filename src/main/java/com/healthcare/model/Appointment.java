@@ -1,37 +1,51 @@
 package com.healthcare.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "appointments")
+@DynamicUpdate
+@Table(name = "appointments", indexes = {
+        @Index(name = "idx_appointments_doctor_time", columnList = "doctor_id, appointment_date_time"),
+        @Index(name = "idx_appointments_patient_time", columnList = "patient_id, appointment_date_time"),
+        @Index(name = "idx_appointments_status_time", columnList = "status, appointment_date_time"),
+        @Index(name = "idx_appointments_time", columnList = "appointment_date_time, id"),
+        @Index(name = "idx_appointments_updated", columnList = "updated_at")
+})
 public class Appointment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", referencedColumnName = "id")
     private Patient patient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", referencedColumnName = "id")
     private Doctor doctor;
 
     private LocalDateTime appointmentDateTime;
     private String reason;
-    private String status; // SCHEDULED, COMPLETED, CANCELLED
+    @Convert(converter = AppointmentStatusConverter.class)
+    @Column(length = 16)
+    private AppointmentStatus status;
     private String notes;
     private String prescription;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
         if (status == null) {
-            status = "SCHEDULED";
+            status = AppointmentStatus.SCHEDULED;
         }
     }
 
@@ -48,7 +62,7 @@ public class Appointment {
         this.doctor = doctor;
         this.appointmentDateTime = appointmentDateTime;
         this.reason = reason;
-        this.status = "SCHEDULED";
+        this.status = AppointmentStatus.SCHEDULED;
     }
 
     // Getters and Setters
@@ -67,8 +81,8 @@ public class Appointment {
     public String getReason() { return reason; }
     public void setReason(String reason) { this.reason = reason; }
 
-    public String getStatus() { return status; }
-    public void setStatus(String status) { this.status = status; }
+    public AppointmentStatus getStatus() { return status; }
+    public void setStatus(AppointmentStatus status) { this.status = status; }
 
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
@@ -81,4 +95,7 @@ public class Appointment {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
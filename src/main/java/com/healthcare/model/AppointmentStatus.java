@@ -0,0 +1,20 @@
+package com.healthcare.model;
+
+public enum AppointmentStatus {
+    SCHEDULED, COMPLETED, CANCELLED;
+
+    // A completed visit is final; a cancellation can be reinstated while the slot is still free
+    public boolean canTransitionTo(AppointmentStatus next) {
+        if (next == null) {
+            return false;
+        }
+        if (next == this) {
+            return true;
+        }
+        return switch (this) {
+            case SCHEDULED -> true;
+            case CANCELLED -> next == SCHEDULED;
+            case COMPLETED -> false;
+        };
+    }
+}
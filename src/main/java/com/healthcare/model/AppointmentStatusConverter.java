@@ -0,0 +1,24 @@
+package com.healthcare.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Locale;
+
+// Stores the enum name, but reads back the free-text values that were saved before the column
+// became an enum. AppointmentStatusMigration rewrites those rows at startup; on MySQL's
+// case-insensitive collations a row spelled "scheduled" already equals SCHEDULED, so it is
+// left alone and only its spelling is tolerated here.
+@Converter
+public class AppointmentStatusConverter implements AttributeConverter<AppointmentStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(AppointmentStatus status) {
+        return status == null ? null : status.name();
+    }
+
+    @Override
+    public AppointmentStatus convertToEntityAttribute(String value) {
+        return value == null ? null : AppointmentStatus.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
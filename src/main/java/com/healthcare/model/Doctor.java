@@ -1,19 +1,28 @@
 package com.healthcare.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "doctors")
+@DynamicUpdate
+@Table(name = "doctors", indexes = {
+        @Index(name = "idx_doctors_specialization", columnList = "specialization"),
+        @Index(name = "idx_doctors_department", columnList = "department"),
+        @Index(name = "idx_doctors_available", columnList = "available"),
+        @Index(name = "idx_doctors_created", columnList = "created_at, id"),
+        @Index(name = "idx_doctors_updated", columnList = "updated_at")
+})
 public class Doctor {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
+    @Column(unique = true)
     private String doctorId;
     private String specialization;
     private String qualification;
@@ -25,6 +34,10 @@ public class Doctor {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -75,4 +88,7 @@ public class Doctor {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
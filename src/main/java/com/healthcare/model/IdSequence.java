@@ -0,0 +1,25 @@
+package com.healthcare.model;
+
+import jakarta.persistence.*;
+
+// High-water mark of a block-allocated business ID sequence (see BusinessIdAllocator)
+@Entity
+@Table(name = "id_sequences")
+public class IdSequence {
+    @Id
+    @Column(length = 32)
+    private String name;
+
+    @Column(nullable = false)
+    private Long nextValue;
+
+    // Constructors
+    public IdSequence() {}
+
+    // Getters and Setters
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getNextValue() { return nextValue; }
+    public void setNextValue(Long nextValue) { this.nextValue = nextValue; }
+}
@@ -1,24 +1,32 @@
 package com.healthcare.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 
+// Dirty columns only, so editing notes does not resend the diagnosis, treatment and test results
 @Entity
-@Table(name = "medical_records")
+@DynamicUpdate
+@Table(name = "medical_records", indexes = {
+        @Index(name = "idx_medical_records_patient_visit", columnList = "patient_id, visit_date"),
+        @Index(name = "idx_medical_records_doctor_visit", columnList = "doctor_id, visit_date"),
+        @Index(name = "idx_medical_records_visit", columnList = "visit_date, id"),
+        @Index(name = "idx_medical_records_updated", columnList = "updated_at")
+})
 public class MedicalRecord {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", referencedColumnName = "id")
     private Patient patient;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", referencedColumnName = "id")
     private Doctor doctor;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id", referencedColumnName = "id")
     private Appointment appointment;
 
@@ -32,6 +40,10 @@ public class MedicalRecord {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -95,4 +107,7 @@ public class MedicalRecord {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
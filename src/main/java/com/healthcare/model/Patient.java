@@ -1,20 +1,29 @@
 package com.healthcare.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 
+// Only changed columns go into the UPDATE; medicalHistory and allergies are rewritten only when edited
 @Entity
-@Table(name = "patients")
+@DynamicUpdate
+@Table(name = "patients", indexes = {
+        @Index(name = "idx_patients_created", columnList = "created_at, id"),
+        @Index(name = "idx_patients_updated", columnList = "updated_at")
+})
 public class Patient {
+    // Pooled sequence rather than IDENTITY so inserts can be JDBC-batched (see PatientImportService)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "patients_seq")
+    @SequenceGenerator(name = "patients_seq", sequenceName = "patients_seq", allocationSize = 50)
     private Long id;
 
-    @OneToOne
+    @OneToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", referencedColumnName = "id")
     private User user;
 
+    @Column(unique = true)
     private String patientId;
     private LocalDate dateOfBirth;
     private String gender;
@@ -26,6 +35,10 @@ public class Patient {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -76,4 +89,7 @@ public class Patient {
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
 }
\ No newline at end of file
@@ -1,18 +1,49 @@
 package com.healthcare.repository;
 
 import com.healthcare.model.Appointment;
+import com.healthcare.model.AppointmentStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
+    @Override
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    Optional<Appointment> findById(Long id);
+
+    // The appointment plus the patient and doctor users whose names go into AppointmentDto
+    @Query("SELECT a.version + pu.version + du.version AS version, " +
+            "greatest(a.updatedAt, pu.updatedAt, du.updatedAt) AS updatedAt " +
+            "FROM Appointment a JOIN a.patient p JOIN p.user pu JOIN a.doctor d JOIN d.user du " +
+            "WHERE a.id = ?1")
+    Optional<VersionStamp> findVersionStampById(Long id);
+
+    @Query("SELECT COUNT(*) AS count, MAX(a.updatedAt) AS updatedAt FROM Appointment a")
+    CollectionStamp findCollectionStamp();
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.id IN ?1")
+    List<Appointment> findAllWithParticipantsByIdIn(Collection<Long> ids);
+
+    // Explicit queries compare the foreign key column; the derived forms joined the parent table
+    // and filtered on its id, which left nothing but a scan of appointments
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = ?1")
     List<Appointment> findByPatientId(Long patientId);
+
+    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = ?1")
     List<Appointment> findByDoctorId(Long doctorId);
-    List<Appointment> findByStatus(String status);
 
+    List<Appointment> findByStatus(AppointmentStatus status);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
     @Query("SELECT a FROM Appointment a WHERE a.appointmentDateTime BETWEEN ?1 AND ?2")
     List<Appointment> findByAppointmentDateTimeBetween(LocalDateTime start, LocalDateTime end);
 
@@ -22,6 +53,75 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE a.patient.id = ?1 AND a.appointmentDateTime BETWEEN ?2 AND ?3")
     List<Appointment> findByPatientIdAndDateRange(Long patientId, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT a FROM Appointment a WHERE DATE(a.appointmentDateTime) = CURRENT_DATE")
-    List<Appointment> findTodaysAppointments();
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    // Half-open range on the raw column, so the appointment_date_time index can be used
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDateTime >= ?1 AND a.appointmentDateTime < ?2")
+    List<Appointment> findTodaysAppointments(LocalDateTime startOfDay, LocalDateTime startOfNextDay);
+
+    // The earliest appointments in a range, read in index order and cut off at the page size
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDateTime >= ?1 AND a.appointmentDateTime < ?2 " +
+            "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    List<Appointment> findFirstByDateRange(LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM Appointment a WHERE a.appointmentDateTime >= ?1 AND a.appointmentDateTime < ?2")
+    long countByDateRange(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.status AS status, COUNT(a) AS total FROM Appointment a GROUP BY a.status")
+    List<StatusCount> countGroupByStatus();
+
+    @Query("SELECT a.doctor.id AS doctorId, a.appointmentDateTime AS appointmentDateTime FROM Appointment a " +
+            "WHERE a.appointmentDateTime >= ?1 AND (a.status IS NULL OR a.status <> com.healthcare.model.AppointmentStatus.CANCELLED) " +
+            "ORDER BY a.appointmentDateTime ASC")
+    List<BookedSlot> findBookedSlotsFrom(LocalDateTime from);
+
+    // Keyset pages ordered by (appointmentDateTime, id)
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findFirstPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.appointmentDateTime >= ?1 AND (a.appointmentDateTime > ?1 OR a.id > ?2) " +
+            "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findPageAfter(LocalDateTime after, Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = ?1 ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findFirstPageByPatientId(Long patientId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.patient.id = ?1 " +
+            "AND (a.appointmentDateTime >= ?2 AND (a.appointmentDateTime > ?2 OR a.id > ?3)) " +
+            "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findPageByPatientIdAfter(Long patientId, LocalDateTime after, Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = ?1 ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findFirstPageByDoctorId(Long doctorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = ?1 " +
+            "AND (a.appointmentDateTime >= ?2 AND (a.appointmentDateTime > ?2 OR a.id > ?3)) " +
+            "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findPageByDoctorIdAfter(Long doctorId, LocalDateTime after, Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.status = ?1 ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findFirstPageByStatus(AppointmentStatus status, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT a FROM Appointment a WHERE a.status = ?1 " +
+            "AND (a.appointmentDateTime >= ?2 AND (a.appointmentDateTime > ?2 OR a.id > ?3)) " +
+            "ORDER BY a.appointmentDateTime ASC, a.id ASC")
+    Slice<Appointment> findPageByStatusAfter(AppointmentStatus status, LocalDateTime after, Long afterId, Pageable pageable);
+
+    interface StatusCount {
+        AppointmentStatus getStatus();
+        long getTotal();
+    }
+
+    interface BookedSlot {
+        Long getDoctorId();
+        LocalDateTime getAppointmentDateTime();
+    }
+}
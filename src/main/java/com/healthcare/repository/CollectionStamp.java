@@ -0,0 +1,9 @@
+package com.healthcare.repository;
+
+import java.time.LocalDateTime;
+
+// Change marker for a whole table: an insert or update moves the latest updatedAt, a delete the count
+public interface CollectionStamp {
+    long getCount();
+    LocalDateTime getUpdatedAt();
+}
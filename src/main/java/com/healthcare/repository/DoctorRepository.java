@@ -1,23 +1,68 @@
 package com.healthcare.repository;
 
 import com.healthcare.model.Doctor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Long> {
-    Optional<Doctor> findByDoctorId(String doctorId);
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Doctor> findById(Long id);
+
+    @Query("SELECT d FROM Doctor d WHERE d.user.id = ?1")
     Optional<Doctor> findByUserId(Long userId);
+
+    @EntityGraph(attributePaths = "user")
+    Optional<Doctor> findByDoctorId(String doctorId);
+
+    // The doctor row and its user row; both go into DoctorDto
+    @Query("SELECT d.version + u.version AS version, greatest(d.updatedAt, u.updatedAt) AS updatedAt " +
+            "FROM Doctor d JOIN d.user u WHERE d.id = ?1")
+    Optional<VersionStamp> findVersionStampById(Long id);
+
+    @Query("SELECT COUNT(*) AS count, MAX(d.updatedAt) AS updatedAt FROM Doctor d")
+    CollectionStamp findCollectionStamp();
+
+    @Query("SELECT MAX(CAST(SUBSTRING(d.doctorId, 2) AS Long)) FROM Doctor d WHERE d.doctorId LIKE 'D%'")
+    Long findMaxDoctorNumber();
+
+    @EntityGraph(attributePaths = "user")
     List<Doctor> findByAvailableTrue();
+
+    @EntityGraph(attributePaths = "user")
     List<Doctor> findBySpecialization(String specialization);
+
+    @EntityGraph(attributePaths = "user")
     List<Doctor> findByDepartment(String department);
 
+    @EntityGraph(attributePaths = "user")
     @Query("SELECT d FROM Doctor d WHERE d.user.active = true")
     List<Doctor> findActiveDoctors();
 
-    @Query("SELECT d FROM Doctor d WHERE d.user.firstName LIKE %?1% OR d.user.lastName LIKE %?1%")
-    List<Doctor> findByNameContaining(String name);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.user.id IN ?1")
+    List<Doctor> findByUserIdIn(Collection<Long> userIds);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.id IN ?1")
+    List<Doctor> findAllWithUserByIdIn(Collection<Long> ids);
+
+    // Keyset pages ordered by (createdAt, id)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d ORDER BY d.createdAt ASC, d.id ASC")
+    Slice<Doctor> findFirstPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT d FROM Doctor d WHERE d.createdAt >= ?1 AND (d.createdAt > ?1 OR d.id > ?2) " +
+            "ORDER BY d.createdAt ASC, d.id ASC")
+    Slice<Doctor> findPageAfter(LocalDateTime after, Long afterId, Pageable pageable);
+}
@@ -0,0 +1,34 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.IdSequence;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Optional;
+
+@Repository
+public interface IdSequenceRepository extends JpaRepository<IdSequence, String> {
+    // Every statement runs in its own transaction. A claimed block must stay claimed when the
+    // caller's transaction rolls back, and a read inside the caller's snapshot would keep seeing
+    // the value the compare-and-set already moved past.
+
+    // Scalar read, so a stale entity in the request's persistence context is never returned
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    @Query("SELECT s.nextValue FROM IdSequence s WHERE s.name = ?1")
+    Optional<Long> findNextValue(String name);
+
+    // Fails with a duplicate key when another node created the row first
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query(value = "INSERT INTO id_sequences (name, next_value) VALUES (?1, ?2)", nativeQuery = true)
+    int create(String name, long nextValue);
+
+    // Compare-and-set on the high-water mark, so two nodes can never claim the same block
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Modifying
+    @Query("UPDATE IdSequence s SET s.nextValue = ?3 WHERE s.name = ?1 AND s.nextValue = ?2")
+    int advance(String name, long expected, long next);
+}
@@ -1,25 +1,93 @@
 package com.healthcare.repository;
 
 import com.healthcare.model.MedicalRecord;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface MedicalRecordRepository extends JpaRepository<MedicalRecord, Long> {
+    @Override
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    Optional<MedicalRecord> findById(Long id);
+
+    // The record plus the patient and doctor users whose names go into MedicalRecordDto
+    @Query("SELECT mr.version + pu.version + du.version AS version, " +
+            "greatest(mr.updatedAt, pu.updatedAt, du.updatedAt) AS updatedAt " +
+            "FROM MedicalRecord mr JOIN mr.patient p JOIN p.user pu JOIN mr.doctor d JOIN d.user du " +
+            "WHERE mr.id = ?1")
+    Optional<VersionStamp> findVersionStampById(Long id);
+
+    @Query("SELECT COUNT(*) AS count, MAX(mr.updatedAt) AS updatedAt FROM MedicalRecord mr")
+    CollectionStamp findCollectionStamp();
+
+    // Explicit queries compare the foreign key column instead of filtering on a joined parent
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = ?1")
     List<MedicalRecord> findByPatientId(Long patientId);
+
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.doctor.id = ?1")
     List<MedicalRecord> findByDoctorId(Long doctorId);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.appointment.id = ?1")
     Optional<MedicalRecord> findByAppointmentId(Long appointmentId);
 
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
     @Query("SELECT mr FROM MedicalRecord mr WHERE mr.visitDate BETWEEN ?1 AND ?2")
     List<MedicalRecord> findByVisitDateBetween(LocalDateTime start, LocalDateTime end);
 
     @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = ?1 ORDER BY mr.visitDate DESC")
     List<MedicalRecord> findByPatientIdOrderByVisitDateDesc(Long patientId);
 
-    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.diagnosis LIKE %?1%")
-    List<MedicalRecord> findByDiagnosisContaining(String diagnosis);
-}
\ No newline at end of file
+    // Feeds the in-memory diagnosis index; ascending ids keep its posting lists append-only
+    @Query("SELECT mr.id AS id, mr.diagnosis AS diagnosis FROM MedicalRecord mr " +
+            "WHERE mr.diagnosis IS NOT NULL ORDER BY mr.id ASC")
+    List<DiagnosisEntry> findDiagnosisEntries();
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.id IN ?1")
+    List<MedicalRecord> findAllWithParticipantsByIdIn(Collection<Long> ids);
+
+    // Keyset pages ordered by (visitDate, id)
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr ORDER BY mr.visitDate ASC, mr.id ASC")
+    Slice<MedicalRecord> findFirstPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.visitDate >= ?1 AND (mr.visitDate > ?1 OR mr.id > ?2) " +
+            "ORDER BY mr.visitDate ASC, mr.id ASC")
+    Slice<MedicalRecord> findPageAfter(LocalDateTime after, Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.doctor.id = ?1 ORDER BY mr.visitDate ASC, mr.id ASC")
+    Slice<MedicalRecord> findFirstPageByDoctorId(Long doctorId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.doctor.id = ?1 " +
+            "AND (mr.visitDate >= ?2 AND (mr.visitDate > ?2 OR mr.id > ?3)) " +
+            "ORDER BY mr.visitDate ASC, mr.id ASC")
+    Slice<MedicalRecord> findPageByDoctorIdAfter(Long doctorId, LocalDateTime after, Long afterId, Pageable pageable);
+
+    // A patient's history is read newest first, so this keyset runs on (visitDate, id) descending
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = ?1 ORDER BY mr.visitDate DESC, mr.id DESC")
+    Slice<MedicalRecord> findFirstPageByPatientId(Long patientId, Pageable pageable);
+
+    @EntityGraph(attributePaths = {"patient.user", "doctor.user"})
+    @Query("SELECT mr FROM MedicalRecord mr WHERE mr.patient.id = ?1 " +
+            "AND (mr.visitDate <= ?2 AND (mr.visitDate < ?2 OR mr.id < ?3)) " +
+            "ORDER BY mr.visitDate DESC, mr.id DESC")
+    Slice<MedicalRecord> findPageByPatientIdBefore(Long patientId, LocalDateTime before, Long beforeId, Pageable pageable);
+
+    interface DiagnosisEntry {
+        Long getId();
+        String getDiagnosis();
+    }
+}
@@ -1,20 +1,70 @@
 package com.healthcare.repository;
 
 import com.healthcare.model.Patient;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Long> {
-    Optional<Patient> findByPatientId(String patientId);
+    @Override
+    @EntityGraph(attributePaths = "user")
+    Optional<Patient> findById(Long id);
+
+    @Query("SELECT p FROM Patient p WHERE p.user.id = ?1")
     Optional<Patient> findByUserId(Long userId);
 
-    @Query("SELECT p FROM Patient p WHERE p.user.active = true")
-    List<Patient> findActivePatients();
+    @EntityGraph(attributePaths = "user")
+    Optional<Patient> findByPatientId(String patientId);
+
+    // The patient row and its user row; both go into PatientDto
+    @Query("SELECT p.version + u.version AS version, greatest(p.updatedAt, u.updatedAt) AS updatedAt " +
+            "FROM Patient p JOIN p.user u WHERE p.id = ?1")
+    Optional<VersionStamp> findVersionStampById(Long id);
+
+    @Query("SELECT COUNT(*) AS count, MAX(p.updatedAt) AS updatedAt FROM Patient p")
+    CollectionStamp findCollectionStamp();
+
+    // Numeric, so P1000000 sorts above P999999; reads every row, but only to seed the sequence
+    @Query("SELECT MAX(CAST(SUBSTRING(p.patientId, 2) AS Long)) FROM Patient p WHERE p.patientId LIKE 'P%'")
+    Long findMaxPatientNumber();
+
+    @EntityGraph(attributePaths = "user")
+    List<Patient> findTop5ByOrderByIdDesc();
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p WHERE p.user.id IN ?1")
+    List<Patient> findByUserIdIn(Collection<Long> userIds);
+
+    // Batch lookups: one primary-key IN query, users fetched in the same statement
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p WHERE p.id IN ?1")
+    List<Patient> findAllWithUserByIdIn(Collection<Long> ids);
+
+    // Keyset pages ordered by (createdAt, id)
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p ORDER BY p.createdAt ASC, p.id ASC")
+    Slice<Patient> findFirstPage(Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p WHERE p.createdAt >= ?1 AND (p.createdAt > ?1 OR p.id > ?2) " +
+            "ORDER BY p.createdAt ASC, p.id ASC")
+    Slice<Patient> findPageAfter(LocalDateTime after, Long afterId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p WHERE p.user.active = true ORDER BY p.createdAt ASC, p.id ASC")
+    Slice<Patient> findFirstActivePage(Pageable pageable);
 
-    @Query("SELECT p FROM Patient p WHERE p.user.firstName LIKE %?1% OR p.user.lastName LIKE %?1%")
-    List<Patient> findByNameContaining(String name);
-}
\ No newline at end of file
+    @EntityGraph(attributePaths = "user")
+    @Query("SELECT p FROM Patient p WHERE p.user.active = true " +
+            "AND (p.createdAt >= ?1 AND (p.createdAt > ?1 OR p.id > ?2)) " +
+            "ORDER BY p.createdAt ASC, p.id ASC")
+    Slice<Patient> findActivePageAfter(LocalDateTime after, Long afterId, Pageable pageable);
+}
@@ -0,0 +1,83 @@
+package com.healthcare.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Keyset pages that select individual columns instead of entities, for sparse fieldsets.
+// Only the associations a requested path runs through are joined.
+@Repository
+public class ProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Each row holds the requested attribute paths in order, followed by the sort key and the id.
+    // Rows are ordered by (sortAttribute, id) and start after the given position when there is one.
+    public List<Object[]> findPage(Class<?> entityType, List<String> paths, Map<String, Object> filters,
+                                   String sortAttribute, boolean descending,
+                                   LocalDateTime after, Long afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+        Root<?> root = query.from(entityType);
+        Map<String, From<?, ?>> joins = new HashMap<>();
+
+        List<Selection<?>> selections = new ArrayList<>();
+        for (String path : paths) {
+            selections.add(resolve(root, joins, path));
+        }
+        Path<LocalDateTime> sortKey = root.get(sortAttribute);
+        Path<Long> id = root.get("id");
+        selections.add(sortKey);
+        selections.add(id);
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        filters.forEach((path, value) -> predicates.add(cb.equal(resolve(root, joins, path), value)));
+        if (after != null) {
+            // Same sargable form as the repository keyset queries
+            predicates.add(descending
+                    ? cb.and(cb.lessThanOrEqualTo(sortKey, after), cb.or(cb.lessThan(sortKey, after), cb.lessThan(id, afterId)))
+                    : cb.and(cb.greaterThanOrEqualTo(sortKey, after), cb.or(cb.greaterThan(sortKey, after), cb.greaterThan(id, afterId))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(descending
+                ? List.of(cb.desc(sortKey), cb.desc(id))
+                : List.of(cb.asc(sortKey), cb.asc(id)));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // "patient.user.firstName" joins patient and its user once per query, however many paths use them
+    private static Path<?> resolve(Root<?> root, Map<String, From<?, ?>> joins, String path) {
+        String[] segments = path.split("\\.");
+        From<?, ?> from = root;
+        String prefix = null;
+        for (int i = 0; i < segments.length - 1; i++) {
+            String association = segments[i];
+            if (i == segments.length - 2 && "id".equals(segments[i + 1])) {
+                // The foreign key column of this table; no join needed
+                return from.get(association).get("id");
+            }
+            prefix = prefix == null ? association : prefix + "." + association;
+            From<?, ?> parent = from;
+            from = joins.computeIfAbsent(prefix, key -> parent.join(association));
+        }
+        return from.get(segments[segments.length - 1]);
+    }
+}
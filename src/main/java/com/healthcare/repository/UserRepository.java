@@ -2,8 +2,13 @@ package com.healthcare.repository;
 
 import com.healthcare.model.User;
 import com.healthcare.model.Role;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -14,5 +19,50 @@ public interface UserRepository extends JpaRepository<User, Long> {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
     List<User> findByRole(Role role);
-    List<User> findByActiveTrue();
-}
\ No newline at end of file
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN ?1")
+    List<String> findExistingUsernames(Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN ?1")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    // Latest change to any user; lists embedding user names are stale once this moves
+    @Query("SELECT MAX(u.updatedAt) FROM User u")
+    LocalDateTime findLastUpdatedAt();
+
+    @Query("SELECT u.role AS role, COUNT(u) AS total FROM User u GROUP BY u.role")
+    List<RoleCount> countGroupByRole();
+
+    // Feeds the in-memory name index; ascending ids keep its user lists append-only
+    @Query("SELECT u.id AS id, u.role AS role, u.firstName AS firstName, u.lastName AS lastName " +
+            "FROM User u WHERE u.role IN ?1 ORDER BY u.id ASC")
+    List<NameEntry> findNameEntries(Collection<Role> roles);
+
+    // Keyset pages ordered by (createdAt, id)
+    @Query("SELECT u FROM User u ORDER BY u.createdAt ASC, u.id ASC")
+    Slice<User> findFirstPage(Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.createdAt >= ?1 AND (u.createdAt > ?1 OR u.id > ?2) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    Slice<User> findPageAfter(LocalDateTime after, Long afterId, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.role = ?1 ORDER BY u.createdAt ASC, u.id ASC")
+    Slice<User> findFirstPageByRole(Role role, Pageable pageable);
+
+    @Query("SELECT u FROM User u WHERE u.role = ?1 " +
+            "AND (u.createdAt >= ?2 AND (u.createdAt > ?2 OR u.id > ?3)) " +
+            "ORDER BY u.createdAt ASC, u.id ASC")
+    Slice<User> findPageByRoleAfter(Role role, LocalDateTime after, Long afterId, Pageable pageable);
+
+    interface RoleCount {
+        Role getRole();
+        long getTotal();
+    }
+
+    interface NameEntry {
+        Long getId();
+        Role getRole();
+        String getFirstName();
+        String getLastName();
+    }
+}
@@ -0,0 +1,10 @@
+package com.healthcare.repository;
+
+import java.time.LocalDateTime;
+
+// Change marker for one row and the rows its representation is built from: the sum of their
+// @Version columns, which grows whenever any of them changes, and the latest updatedAt
+public interface VersionStamp {
+    Long getVersion();
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,223 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Pushes appointment changes to Server-Sent Events subscribers. AppointmentService publishes
+// each change as an application event, delivered here once the surrounding transaction (if
+// any) has committed. Every event gets an increasing id and is kept in a bounded history, so
+// a reconnecting client can resume from its Last-Event-ID. Each subscriber has its own bounded
+// queue and, while it has events to send, its own sender thread (virtual when virtual threads
+// are enabled), so a client that stops reading blocks nobody else. A subscriber whose queue
+// fills up is disconnected instead of holding events in memory, and picks up again from its
+// last id on reconnect.
+@Component
+public class AppointmentEventBroadcaster {
+
+    // Sent instead of a replay when the requested id is older than the retained history
+    static final String RESET_EVENT = "RESET";
+
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final ArrayDeque<AppointmentEventDto> history;
+    private final int historySize;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    // Ids start from the boot time, so ids from before a restart are always below bootSeed
+    private final long bootSeed = System.currentTimeMillis() * 1000;
+    private final AtomicLong sequence = new AtomicLong(bootSeed);
+    // Orders history appends against subscriber registration, so a replay never misses or repeats an event
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SimpleAsyncTaskExecutor senders;
+    private final Counter overflows;
+
+    public AppointmentEventBroadcaster(MeterRegistry meterRegistry,
+                                       @Value("${appointments.events.buffer-size:256}") int bufferSize,
+                                       @Value("${appointments.events.history-size:1000}") int historySize,
+                                       @Value("${appointments.events.timeout-ms:1800000}") long timeoutMillis,
+                                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.bufferSize = bufferSize;
+        this.historySize = historySize;
+        this.timeoutMillis = timeoutMillis;
+        this.history = new ArrayDeque<>(historySize);
+        // A thread per draining subscriber: emitter.send blocks while the client's socket is full
+        this.senders = new SimpleAsyncTaskExecutor("appointment-events-");
+        this.senders.setDaemon(true);
+        this.senders.setVirtualThreads(virtualThreads);
+        this.overflows = Counter.builder("appointments.events.overflows")
+                .description("Subscribers disconnected because their buffer filled up")
+                .register(meterRegistry);
+        Gauge.builder("appointments.events.subscribers", subscribers, List::size)
+                .register(meterRegistry);
+    }
+
+    // Opens a stream of changes for one doctor, one department, or everything when both are null
+    public SseEmitter subscribe(Long doctorId, String department, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, doctorId, department, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        lock.lock();
+        try {
+            if (lastEventId != null) {
+                replay(subscriber, lastEventId);
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentEventDto event) {
+        lock.lock();
+        try {
+            event.setId(sequence.incrementAndGet());
+            if (history.size() == historySize) {
+                history.removeFirst();
+            }
+            history.addLast(event);
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(event)) {
+                    offer(subscriber, new Outgoing(event.getId(), event.getType().name(), event));
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Comments keep idle connections open through proxies and surface clients that went away
+    @Scheduled(fixedDelayString = "${appointments.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            offer(subscriber, Outgoing.HEARTBEAT);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.close();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void replay(Subscriber subscriber, long lastEventId) {
+        long newest = sequence.get();
+        AppointmentEventDto oldest = history.peekFirst();
+        long oldestKept = oldest != null ? oldest.getId() : newest + 1;
+        // Replay only when the history reaches back to the client's id: not for ids from before
+        // a restart (the history starts empty), ids this instance never issued, or ids older
+        // than what is retained. Otherwise the client has to reload its view.
+        if (lastEventId < bootSeed || lastEventId > newest || lastEventId < oldestKept - 1) {
+            subscriber.queue.offer(new Outgoing(newest, RESET_EVENT, null));
+            return;
+        }
+        for (AppointmentEventDto event : history) {
+            if (event.getId() > lastEventId && subscriber.accepts(event)
+                    && !subscriber.queue.offer(new Outgoing(event.getId(), event.getType().name(), event))) {
+                // More to replay than one buffer holds; a reset is cheaper than a partial replay
+                subscriber.queue.clear();
+                subscriber.queue.offer(new Outgoing(sequence.get(), RESET_EVENT, null));
+                return;
+            }
+        }
+    }
+
+    private void offer(Subscriber subscriber, Outgoing outgoing) {
+        if (subscriber.queue.offer(outgoing)) {
+            schedule(subscriber);
+        } else {
+            overflows.increment();
+            disconnect(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.draining.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Outgoing outgoing;
+            while ((outgoing = subscriber.queue.poll()) != null) {
+                if (outgoing == Outgoing.HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    SseEmitter.SseEventBuilder event = SseEmitter.event()
+                            .id(Long.toString(outgoing.id()))
+                            .name(outgoing.name());
+                    subscriber.emitter.send(outgoing.payload() != null ? event.data(outgoing.payload()) : event.data(""));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            disconnect(subscriber);
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // An event may have been queued after the last poll but before draining was cleared
+        schedule(subscriber);
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue.clear();
+            subscriber.emitter.complete();
+        }
+    }
+
+    private record Outgoing(long id, String name, AppointmentEventDto payload) {
+        static final Outgoing HEARTBEAT = new Outgoing(0, null, null);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Long doctorId;
+        private final String department;
+        private final BlockingQueue<Outgoing> queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Long doctorId, String department, int bufferSize) {
+            this.emitter = emitter;
+            this.doctorId = doctorId;
+            this.department = department;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        boolean accepts(AppointmentEventDto event) {
+            return (doctorId == null || doctorId.equals(event.getDoctorId()))
+                    && (department == null || department.equalsIgnoreCase(Objects.toString(event.getDepartment(), "")));
+        }
+    }
+}
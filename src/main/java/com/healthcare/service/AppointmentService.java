@@ -1,25 +1,45 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.AppointmentEventDto;
+import com.healthcare.dto.AuditEntryDto;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
+import com.healthcare.exception.InvalidStatusTransitionException;
 import com.healthcare.model.Appointment;
+import com.healthcare.model.AppointmentStatus;
 import com.healthcare.model.Patient;
 import com.healthcare.model.Doctor;
+import com.healthcare.repository.ProjectionRepository;
 import com.healthcare.repository.AppointmentRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
 public class AppointmentService {
 
+    private static final Set<String> PATCHABLE = Set.of(
+            "version", "appointmentDateTime", "reason", "status", "notes", "prescription");
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
@@ -29,36 +49,116 @@ public class AppointmentService {
     @Autowired
     private DoctorRepository doctorRepository;
 
-    public List<AppointmentDto> getAllAppointments() {
-        return appointmentRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private AppointmentSlotIndex appointmentSlotIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private MergePatch mergePatch;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${batch.max-ids:100}")
+    private int maxBatchIds;
+
+    public CursorPage<AppointmentDto> getAppointments(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Appointment> slice = after == null
+                ? appointmentRepository.findFirstPage(pageable)
+                : appointmentRepository.findPageAfter(after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
+
+    // Sparse fieldsets skip the patient and doctor joins unless a name was requested
+    public CursorPage<AppointmentDto> getAppointments(FieldSelection fields, String cursor, int size) {
+        if (fields.isAll()) {
+            return getAppointments(cursor, size);
+        }
+        return Projections.APPOINTMENT.page(projectionRepository, fields, Map.of(), false, cursor, size);
     }
 
+    @ReplicaRead
     public List<AppointmentDto> getTodaysAppointments() {
-        return appointmentRepository.findTodaysAppointments().stream()
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        return appointmentRepository.findTodaysAppointments(startOfDay, startOfDay.plusDays(1)).stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    public List<AppointmentDto> getAppointmentsByPatient(Long patientId) {
-        return appointmentRepository.findByPatientId(patientId).stream()
+    // Today's first few appointments in time order, for the admin dashboard
+    public List<AppointmentDto> getTodaysAppointments(int limit) {
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        return appointmentRepository.findFirstByDateRange(startOfDay, startOfDay.plusDays(1), PageCursor.limit(limit))
+                .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    public List<AppointmentDto> getAppointmentsByDoctor(Long doctorId) {
-        return appointmentRepository.findByDoctorId(doctorId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<AppointmentDto> getAppointmentsByPatient(Long patientId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Appointment> slice = after == null
+                ? appointmentRepository.findFirstPageByPatientId(patientId, pageable)
+                : appointmentRepository.findPageByPatientIdAfter(patientId, after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
     }
 
-    public List<AppointmentDto> getAppointmentsByStatus(String status) {
-        return appointmentRepository.findByStatus(status).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<AppointmentDto> getAppointmentsByPatient(FieldSelection fields, Long patientId, String cursor, int size) {
+        if (fields.isAll()) {
+            return getAppointmentsByPatient(patientId, cursor, size);
+        }
+        return Projections.APPOINTMENT.page(projectionRepository, fields, Map.of("patient.id", patientId), false, cursor, size);
+    }
+
+    public CursorPage<AppointmentDto> getAppointmentsByDoctor(Long doctorId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Appointment> slice = after == null
+                ? appointmentRepository.findFirstPageByDoctorId(doctorId, pageable)
+                : appointmentRepository.findPageByDoctorIdAfter(doctorId, after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
+
+    public CursorPage<AppointmentDto> getAppointmentsByDoctor(FieldSelection fields, Long doctorId, String cursor, int size) {
+        if (fields.isAll()) {
+            return getAppointmentsByDoctor(doctorId, cursor, size);
+        }
+        return Projections.APPOINTMENT.page(projectionRepository, fields, Map.of("doctor.id", doctorId), false, cursor, size);
+    }
+
+    public CursorPage<AppointmentDto> getAppointmentsByStatus(AppointmentStatus status, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Appointment> slice = after == null
+                ? appointmentRepository.findFirstPageByStatus(status, pageable)
+                : appointmentRepository.findPageByStatusAfter(status, after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
+
+    public CursorPage<AppointmentDto> getAppointmentsByStatus(FieldSelection fields, AppointmentStatus status, String cursor, int size) {
+        if (fields.isAll()) {
+            return getAppointmentsByStatus(status, cursor, size);
+        }
+        return Projections.APPOINTMENT.page(projectionRepository, fields, Map.of("status", status), false, cursor, size);
     }
 
+    @ReplicaRead
     public List<AppointmentDto> getAppointmentsByDateRange(LocalDate startDate, LocalDate endDate) {
         LocalDateTime start = startDate.atTime(LocalTime.MIN);
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
@@ -72,6 +172,23 @@ public class AppointmentService {
                 .map(this::convertToDto);
     }
 
+    // Patients, doctors and their users come back in the same statement as the appointments
+    public Map<Long, BatchEntry<AppointmentDto>> getAppointmentsByIds(List<Long> ids) {
+        Set<Long> distinct = BatchIds.distinct(ids, maxBatchIds);
+        return BatchEntry.mapOf(distinct, appointmentRepository.findAllWithParticipantsByIdIn(distinct), Appointment::getId, this::convertToDto);
+    }
+
+    // Conditional GET support; the stamp query only touches primary keys and version columns
+    public Optional<ResourceVersion> getAppointmentVersion(Long id) {
+        return appointmentRepository.findVersionStampById(id)
+                .map(stamp -> ResourceVersion.of("appointment", id, stamp));
+    }
+
+    public ResourceVersion getAppointmentsVersion() {
+        return ResourceVersion.ofCollection("appointments", appointmentRepository.findCollectionStamp(),
+                userRepository.findLastUpdatedAt());
+    }
+
     public AppointmentDto createAppointment(AppointmentDto appointmentDto) {
         Optional<Patient> patient = patientRepository.findById(appointmentDto.getPatientId());
         Optional<Doctor> doctor = doctorRepository.findById(appointmentDto.getDoctorId());
@@ -83,15 +200,8 @@ public class AppointmentService {
             throw new RuntimeException("Doctor not found");
         }
 
-        // Check for conflicting appointments
-        List<Appointment> conflictingAppointments = appointmentRepository
-                .findByDoctorIdAndDateRange(
-                        appointmentDto.getDoctorId(),
-                        appointmentDto.getAppointmentDateTime().minusHours(1),
-                        appointmentDto.getAppointmentDateTime().plusHours(1)
-                );
-
-        if (!conflictingAppointments.isEmpty()) {
+        // Check for conflicting appointments and hold the slot in one step
+        if (!appointmentSlotIndex.tryReserve(doctor.get().getId(), appointmentDto.getAppointmentDateTime())) {
             throw new RuntimeException("Doctor is not available at this time");
         }
 
@@ -100,49 +210,173 @@ public class AppointmentService {
         appointment.setDoctor(doctor.get());
         appointment.setAppointmentDateTime(appointmentDto.getAppointmentDateTime());
         appointment.setReason(appointmentDto.getReason());
-        appointment.setStatus("SCHEDULED");
+        appointment.setStatus(AppointmentStatus.SCHEDULED);
 
-        Appointment savedAppointment = appointmentRepository.save(appointment);
-        return convertToDto(savedAppointment);
+        Appointment savedAppointment;
+        try {
+            savedAppointment = appointmentRepository.save(appointment);
+        } catch (RuntimeException e) {
+            appointmentSlotIndex.release(doctor.get().getId(), appointmentDto.getAppointmentDateTime());
+            throw e;
+        }
+        dashboardService.recordAppointmentCreated(savedAppointment.getStatus(), savedAppointment.getAppointmentDateTime());
+        AppointmentDto created = convertToDto(savedAppointment);
+        publish(AppointmentEventDto.Type.CREATED, savedAppointment, created, null, null);
+        audit(savedAppointment, null, auditService.snapshot(savedAppointment));
+        return created;
     }
 
     public AppointmentDto updateAppointment(Long id, AppointmentDto appointmentDto) {
+        return OptimisticLocking.once(() -> applyAppointmentUpdate(id, appointmentDto));
+    }
+
+    // Merge patch: absent members keep their current values, so a status-only patch neither moves
+    // the slot nor rewrites notes and prescription
+    public AppointmentDto patchAppointment(Long id, JsonNode patch) {
+        return OptimisticLocking.retry(() -> transactionTemplate.execute(status -> {
+            Appointment appointment = appointmentRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Appointment not found"));
+            return applyAppointmentUpdate(id, mergePatch.apply(convertToDto(appointment), patch, PATCHABLE));
+        }));
+    }
+
+    private AppointmentDto applyAppointmentUpdate(Long id, AppointmentDto appointmentDto) {
         Optional<Appointment> existingAppointment = appointmentRepository.findById(id);
         if (existingAppointment.isEmpty()) {
             throw new RuntimeException("Appointment not found");
         }
 
         Appointment appointment = existingAppointment.get();
+        OptimisticLocking.checkVersion(appointmentDto.getVersion(), appointment.getVersion());
+        Map<String, String> before = auditService.snapshot(appointment);
+        AppointmentStatus previousStatus = appointment.getStatus();
+        LocalDateTime previousDateTime = appointment.getAppointmentDateTime();
+        LocalDateTime previousSlot = bookedSlot(appointment);
         appointment.setAppointmentDateTime(appointmentDto.getAppointmentDateTime());
         appointment.setReason(appointmentDto.getReason());
-        appointment.setStatus(appointmentDto.getStatus());
+        if (appointmentDto.getStatus() != null) {
+            appointment.setStatus(checkTransition(previousStatus, appointmentDto.getStatus()));
+        }
         appointment.setNotes(appointmentDto.getNotes());
         appointment.setPrescription(appointmentDto.getPrescription());
 
-        Appointment updatedAppointment = appointmentRepository.save(appointment);
-        return convertToDto(updatedAppointment);
+        Appointment updatedAppointment = saveRescheduled(appointment, previousSlot);
+        AppointmentStatus newStatus = updatedAppointment.getStatus();
+        LocalDateTime newDateTime = updatedAppointment.getAppointmentDateTime();
+        Map<String, String> after = auditService.snapshot(updatedAppointment);
+        // A PATCH runs this inside its transaction; the counters and audit log wait for the commit
+        AfterCommit.run(() -> {
+            dashboardService.recordAppointmentChanged(previousStatus, previousDateTime, newStatus, newDateTime);
+            audit(updatedAppointment, before, after);
+        });
+        AppointmentDto updated = convertToDto(updatedAppointment);
+        AppointmentEventDto.Type type = !Objects.equals(previousDateTime, newDateTime)
+                ? AppointmentEventDto.Type.RESCHEDULED
+                : previousStatus != newStatus
+                        ? AppointmentEventDto.Type.STATUS_CHANGED
+                        : AppointmentEventDto.Type.UPDATED;
+        publish(type, updatedAppointment, updated, previousDateTime, previousStatus);
+        return updated;
+    }
+
+    public AppointmentDto updateAppointmentStatus(Long id, AppointmentStatus status) {
+        return OptimisticLocking.retry(() -> applyStatusUpdate(id, status));
     }
 
-    public AppointmentDto updateAppointmentStatus(Long id, String status) {
+    private AppointmentDto applyStatusUpdate(Long id, AppointmentStatus status) {
         Optional<Appointment> existingAppointment = appointmentRepository.findById(id);
         if (existingAppointment.isEmpty()) {
             throw new RuntimeException("Appointment not found");
         }
 
         Appointment appointment = existingAppointment.get();
-        appointment.setStatus(status);
+        Map<String, String> before = auditService.snapshot(appointment);
+        AppointmentStatus previousStatus = appointment.getStatus();
+        LocalDateTime previousSlot = bookedSlot(appointment);
+        appointment.setStatus(checkTransition(previousStatus, status));
 
-        Appointment updatedAppointment = appointmentRepository.save(appointment);
-        return convertToDto(updatedAppointment);
+        Appointment updatedAppointment = saveRescheduled(appointment, previousSlot);
+        dashboardService.recordAppointmentChanged(previousStatus, appointment.getAppointmentDateTime(),
+                updatedAppointment.getStatus(), updatedAppointment.getAppointmentDateTime());
+        AppointmentDto updated = convertToDto(updatedAppointment);
+        if (previousStatus != updatedAppointment.getStatus()) {
+            publish(AppointmentEventDto.Type.STATUS_CHANGED, updatedAppointment, updated,
+                    updatedAppointment.getAppointmentDateTime(), previousStatus);
+        }
+        audit(updatedAppointment, before, auditService.snapshot(updatedAppointment));
+        return updated;
     }
 
     public void deleteAppointment(Long id) {
-        appointmentRepository.deleteById(id);
+        Optional<Appointment> appointmentOptional = appointmentRepository.findById(id);
+        if (appointmentOptional.isPresent()) {
+            Appointment appointment = appointmentOptional.get();
+            appointmentRepository.deleteById(id);
+            appointmentSlotIndex.release(appointment.getDoctor().getId(), bookedSlot(appointment));
+            dashboardService.recordAppointmentDeleted(appointment.getStatus(), appointment.getAppointmentDateTime());
+            publish(AppointmentEventDto.Type.DELETED, appointment, convertToDto(appointment),
+                    appointment.getAppointmentDateTime(), appointment.getStatus());
+            audit(appointment, auditService.snapshot(appointment), null);
+        }
+    }
+
+    // Delivered to live subscribers once the change has committed
+    private void publish(AppointmentEventDto.Type type, Appointment appointment, AppointmentDto dto,
+                         LocalDateTime previousDateTime, AppointmentStatus previousStatus) {
+        eventPublisher.publishEvent(new AppointmentEventDto(type, dto, appointment.getDoctor().getDepartment(),
+                previousDateTime, previousStatus));
+    }
+
+    private void audit(Appointment appointment, Map<String, String> before, Map<String, String> after) {
+        auditService.record(AuditEntryDto.EntityType.APPOINTMENT, appointment.getId(), appointment.getPatient().getId(),
+                before, after);
+    }
+
+    // Moves the appointment's slot in the doctor's index before saving, and back if the save fails
+    // or, inside a PATCH transaction, if that transaction later rolls back.
+    // Flushed right away so a failure inside a PATCH transaction still surfaces here.
+    private Appointment saveRescheduled(Appointment appointment, LocalDateTime previousSlot) {
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime newSlot = bookedSlot(appointment);
+        if (!appointmentSlotIndex.tryMove(doctorId, previousSlot, newSlot)) {
+            throw new RuntimeException("Doctor is not available at this time");
+        }
+        Appointment saved;
+        try {
+            saved = appointmentRepository.saveAndFlush(appointment);
+        } catch (RuntimeException e) {
+            appointmentSlotIndex.tryMove(doctorId, newSlot, previousSlot);
+            throw e;
+        }
+        AfterCommit.onRollback(() -> appointmentSlotIndex.tryMove(doctorId, newSlot, previousSlot));
+        return saved;
+    }
+
+    // Appointments saved before statuses were validated may have none; they may move anywhere
+    private AppointmentStatus checkTransition(AppointmentStatus current, AppointmentStatus next) {
+        if (current != null && !current.canTransitionTo(next)) {
+            throw new InvalidStatusTransitionException(current, next);
+        }
+        return next;
+    }
+
+    // The start time an appointment holds in its doctor's schedule, or null once cancelled
+    private LocalDateTime bookedSlot(Appointment appointment) {
+        if (appointment.getStatus() == AppointmentStatus.CANCELLED) {
+            return null;
+        }
+        return appointment.getAppointmentDateTime();
+    }
+
+    private CursorPage<AppointmentDto> toPage(Slice<Appointment> slice) {
+        return CursorPage.of(slice, this::convertToDto,
+                a -> PageCursor.encode(a.getAppointmentDateTime(), a.getId()));
     }
 
-    private AppointmentDto convertToDto(Appointment appointment) {
+    AppointmentDto convertToDto(Appointment appointment) {
         AppointmentDto appointmentDto = new AppointmentDto();
         appointmentDto.setId(appointment.getId());
+        appointmentDto.setVersion(appointment.getVersion());
         appointmentDto.setPatientId(appointment.getPatient().getId());
         appointmentDto.setDoctorId(appointment.getDoctor().getId());
         appointmentDto.setPatientName(appointment.getPatient().getUser().getFirstName() + " " +
@@ -0,0 +1,169 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.AppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory index of booked appointment start times per doctor, used for conflict
+// detection on booking. Each doctor's slots are a sorted primitive array, so a conflict
+// check is a binary search, and check-and-insert runs under that doctor's lock only.
+// Appointments that ended before the horizon can no longer clash with anything bookable, so
+// they are dropped hourly; backdated bookings before it are recorded without a conflict check.
+@Component
+public class AppointmentSlotIndex {
+
+    // Two appointments for the same doctor conflict when they start an hour or less apart
+    static final int APPOINTMENT_MINUTES = 60;
+    private static final long SLOT_SECONDS = APPOINTMENT_MINUTES * 60L;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final Map<Long, DoctorSlots> slotsByDoctor = new ConcurrentHashMap<>();
+
+    // Start times before this are not tracked
+    private volatile long horizon = Long.MIN_VALUE;
+
+    @PostConstruct
+    public void rebuild() {
+        LocalDateTime from = LocalDateTime.now().minusMinutes(APPOINTMENT_MINUTES);
+        slotsByDoctor.clear();
+        horizon = toKey(from);
+        // Rows arrive ordered by start time, so every insert is an append
+        for (AppointmentRepository.BookedSlot slot : appointmentRepository.findBookedSlotsFrom(from)) {
+            slotsFor(slot.getDoctorId()).insert(toKey(slot.getAppointmentDateTime()));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${appointments.slot-index.prune-interval-ms:3600000}")
+    public void prune() {
+        long cutoff = toKey(LocalDateTime.now().minusMinutes(APPOINTMENT_MINUTES));
+        // Raised first, so a booking racing the sweep below is either skipped or swept
+        horizon = cutoff;
+        // Emptied doctors keep their entry: a booking may already hold it outside the map
+        for (DoctorSlots slots : slotsByDoctor.values()) {
+            slots.removeBefore(cutoff);
+        }
+    }
+
+    // Atomically checks the doctor's schedule and books the slot if it is free
+    public boolean tryReserve(Long doctorId, LocalDateTime start) {
+        return tryMove(doctorId, null, start);
+    }
+
+    public void release(Long doctorId, LocalDateTime start) {
+        if (start != null) {
+            slotsFor(doctorId).remove(toKey(start));
+        }
+    }
+
+    // Moves a booking from one slot to another; either side may be null when the appointment
+    // was not, or will no longer be, holding a slot. Leaves the index unchanged on conflict.
+    public boolean tryMove(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        DoctorSlots slots = slotsFor(doctorId);
+        synchronized (slots) {
+            if (from != null) {
+                slots.remove(toKey(from));
+            }
+            if (to == null || toKey(to) < horizon) {
+                return true;
+            }
+            long key = toKey(to);
+            if (slots.conflicts(key)) {
+                if (from != null) {
+                    slots.insert(toKey(from));
+                }
+                return false;
+            }
+            slots.insert(key);
+            return true;
+        }
+    }
+
+    // The doctor's booked start times in [from, to), as whole minutes after from
+    public int[] bookedMinutes(Long doctorId, LocalDateTime from, LocalDateTime to) {
+        DoctorSlots slots = slotsByDoctor.get(doctorId);
+        if (slots == null) {
+            return new int[0];
+        }
+        long base = toKey(from);
+        long[] starts = slots.range(base, toKey(to));
+        int[] minutes = new int[starts.length];
+        for (int i = 0; i < starts.length; i++) {
+            minutes[i] = (int) ((starts[i] - base) / 60);
+        }
+        return minutes;
+    }
+
+    private DoctorSlots slotsFor(Long doctorId) {
+        return slotsByDoctor.computeIfAbsent(doctorId, id -> new DoctorSlots());
+    }
+
+    private static long toKey(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static final class DoctorSlots {
+        private long[] starts = new long[8];
+        private int size;
+
+        synchronized boolean conflicts(long start) {
+            int i = lowerBound(start - SLOT_SECONDS);
+            return i < size && starts[i] <= start + SLOT_SECONDS;
+        }
+
+        synchronized long[] range(long from, long to) {
+            return Arrays.copyOfRange(starts, lowerBound(from), lowerBound(to));
+        }
+
+        synchronized void insert(long start) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+            }
+            int i = lowerBound(start);
+            System.arraycopy(starts, i, starts, i + 1, size - i);
+            starts[i] = start;
+            size++;
+        }
+
+        synchronized void remove(long start) {
+            int i = lowerBound(start);
+            if (i < size && starts[i] == start) {
+                System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                size--;
+            }
+        }
+
+        synchronized void removeBefore(long cutoff) {
+            int i = lowerBound(cutoff);
+            System.arraycopy(starts, i, starts, 0, size - i);
+            size -= i;
+            if (starts.length > 8 && size < starts.length / 4) {
+                starts = Arrays.copyOf(starts, Math.max(8, size * 2));
+            }
+        }
+
+        // Index of the first start time >= key
+        private int lowerBound(long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
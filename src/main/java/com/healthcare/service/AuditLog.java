@@ -0,0 +1,338 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.AuditEntryDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Write-behind store for audit entries. append() only offers the entry to a lock-free ring
+// buffer, so a request never waits for the disk; a single writer thread drains the buffer in
+// batches and appends them as JSON lines to the active segment file, starting a new segment
+// once it reaches the configured size. Segments are never rewritten. How often the file is
+// forced to disk is a trade-off between durability and throughput, see FsyncPolicy.
+@Component
+public class AuditLog {
+
+    public enum FsyncPolicy {
+        // Leave it to the operating system; entries survive a process crash but not a power loss
+        NEVER,
+        // Force after every batch, before the writer picks up the next one
+        BATCH,
+        // Force at most once per fsync interval
+        INTERVAL
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLog.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d+)\\.log");
+    // Entries are written with the patient id first, so a reader can skip a line without parsing it
+    private static final Pattern PATIENT_PREFIX = Pattern.compile("^\\{\"patientId\":(\\d+|null)");
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long segmentBytes;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final AuditRingBuffer<AuditEntryDto> buffer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failures;
+    // Drops since the writer last reported them, so the request path never logs
+    private final AtomicLong unreportedDrops = new AtomicLong();
+    // Patient ids in each sealed segment, recorded while writing or on the first read
+    private final Map<Path, Set<Long>> segmentPatients = new ConcurrentHashMap<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+    private volatile Path activeSegment;
+
+    // Owned by the writer thread
+    private FileChannel channel;
+    private int segmentIndex;
+    private long segmentSize;
+    private Set<Long> activePatients = new HashSet<>();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private boolean unsynced;
+    private long lastSync = System.nanoTime();
+
+    public AuditLog(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                    @Value("${audit.dir:data/audit}") String directory,
+                    @Value("${audit.segment-bytes:67108864}") long segmentBytes,
+                    @Value("${audit.fsync:INTERVAL}") FsyncPolicy fsyncPolicy,
+                    @Value("${audit.fsync-interval-ms:1000}") long fsyncIntervalMillis,
+                    @Value("${audit.flush-interval-ms:50}") long flushIntervalMillis,
+                    @Value("${audit.buffer-size:65536}") int bufferSize,
+                    @Value("${audit.batch-size:512}") int batchSize) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.batchSize = batchSize;
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.written = Counter.builder("audit.entries.written")
+                .description("Audit entries appended to the log")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("audit.entries.dropped")
+                .description("Audit entries discarded because the buffer was full")
+                .register(meterRegistry);
+        this.failures = Counter.builder("audit.entries.failed")
+                .description("Audit entries that could not be written")
+                .register(meterRegistry);
+        Gauge.builder("audit.buffer.size", buffer, AuditRingBuffer::size)
+                .register(meterRegistry);
+        this.writer = new Thread(this::run, "audit-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        // Every start opens a fresh segment, so a torn tail from a crash stays where it is
+        segmentIndex = listSegments().stream().mapToInt(AuditLog::indexOf).max().orElse(0);
+        openSegment();
+        writer.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // Never blocks; returns false when the entry had to be dropped
+    public boolean append(AuditEntryDto entry) {
+        if (buffer.offer(entry)) {
+            return true;
+        }
+        dropped.increment();
+        unreportedDrops.incrementAndGet();
+        return false;
+    }
+
+    // Newest first. Entries still waiting in the buffer show up after the next flush.
+    public List<AuditEntryDto> readPatientHistory(Long patientId, int limit) {
+        List<Path> segments = listSegments();
+        segments.sort(Comparator.comparingInt(AuditLog::indexOf).reversed());
+        List<AuditEntryDto> history = new ArrayList<>();
+        for (Path segment : segments) {
+            Set<Long> patients = segmentPatients.get(segment);
+            if (patients != null && !patients.contains(patientId)) {
+                continue;
+            }
+            // The active segment is still growing, so only sealed ones are summarised
+            Set<Long> seen = patients == null && !segment.equals(activeSegment) ? new HashSet<>() : null;
+            List<AuditEntryDto> matches = scan(segment, patientId, seen);
+            if (seen != null) {
+                segmentPatients.put(segment, seen);
+            }
+            for (int i = matches.size() - 1; i >= 0 && history.size() < limit; i--) {
+                history.add(matches.get(i));
+            }
+            if (history.size() >= limit) {
+                break;
+            }
+        }
+        return history;
+    }
+
+    private List<AuditEntryDto> scan(Path segment, Long patientId, Set<Long> seen) {
+        List<AuditEntryDto> matches = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(segment)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                Matcher prefix = PATIENT_PREFIX.matcher(line);
+                if (!prefix.lookingAt() || "null".equals(prefix.group(1))) {
+                    continue;
+                }
+                long id = Long.parseLong(prefix.group(1));
+                if (seen != null) {
+                    seen.add(id);
+                }
+                if (id == patientId) {
+                    try {
+                        matches.add(objectMapper.readValue(line, AuditEntryDto.class));
+                    } catch (JsonProcessingException e) {
+                        // A line cut short by a crash, or one still being written
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return matches;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return matches;
+    }
+
+    private void run() {
+        List<AuditEntryDto> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || buffer.size() > 0) {
+                batch.clear();
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    reportDrops();
+                    if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                        syncIfDue();
+                    }
+                    if (running) {
+                        LockSupport.parkNanos(flushIntervalNanos);
+                    }
+                    continue;
+                }
+                write(batch);
+            }
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void write(List<AuditEntryDto> batch) {
+        try {
+            if (channel == null) {
+                openSegment();
+            }
+            for (AuditEntryDto entry : batch) {
+                byte[] line = objectMapper.writeValueAsBytes(entry);
+                if (segmentSize + pending.size() + line.length + 1 > segmentBytes && segmentSize + pending.size() > 0) {
+                    flushPending();
+                    rotate();
+                }
+                pending.write(line);
+                pending.write('\n');
+                if (entry.getPatientId() != null) {
+                    activePatients.add(entry.getPatientId());
+                }
+            }
+            flushPending();
+            if (fsyncPolicy == FsyncPolicy.BATCH) {
+                sync();
+            } else if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                syncIfDue();
+            }
+            written.increment(batch.size());
+        } catch (IOException e) {
+            failures.increment(batch.size());
+            log.error("Could not append {} audit entries to {}", batch.size(), activeSegment, e);
+            // Whatever made it into the segment stays there; carry on in a new one
+            pending.reset();
+            closeSegment();
+            activePatients = new HashSet<>();
+        }
+    }
+
+    private void flushPending() throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(pending.toByteArray());
+        while (bytes.hasRemaining()) {
+            segmentSize += channel.write(bytes);
+        }
+        pending.reset();
+        unsynced = true;
+    }
+
+    private void syncIfDue() {
+        if (unsynced && System.nanoTime() - lastSync >= fsyncIntervalNanos) {
+            try {
+                sync();
+            } catch (IOException e) {
+                log.error("Could not force audit segment {} to disk", activeSegment, e);
+            }
+        }
+    }
+
+    private void sync() throws IOException {
+        channel.force(false);
+        unsynced = false;
+        lastSync = System.nanoTime();
+    }
+
+    private void rotate() throws IOException {
+        sync();
+        channel.close();
+        segmentPatients.put(activeSegment, activePatients);
+        activePatients = new HashSet<>();
+        openSegment();
+    }
+
+    private void openSegment() throws IOException {
+        segmentIndex++;
+        Path segment = directory.resolve(String.format("audit-%06d.log", segmentIndex));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        segmentSize = 0;
+        activeSegment = segment;
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                channel.force(false);
+            }
+            channel.close();
+        } catch (IOException e) {
+            log.error("Could not close audit segment {}", activeSegment, e);
+        }
+        channel = null;
+        unsynced = false;
+    }
+
+    private void reportDrops() {
+        long drops = unreportedDrops.getAndSet(0);
+        if (drops > 0) {
+            log.warn("Dropped {} audit entries because the buffer was full", drops);
+        }
+    }
+
+    private List<Path> listSegments() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static int indexOf(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+}
@@ -0,0 +1,122 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AuditEntryDto;
+import com.healthcare.model.Appointment;
+import com.healthcare.model.MedicalRecord;
+import com.healthcare.model.Patient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+// Field-level audit trail for patients, medical records and appointments. Services take a
+// snapshot of the entity before changing it and record it together with the saved state;
+// the diff is handed to AuditLog, which writes it in the background.
+@Service
+public class AuditService {
+
+    public static final int MAX_HISTORY = 500;
+
+    @Autowired
+    private AuditLog auditLog;
+
+    public Map<String, String> snapshot(Patient patient) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("patientId", patient.getPatientId());
+        fields.put("firstName", patient.getUser().getFirstName());
+        fields.put("lastName", patient.getUser().getLastName());
+        fields.put("email", patient.getUser().getEmail());
+        fields.put("phoneNumber", patient.getUser().getPhoneNumber());
+        fields.put("dateOfBirth", Objects.toString(patient.getDateOfBirth(), null));
+        fields.put("gender", patient.getGender());
+        fields.put("address", patient.getAddress());
+        fields.put("emergencyContact", patient.getEmergencyContact());
+        fields.put("bloodGroup", patient.getBloodGroup());
+        fields.put("allergies", patient.getAllergies());
+        fields.put("medicalHistory", patient.getMedicalHistory());
+        return fields;
+    }
+
+    public Map<String, String> snapshot(MedicalRecord medicalRecord) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("patientId", Objects.toString(medicalRecord.getPatient().getId(), null));
+        fields.put("doctorId", Objects.toString(medicalRecord.getDoctor().getId(), null));
+        fields.put("appointmentId", medicalRecord.getAppointment() != null
+                ? Objects.toString(medicalRecord.getAppointment().getId(), null) : null);
+        fields.put("diagnosis", medicalRecord.getDiagnosis());
+        fields.put("symptoms", medicalRecord.getSymptoms());
+        fields.put("treatment", medicalRecord.getTreatment());
+        fields.put("prescription", medicalRecord.getPrescription());
+        fields.put("testResults", medicalRecord.getTestResults());
+        fields.put("notes", medicalRecord.getNotes());
+        fields.put("visitDate", Objects.toString(medicalRecord.getVisitDate(), null));
+        return fields;
+    }
+
+    public Map<String, String> snapshot(Appointment appointment) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        fields.put("patientId", Objects.toString(appointment.getPatient().getId(), null));
+        fields.put("doctorId", Objects.toString(appointment.getDoctor().getId(), null));
+        fields.put("appointmentDateTime", Objects.toString(appointment.getAppointmentDateTime(), null));
+        fields.put("reason", appointment.getReason());
+        fields.put("status", Objects.toString(appointment.getStatus(), null));
+        fields.put("notes", appointment.getNotes());
+        fields.put("prescription", appointment.getPrescription());
+        return fields;
+    }
+
+    // before is null for a creation and after is null for a deletion
+    public void record(AuditEntryDto.EntityType entityType, Long entityId, Long patientId,
+                       Map<String, String> before, Map<String, String> after) {
+        AuditEntryDto.Action action = before == null ? AuditEntryDto.Action.CREATE
+                : after == null ? AuditEntryDto.Action.DELETE
+                : AuditEntryDto.Action.UPDATE;
+        List<AuditEntryDto.FieldChange> changes = diff(before, after);
+        if (action == AuditEntryDto.Action.UPDATE && changes.isEmpty()) {
+            return;
+        }
+        auditLog.append(new AuditEntryDto(entityType, entityId, patientId, action, currentActor(), changes));
+    }
+
+    public List<AuditEntryDto> getPatientHistory(Long patientId, int limit) {
+        return auditLog.readPatientHistory(patientId, Math.max(1, Math.min(limit, MAX_HISTORY)));
+    }
+
+    private static List<AuditEntryDto.FieldChange> diff(Map<String, String> before, Map<String, String> after) {
+        Map<String, String> oldValues = before != null ? before : Map.of();
+        Map<String, String> newValues = after != null ? after : Map.of();
+        Set<String> fields = new HashSet<>(oldValues.keySet());
+        List<AuditEntryDto.FieldChange> changes = new ArrayList<>();
+        for (Map.Entry<String, String> field : newValues.entrySet()) {
+            fields.remove(field.getKey());
+            String oldValue = oldValues.get(field.getKey());
+            if (!Objects.equals(oldValue, field.getValue())) {
+                changes.add(new AuditEntryDto.FieldChange(field.getKey(), oldValue, field.getValue()));
+            }
+        }
+        for (Map.Entry<String, String> field : oldValues.entrySet()) {
+            if (fields.contains(field.getKey()) && field.getValue() != null) {
+                changes.add(new AuditEntryDto.FieldChange(field.getKey(), field.getValue(), null));
+            }
+        }
+        return changes;
+    }
+
+    private static String currentActor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken
+                || !authentication.isAuthenticated()) {
+            return null;
+        }
+        return authentication.getName();
+    }
+}
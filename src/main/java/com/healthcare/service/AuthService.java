@@ -2,10 +2,12 @@ package com.healthcare.service;
 
 import com.healthcare.dto.LoginRequest;
 import com.healthcare.dto.LoginResponse;
+import com.healthcare.exception.PasswordHashingRejectedException;
 import com.healthcare.model.User;
 import com.healthcare.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
@@ -13,11 +15,13 @@ import java.util.Optional;
 @Service
 public class AuthService {
 
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     public LoginResponse authenticate(LoginRequest loginRequest) {
         try {
@@ -33,10 +37,12 @@ public class AuthService {
                 return new LoginResponse(false, "Account is deactivated");
             }
 
-            if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+            if (!passwordHashingService.matches(loginRequest.getPassword(), user.getPassword())) {
                 return new LoginResponse(false, "Invalid password");
             }
 
+            rehashIfOutdated(user, loginRequest.getPassword());
+
             return new LoginResponse(
                     user.getId(),
                     user.getUsername(),
@@ -48,6 +54,8 @@ public class AuthService {
                     "Login successful"
             );
 
+        } catch (PasswordHashingRejectedException e) {
+            throw e;
         } catch (Exception e) {
             return new LoginResponse(false, "Login failed: " + e.getMessage());
         }
@@ -57,8 +65,23 @@ public class AuthService {
         Optional<User> userOptional = userRepository.findByUsername(username);
         if (userOptional.isPresent()) {
             User user = userOptional.get();
-            return user.getActive() && passwordEncoder.matches(password, user.getPassword());
+            return user.getActive() && passwordHashingService.matches(password, user.getPassword());
         }
         return false;
     }
+
+    // The raw password is only available at login, so that is when hashes made with an
+    // older cost factor get upgraded. A failure here must not fail the login itself.
+    private void rehashIfOutdated(User user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            user.setPassword(passwordHashingService.encode(rawPassword));
+            userRepository.save(user);
+            passwordHashingService.recordRehash();
+        } catch (RuntimeException e) {
+            log.warn("Could not upgrade password hash for user {}: {}", user.getId(), e.getMessage());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.healthcare.service;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// The id list of a batch lookup, checked before it reaches an IN clause
+final class BatchIds {
+
+    private BatchIds() {}
+
+    // Distinct ids in request order; repeats are answered once
+    static Set<Long> distinct(List<Long> ids, int max) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("No ids given");
+        }
+        Set<Long> distinct = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id == null) {
+                throw new IllegalArgumentException("Null id");
+            }
+            distinct.add(id);
+        }
+        if (distinct.size() > max) {
+            throw new IllegalArgumentException("At most " + max + " ids per batch, got " + distinct.size());
+        }
+        return distinct;
+    }
+}
@@ -0,0 +1,93 @@
+package com.healthcare.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Small in-process read-through cache: entries expire after a fixed TTL and the least
+// recently used entry is dropped once the cache is full. Publishes the usual cache.gets
+// (hit/miss), cache.evictions and cache.size meters tagged with the cache name.
+public class BoundedTtlCache<K, V> {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final Map<K, Entry<V>> entries;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    // Bumped on every eviction; a load that overlapped one is returned but not stored,
+    // so a reader can never re-insert a value a writer has just invalidated
+    private long generation;
+
+    public BoundedTtlCache(String name, long ttlMillis, int maxEntries, MeterRegistry meterRegistry) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.hits = Counter.builder("cache.gets").tag("cache", name).tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", name).tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", name).register(meterRegistry);
+        Gauge.builder("cache.size", this, BoundedTtlCache::size).tag("cache", name).register(meterRegistry);
+    }
+
+    // Returns the cached value or loads it; null results are passed through and not cached
+    public V get(K key, Supplier<V> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.increment();
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+            }
+            loadGeneration = generation;
+        }
+
+        misses.increment();
+        V value = loader.get();
+        if (value != null) {
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+                    if (entries.size() > maxEntries) {
+                        K eldest = entries.keySet().iterator().next();
+                        entries.remove(eldest);
+                        evictions.increment();
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    // The cached value if there is a live one; never loads and does not count as a get
+    public synchronized V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && entry.expiresAt - System.nanoTime() > 0 ? entry.value : null;
+    }
+
+    public synchronized void evict(K key) {
+        generation++;
+        if (entries.remove(key) != null) {
+            evictions.increment();
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry<V>(V value, long expiresAt) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.IdSequenceRepository;
+import com.healthcare.repository.PatientRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Hands out P######/D###### identifiers hi/lo style. Each node claims a block of numbers
+// from the id_sequences table with a compare-and-set update, then serves the block from an
+// AtomicLong; the table is only touched again when the block runs out. Numbers left in a
+// block at shutdown are skipped, never reused.
+@Service
+public class BusinessIdAllocator {
+
+    private static final String PATIENT_SEQUENCE = "patient_id";
+    private static final String DOCTOR_SEQUENCE = "doctor_id";
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Value("${ids.block-size:50}")
+    private int blockSize;
+
+    private final Sequence patientIds = new Sequence(PATIENT_SEQUENCE, () -> patientRepository.findMaxPatientNumber());
+    private final Sequence doctorIds = new Sequence(DOCTOR_SEQUENCE, () -> doctorRepository.findMaxDoctorNumber());
+
+    public String nextPatientId() {
+        return "P" + String.format("%06d", patientIds.next());
+    }
+
+    public String nextDoctorId() {
+        return "D" + String.format("%06d", doctorIds.next());
+    }
+
+    private final class Sequence {
+        private final String name;
+        // Highest number issued before this table existed, used to seed the row
+        private final Supplier<Long> existingMax;
+        private final AtomicReference<Block> current = new AtomicReference<>(new Block(0, 0));
+        private final ReentrantLock refill = new ReentrantLock();
+
+        Sequence(String name, Supplier<Long> existingMax) {
+            this.name = name;
+            this.existingMax = existingMax;
+        }
+
+        long next() {
+            while (true) {
+                Block block = current.get();
+                long value = block.next.getAndIncrement();
+                if (value < block.limit) {
+                    return value;
+                }
+                // A lock rather than synchronized: the claim does JDBC, which would pin a virtual thread
+                refill.lock();
+                try {
+                    // Only the first thread to find the block exhausted claims a new one
+                    if (current.get() == block) {
+                        current.set(claimBlock());
+                    }
+                } finally {
+                    refill.unlock();
+                }
+            }
+        }
+
+        private Block claimBlock() {
+            while (true) {
+                Long start = idSequenceRepository.findNextValue(name).orElse(null);
+                if (start == null) {
+                    try {
+                        idSequenceRepository.create(name, seedValue());
+                    } catch (DataIntegrityViolationException e) {
+                        // Another node created it first; read theirs
+                    }
+                    continue;
+                }
+                if (idSequenceRepository.advance(name, start, start + blockSize) == 1) {
+                    return new Block(start, start + blockSize);
+                }
+            }
+        }
+
+        private long seedValue() {
+            Long max = existingMax.get();
+            return max != null ? max + 1 : 1;
+        }
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long limit;
+
+        Block(long start, long limit) {
+            this.next = new AtomicLong(start);
+            this.limit = limit;
+        }
+    }
+}
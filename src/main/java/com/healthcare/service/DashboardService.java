@@ -0,0 +1,283 @@
+package com.healthcare.service;
+
+import com.healthcare.model.AppointmentStatus;
+import com.healthcare.model.Role;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Materialized admin counters. Loaded once from COUNT/GROUP BY queries, then
+// adjusted in place by the services on every create/delete/status change, and
+// periodically reconciled against the database to wash out any drift.
+@Service
+public class DashboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    private final Map<Role, AtomicLong> usersByRole = new EnumMap<>(Role.class);
+    // Every key is present from construction, so updates never allocate or lock
+    private final Map<AppointmentStatus, AtomicLong> appointmentsByStatus = new EnumMap<>(AppointmentStatus.class);
+    private final AtomicLong patients = new AtomicLong();
+    private final AtomicLong doctors = new AtomicLong();
+    private final AtomicLong appointments = new AtomicLong();
+    // Appointments on one calendar day; replaced on the first read after midnight
+    private final AtomicReference<DayCount> today = new AtomicReference<>();
+
+    private volatile boolean loaded;
+    // Not synchronized: the reload runs queries, which would pin a virtual thread
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    // What the previous reconcile pass found out of step; guarded by refreshLock
+    private Set<AppointmentStatus> driftedLastRun = EnumSet.noneOf(AppointmentStatus.class);
+    private boolean totalDriftedLastRun;
+
+    public DashboardService() {
+        for (Role role : Role.values()) {
+            usersByRole.put(role, new AtomicLong());
+        }
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            appointmentsByStatus.put(status, new AtomicLong());
+        }
+    }
+
+    // Rebuilds every counter from the database: one GROUP BY per table plus two counts
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            reload();
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    // Counters are adjusted after each write commits, so one landing while the GROUP BY runs can
+    // be counted twice or not at all; the next pass corrects it. Such one-off drift is routine,
+    // so only drift that shows up again on the following pass is worth a warning.
+    @Scheduled(initialDelayString = "${dashboard.reconcile-interval-ms:300000}",
+            fixedDelayString = "${dashboard.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        if (!loaded) {
+            return;
+        }
+        refreshLock.lock();
+        try {
+            Map<AppointmentStatus, Long> before = new EnumMap<>(AppointmentStatus.class);
+            appointmentsByStatus.forEach((status, counter) -> before.put(status, counter.get()));
+            long totalBefore = appointments.get();
+            reload();
+            Set<AppointmentStatus> drifted = EnumSet.noneOf(AppointmentStatus.class);
+            appointmentsByStatus.forEach((status, counter) -> {
+                if (before.get(status) != counter.get()) {
+                    drifted.add(status);
+                    logDrift(driftedLastRun.contains(status), "Appointment counter {} drifted: {} in memory, {} in database",
+                            status, before.get(status), counter.get());
+                }
+            });
+            boolean totalDrifted = totalBefore != appointments.get();
+            if (totalDrifted) {
+                logDrift(totalDriftedLastRun, "Appointment total drifted: {} in memory, {} in database",
+                        totalBefore, appointments.get());
+            }
+            driftedLastRun = drifted;
+            totalDriftedLastRun = totalDrifted;
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    private static void logDrift(boolean persistent, String message, Object... args) {
+        if (persistent) {
+            log.warn(message, args);
+        } else {
+            log.debug(message, args);
+        }
+    }
+
+    private void reload() {
+        // Counted into locals first so readers never see zeroes while the GROUP BY runs
+        Map<Role, Long> byRole = new EnumMap<>(Role.class);
+        for (UserRepository.RoleCount row : userRepository.countGroupByRole()) {
+            if (row.getRole() != null) {
+                byRole.put(row.getRole(), row.getTotal());
+            }
+        }
+        usersByRole.forEach((role, counter) -> counter.set(byRole.getOrDefault(role, 0L)));
+
+        Map<AppointmentStatus, Long> byStatus = new EnumMap<>(AppointmentStatus.class);
+        long totalAppointments = 0;
+        for (AppointmentRepository.StatusCount row : appointmentRepository.countGroupByStatus()) {
+            if (row.getStatus() != null) {
+                byStatus.put(row.getStatus(), row.getTotal());
+            }
+            totalAppointments += row.getTotal();
+        }
+        appointmentsByStatus.forEach((status, counter) -> counter.set(byStatus.getOrDefault(status, 0L)));
+        appointments.set(totalAppointments);
+        today.set(null);
+
+        patients.set(patientRepository.count());
+        doctors.set(doctorRepository.count());
+        loaded = true;
+    }
+
+    public long getTotalUsers() {
+        ensureLoaded();
+        return usersByRole.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    public long getUserCount(Role role) {
+        ensureLoaded();
+        return usersByRole.get(role).get();
+    }
+
+    public long getTotalPatients() {
+        ensureLoaded();
+        return patients.get();
+    }
+
+    public long getTotalDoctors() {
+        ensureLoaded();
+        return doctors.get();
+    }
+
+    public long getTotalAppointments() {
+        ensureLoaded();
+        return appointments.get();
+    }
+
+    public long getAppointmentCount(AppointmentStatus status) {
+        ensureLoaded();
+        return appointmentsByStatus.get(status).get();
+    }
+
+    // One range count per day, then kept current by the same hooks as the status counters
+    public long getTodaysAppointmentCount() {
+        LocalDate date = LocalDate.now();
+        DayCount current = today.get();
+        if (current == null || !current.date().equals(date)) {
+            long count = appointmentRepository.countByDateRange(date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+            current = new DayCount(date, new AtomicLong(count));
+            today.set(current);
+        }
+        return current.count().get();
+    }
+
+    public void recordUserCreated(Role role) {
+        if (loaded && role != null) {
+            usersByRole.get(role).incrementAndGet();
+        }
+    }
+
+    public void recordUserDeleted(Role role) {
+        if (loaded && role != null) {
+            usersByRole.get(role).decrementAndGet();
+        }
+    }
+
+    public void recordPatientCreated() {
+        if (loaded) {
+            patients.incrementAndGet();
+        }
+    }
+
+    public void recordPatientDeleted() {
+        if (loaded) {
+            patients.decrementAndGet();
+        }
+    }
+
+    public void recordDoctorCreated() {
+        if (loaded) {
+            doctors.incrementAndGet();
+        }
+    }
+
+    public void recordDoctorDeleted() {
+        if (loaded) {
+            doctors.decrementAndGet();
+        }
+    }
+
+    public void recordAppointmentCreated(AppointmentStatus status, LocalDateTime dateTime) {
+        adjustDay(dateTime, 1);
+        if (loaded) {
+            appointments.incrementAndGet();
+            adjustStatus(status, 1);
+        }
+    }
+
+    public void recordAppointmentDeleted(AppointmentStatus status, LocalDateTime dateTime) {
+        adjustDay(dateTime, -1);
+        if (loaded) {
+            appointments.decrementAndGet();
+            adjustStatus(status, -1);
+        }
+    }
+
+    public void recordAppointmentChanged(AppointmentStatus oldStatus, LocalDateTime oldDateTime,
+                                         AppointmentStatus newStatus, LocalDateTime newDateTime) {
+        adjustDay(oldDateTime, -1);
+        adjustDay(newDateTime, 1);
+        if (loaded && oldStatus != newStatus) {
+            adjustStatus(oldStatus, -1);
+            adjustStatus(newStatus, 1);
+        }
+    }
+
+    // Appointments without a status are still part of the total but are not tracked by status
+    private void adjustStatus(AppointmentStatus status, int delta) {
+        if (status != null) {
+            appointmentsByStatus.get(status).addAndGet(delta);
+        }
+    }
+
+    private void adjustDay(LocalDateTime dateTime, int delta) {
+        DayCount current = today.get();
+        if (dateTime != null && current != null && current.date().equals(dateTime.toLocalDate())) {
+            current.count().addAndGet(delta);
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            refreshLock.lock();
+            try {
+                if (!loaded) {
+                    reload();
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+    }
+
+    private record DayCount(LocalDate date, AtomicLong count) {
+    }
+}
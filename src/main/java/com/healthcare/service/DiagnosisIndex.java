@@ -0,0 +1,210 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.MedicalRecordRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Trigram inverted index over MedicalRecord.diagnosis for case-insensitive substring search.
+// Each trigram maps to a sorted primitive array of record ids; a query intersects the lists
+// of its trigrams and confirms the survivors against the indexed text, so the database is
+// only needed to load the records that are actually returned.
+@Component
+public class DiagnosisIndex {
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    private final Map<Long, Postings> postingsByTrigram = new HashMap<>();
+    private final Map<Long, String> diagnosisById = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            postingsByTrigram.clear();
+            diagnosisById.clear();
+            // Ascending ids, so every posting insert is an append
+            for (MedicalRecordRepository.DiagnosisEntry entry : medicalRecordRepository.findDiagnosisEntries()) {
+                add(entry.getId(), entry.getDiagnosis());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(Long recordId, String diagnosis) {
+        lock.writeLock().lock();
+        try {
+            remove(recordId, diagnosisById.get(recordId));
+            add(recordId, diagnosis);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long recordId) {
+        lock.writeLock().lock();
+        try {
+            remove(recordId, diagnosisById.get(recordId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Ids of records whose diagnosis contains the query, newest first, at most limit of them
+    public List<Long> search(String query, int limit) {
+        List<Long> matches = new ArrayList<>();
+        if (query == null || query.isEmpty() || limit <= 0) {
+            return matches;
+        }
+        String needle = normalize(query);
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                // Too short to have a trigram; the in-memory texts are still far cheaper than LIKE
+                diagnosisById.entrySet().stream()
+                        .filter(entry -> entry.getValue().contains(needle))
+                        .map(Map.Entry::getKey)
+                        .sorted(Comparator.reverseOrder())
+                        .limit(limit)
+                        .forEach(matches::add);
+                return matches;
+            }
+
+            long[] candidates = candidates(needle);
+            for (int i = candidates.length - 1; i >= 0 && matches.size() < limit; i--) {
+                if (diagnosisById.get(candidates[i]).contains(needle)) {
+                    matches.add(candidates[i]);
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Intersection of the posting lists of every trigram in the needle, smallest list first
+    private long[] candidates(String needle) {
+        long[] trigrams = trigrams(needle);
+        Postings[] lists = new Postings[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postingsByTrigram.get(trigrams[i]);
+            if (lists[i] == null) {
+                return new long[0];
+            }
+        }
+        Arrays.sort(lists, Comparator.comparingInt(postings -> postings.size));
+
+        long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int resultSize = result.length;
+        for (int i = 1; i < lists.length && resultSize > 0; i++) {
+            resultSize = lists[i].retainAll(result, resultSize);
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    private void add(Long recordId, String diagnosis) {
+        if (diagnosis == null) {
+            return;
+        }
+        String text = normalize(diagnosis);
+        diagnosisById.put(recordId, text);
+        for (long trigram : trigrams(text)) {
+            postingsByTrigram.computeIfAbsent(trigram, key -> new Postings()).insert(recordId);
+        }
+    }
+
+    private void remove(Long recordId, String text) {
+        if (text == null) {
+            return;
+        }
+        diagnosisById.remove(recordId);
+        for (long trigram : trigrams(text)) {
+            Postings postings = postingsByTrigram.get(trigram);
+            if (postings != null && postings.remove(recordId) && postings.size == 0) {
+                postingsByTrigram.remove(trigram);
+            }
+        }
+    }
+
+    private static String normalize(String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+    // Distinct trigrams of the text, each packed as three 16-bit chars into one long
+    private static long[] trigrams(String text) {
+        if (text.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    // Sorted, growable array of record ids
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        void insert(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            ids[i] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int i = Arrays.binarySearch(ids, 0, size, id);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+            size--;
+            return true;
+        }
+
+        // Keeps only the entries of target[0..targetSize) present in this list; returns the new size
+        int retainAll(long[] target, int targetSize) {
+            int kept = 0;
+            int j = 0;
+            for (int i = 0; i < targetSize && j < size; i++) {
+                while (j < size && ids[j] < target[i]) {
+                    j++;
+                }
+                if (j < size && ids[j] == target[i]) {
+                    target[kept++] = target[i];
+                }
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.DoctorDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Caches the doctor reads behind the booking screens. Writes evict only the entries the
+// changed doctor can appear in: its own id/doctorId entries and the lists it belongs to.
+// Cached DTOs are shared between callers and must not be modified.
+@Component
+public class DoctorCache {
+
+    static final String AVAILABLE = "available";
+    static final String ACTIVE = "active";
+
+    private final BoundedTtlCache<Long, DoctorDto> byId;
+    private final BoundedTtlCache<String, DoctorDto> byDoctorId;
+    private final BoundedTtlCache<String, List<DoctorDto>> lists;
+
+    public DoctorCache(MeterRegistry meterRegistry,
+                       @Value("${doctors.cache.ttl-seconds:300}") long ttlSeconds,
+                       @Value("${doctors.cache.max-entries:1000}") int maxEntries) {
+        long ttlMillis = ttlSeconds * 1000;
+        this.byId = new BoundedTtlCache<>("doctors.by-id", ttlMillis, maxEntries, meterRegistry);
+        this.byDoctorId = new BoundedTtlCache<>("doctors.by-doctor-id", ttlMillis, maxEntries, meterRegistry);
+        this.lists = new BoundedTtlCache<>("doctors.lists", ttlMillis, maxEntries, meterRegistry);
+    }
+
+    public Optional<DoctorDto> byId(Long id, Supplier<Optional<DoctorDto>> loader) {
+        return Optional.ofNullable(byId.get(id, () -> loader.get().orElse(null)));
+    }
+
+    public Optional<DoctorDto> cachedById(Long id) {
+        return Optional.ofNullable(byId.getIfPresent(id));
+    }
+
+    public Optional<DoctorDto> byDoctorId(String doctorId, Supplier<Optional<DoctorDto>> loader) {
+        return Optional.ofNullable(byDoctorId.get(doctorId, () -> loader.get().orElse(null)));
+    }
+
+    public List<DoctorDto> list(String key, Supplier<List<DoctorDto>> loader) {
+        return lists.get(key, () -> List.copyOf(loader.get()));
+    }
+
+    static String specialization(String specialization) {
+        return "specialization:" + specialization;
+    }
+
+    // Call with the doctor's state both before and after a change, so a doctor that moved
+    // between lists is removed from the old one and the new one
+    public void evict(DoctorDto doctor) {
+        byId.evict(doctor.getId());
+        if (doctor.getDoctorId() != null) {
+            byDoctorId.evict(doctor.getDoctorId());
+        }
+        lists.evict(specialization(doctor.getSpecialization()));
+        if (Boolean.TRUE.equals(doctor.getAvailable())) {
+            lists.evict(AVAILABLE);
+        }
+        if (doctor.getUser() != null && Boolean.TRUE.equals(doctor.getUser().getActive())) {
+            lists.evict(ACTIVE);
+        }
+    }
+
+    public void evictList(String key) {
+        lists.evict(key);
+    }
+}
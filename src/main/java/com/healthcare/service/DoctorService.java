@@ -1,23 +1,39 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.DoctorDto;
 import com.healthcare.dto.UserDto;
 import com.healthcare.model.Doctor;
 import com.healthcare.model.User;
 import com.healthcare.model.Role;
+import com.healthcare.repository.ProjectionRepository;
 import com.healthcare.repository.DoctorRepository;
 import com.healthcare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class DoctorService {
 
+    private static final Set<String> PATCHABLE = Set.of(
+            "version", "specialization", "qualification", "experience", "department",
+            "consultationFee", "workingHours", "available",
+            "user.version", "user.firstName", "user.lastName", "user.email", "user.phoneNumber");
+
     @Autowired
     private DoctorRepository doctorRepository;
 
@@ -25,40 +41,118 @@ public class DoctorService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
-    public List<DoctorDto> getAllDoctors() {
-        return doctorRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @Autowired
+    private BusinessIdAllocator businessIdAllocator;
+
+    @Autowired
+    private DoctorCache doctorCache;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private MergePatch mergePatch;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${batch.max-ids:100}")
+    private int maxBatchIds;
+
+    public CursorPage<DoctorDto> getDoctors(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Doctor> slice = after == null
+                ? doctorRepository.findFirstPage(pageable)
+                : doctorRepository.findPageAfter(after.getTimestamp(), after.getId(), pageable);
+        return CursorPage.of(slice, this::convertToDto,
+                d -> PageCursor.encode(d.getCreatedAt(), d.getId()));
+    }
+
+    // fields= pages select just the requested columns instead of whole doctors and users
+    public CursorPage<DoctorDto> getDoctors(FieldSelection fields, String cursor, int size) {
+        if (fields.isAll()) {
+            return getDoctors(cursor, size);
+        }
+        return Projections.DOCTOR.page(projectionRepository, fields, Map.of(), false, cursor, size);
     }
 
     public List<DoctorDto> getActiveDoctors() {
-        return doctorRepository.findActiveDoctors().stream()
+        return doctorCache.list(DoctorCache.ACTIVE, () -> doctorRepository.findActiveDoctors().stream()
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<DoctorDto> getAvailableDoctors() {
-        return doctorRepository.findByAvailableTrue().stream()
+        return doctorCache.list(DoctorCache.AVAILABLE, () -> doctorRepository.findByAvailableTrue().stream()
                 .map(this::convertToDto)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     public List<DoctorDto> getDoctorsBySpecialization(String specialization) {
-        return doctorRepository.findBySpecialization(specialization).stream()
+        String key = DoctorCache.specialization(specialization);
+        return doctorCache.list(key, () -> doctorRepository.findBySpecialization(specialization).stream()
+                .map(this::convertToDto)
+                .collect(Collectors.toList()));
+    }
+
+    // Matching users come from the in-memory name index; only the returned doctors are loaded
+    public List<DoctorDto> searchDoctorsByName(String name, int size) {
+        int limit = Math.max(1, Math.min(size, PageCursor.MAX_PAGE_SIZE));
+        List<Long> userIds = nameIndex.search(Role.DOCTOR, name, limit);
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Doctor> doctorsByUser = doctorRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(doctor -> doctor.getUser().getId(), Function.identity()));
+        return userIds.stream()
+                .map(doctorsByUser::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
     public Optional<DoctorDto> getDoctorById(Long id) {
-        return doctorRepository.findById(id)
-                .map(this::convertToDto);
+        return doctorCache.byId(id, () -> doctorRepository.findById(id)
+                .map(this::convertToDto));
+    }
+
+    // Straight to the database in one query; the per-id cache has no bulk read
+    public Map<Long, BatchEntry<DoctorDto>> getDoctorsByIds(List<Long> ids) {
+        Set<Long> distinct = BatchIds.distinct(ids, maxBatchIds);
+        return BatchEntry.mapOf(distinct, doctorRepository.findAllWithUserByIdIn(distinct), Doctor::getId, this::convertToDto);
+    }
+
+    // A cached doctor answers from its own versions, so a cached GET never queries; on a miss the
+    // stamp query reads two version columns instead of the doctor graph. Both tags are the
+    // doctor's version plus its user's.
+    public Optional<ResourceVersion> getDoctorVersion(Long id) {
+        Optional<DoctorDto> cached = doctorCache.cachedById(id);
+        if (cached.isPresent() && cached.get().getVersion() != null && cached.get().getUser() != null
+                && cached.get().getUser().getVersion() != null) {
+            DoctorDto doctor = cached.get();
+            return Optional.of(ResourceVersion.of("doctor", id, doctor.getVersion() + doctor.getUser().getVersion()));
+        }
+        return doctorRepository.findVersionStampById(id)
+                .map(stamp -> ResourceVersion.of("doctor", id, stamp));
+    }
+
+    public ResourceVersion getDoctorsVersion() {
+        return ResourceVersion.ofCollection("doctors", doctorRepository.findCollectionStamp(),
+                userRepository.findLastUpdatedAt());
     }
 
     public Optional<DoctorDto> getDoctorByDoctorId(String doctorId) {
-        return doctorRepository.findByDoctorId(doctorId)
-                .map(this::convertToDto);
+        return doctorCache.byDoctorId(doctorId, () -> doctorRepository.findByDoctorId(doctorId)
+                .map(this::convertToDto));
     }
 
     public DoctorDto createDoctor(DoctorDto doctorDto) {
@@ -66,7 +160,7 @@ public class DoctorService {
         User user = new User();
         user.setUsername(doctorDto.getUser().getUsername());
         user.setEmail(doctorDto.getUser().getEmail());
-        user.setPassword(passwordEncoder.encode(doctorDto.getUser().getPassword()));
+        user.setPassword(passwordHashingService.encode(doctorDto.getUser().getPassword()));
         user.setFirstName(doctorDto.getUser().getFirstName());
         user.setLastName(doctorDto.getUser().getLastName());
         user.setPhoneNumber(doctorDto.getUser().getPhoneNumber());
@@ -78,7 +172,7 @@ public class DoctorService {
         // Create doctor
         Doctor doctor = new Doctor();
         doctor.setUser(savedUser);
-        doctor.setDoctorId(generateDoctorId());
+        doctor.setDoctorId(businessIdAllocator.nextDoctorId());
         doctor.setSpecialization(doctorDto.getSpecialization());
         doctor.setQualification(doctorDto.getQualification());
         doctor.setExperience(doctorDto.getExperience());
@@ -88,16 +182,41 @@ public class DoctorService {
         doctor.setAvailable(doctorDto.getAvailable() != null ? doctorDto.getAvailable() : true);
 
         Doctor savedDoctor = doctorRepository.save(doctor);
-        return convertToDto(savedDoctor);
+        nameIndex.put(savedUser);
+        dashboardService.recordUserCreated(Role.DOCTOR);
+        dashboardService.recordDoctorCreated();
+        DoctorDto created = convertToDto(savedDoctor);
+        doctorCache.evict(created);
+        return created;
     }
 
     public DoctorDto updateDoctor(Long id, DoctorDto doctorDto) {
+        return OptimisticLocking.once(() -> applyDoctorUpdate(id, doctorDto));
+    }
+
+    // Merge patch over the doctor's current DTO, applied like a PUT inside a single transaction;
+    // untouched fields compare equal and stay out of the UPDATE
+    public DoctorDto patchDoctor(Long id, JsonNode patch) {
+        return OptimisticLocking.retry(() -> transactionTemplate.execute(status -> {
+            Doctor doctor = doctorRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Doctor not found"));
+            applyDoctorUpdate(id, mergePatch.apply(convertToDto(doctor), patch, PATCHABLE));
+            // Flushed before converting so the response carries the incremented versions
+            doctorRepository.flush();
+            return convertToDto(doctor);
+        }));
+    }
+
+    private DoctorDto applyDoctorUpdate(Long id, DoctorDto doctorDto) {
         Optional<Doctor> existingDoctor = doctorRepository.findById(id);
         if (existingDoctor.isEmpty()) {
             throw new RuntimeException("Doctor not found");
         }
 
         Doctor doctor = existingDoctor.get();
+        OptimisticLocking.checkVersion(doctorDto.getVersion(), doctor.getVersion());
+        OptimisticLocking.checkVersion(doctorDto.getUser().getVersion(), doctor.getUser().getVersion());
+        DoctorDto before = convertToDto(doctor);
         doctor.setSpecialization(doctorDto.getSpecialization());
         doctor.setQualification(doctorDto.getQualification());
         doctor.setExperience(doctorDto.getExperience());
@@ -115,7 +234,14 @@ public class DoctorService {
 
         userRepository.save(user);
         Doctor updatedDoctor = doctorRepository.save(doctor);
-        return convertToDto(updatedDoctor);
+        DoctorDto updated = convertToDto(updatedDoctor);
+        // Evicting before the commit would let a concurrent GET cache the old row again
+        AfterCommit.run(() -> {
+            nameIndex.put(user);
+            doctorCache.evict(before);
+            doctorCache.evict(updated);
+        });
+        return updated;
     }
 
     public void deleteDoctor(Long id) {
@@ -125,17 +251,26 @@ public class DoctorService {
             User user = doctor.getUser();
             doctorRepository.deleteById(id);
             userRepository.deleteById(user.getId());
+            nameIndex.remove(user.getId());
+            doctorCache.evict(convertToDto(doctor));
+            dashboardService.recordDoctorDeleted();
+            dashboardService.recordUserDeleted(user.getRole());
         }
     }
 
-    private String generateDoctorId() {
-        long count = doctorRepository.count();
-        return "D" + String.format("%06d", count + 1);
+    // For changes made through the user endpoints (profile edits, deactivation)
+    public void evictCachedDoctor(Long userId) {
+        doctorRepository.findByUserId(userId).ifPresent(doctor -> {
+            doctorCache.evict(convertToDto(doctor));
+            // The user's active flag may just have flipped, which moves the doctor in or out of this list
+            doctorCache.evictList(DoctorCache.ACTIVE);
+        });
     }
 
-    private DoctorDto convertToDto(Doctor doctor) {
+    DoctorDto convertToDto(Doctor doctor) {
         DoctorDto doctorDto = new DoctorDto();
         doctorDto.setId(doctor.getId());
+        doctorDto.setVersion(doctor.getVersion());
         doctorDto.setDoctorId(doctor.getDoctorId());
         doctorDto.setSpecialization(doctor.getSpecialization());
         doctorDto.setQualification(doctor.getQualification());
@@ -155,6 +290,7 @@ public class DoctorService {
         userDto.setPhoneNumber(doctor.getUser().getPhoneNumber());
         userDto.setRole(doctor.getUser().getRole());
         userDto.setActive(doctor.getUser().getActive());
+        userDto.setVersion(doctor.getUser().getVersion());
 
         doctorDto.setUser(userDto);
         return doctorDto;
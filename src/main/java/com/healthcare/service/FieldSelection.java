@@ -0,0 +1,68 @@
+package com.healthcare.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// A fields= parameter: the dotted DTO property paths a client asked for. Selecting a property
+// keeps everything below it, so "user" returns the whole nested user and "user.firstName" only
+// that one field (plus the "user" object around it).
+public final class FieldSelection {
+
+    public static final FieldSelection ALL = new FieldSelection(null, null);
+
+    // null when nothing was selected, i.e. every property is written
+    private final Set<String> selected;
+    // Every known path that is written: selected ones, their descendants and their ancestors
+    private final Set<String> included;
+
+    private FieldSelection(Set<String> selected, Set<String> included) {
+        this.selected = selected;
+        this.included = included;
+    }
+
+    // Rejects paths outside known, the selectable paths of the response DTO
+    public static FieldSelection parse(String fields, Set<String> known) {
+        if (fields == null) {
+            return ALL;
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        List<String> unknown = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String path = field.trim();
+            if (path.isEmpty()) {
+                continue;
+            }
+            if (known.contains(path)) {
+                selected.add(path);
+            } else {
+                unknown.add(path);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown fields: " + String.join(", ", unknown));
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("No fields selected");
+        }
+        Set<String> included = new LinkedHashSet<>();
+        for (String path : known) {
+            for (String field : selected) {
+                if (path.equals(field) || path.startsWith(field + ".") || field.startsWith(path + ".")) {
+                    included.add(path);
+                    break;
+                }
+            }
+        }
+        return new FieldSelection(selected, included);
+    }
+
+    public boolean isAll() {
+        return selected == null;
+    }
+
+    public boolean includes(String path) {
+        return selected == null || included.contains(path);
+    }
+}
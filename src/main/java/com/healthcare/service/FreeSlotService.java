@@ -0,0 +1,125 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.DoctorDto;
+import com.healthcare.dto.FreeSlotDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Earliest open appointment starts across a set of doctors. Each doctor-day is one long: the
+// half-hour cells of the doctor's weekly schedule, minus the cells that would conflict with a
+// booking in AppointmentSlotIndex. Days are visited in order and the union of the day's bitmaps is
+// walked lowest bit first, so the search stops as soon as enough slots have been found.
+@Service
+public class FreeSlotService {
+
+    public static final int MAX_WINDOW_DAYS = 62;
+    public static final int MAX_RESULTS = 100;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private AppointmentSlotIndex appointmentSlotIndex;
+
+    // Parsed schedules by their source text; doctors tend to share a handful of patterns
+    private final Map<String, WeeklySchedule> schedules = new ConcurrentHashMap<>();
+
+    public List<FreeSlotDto> findFreeSlots(String specialization, String department,
+                                           LocalDate from, LocalDate to, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDate start = from == null || from.isBefore(today) ? today : from;
+        LocalDate end = to == null ? start.plusDays(13) : to;
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("The end date must not be before the start date");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_WINDOW_DAYS) {
+            throw new IllegalArgumentException("The search window is limited to " + MAX_WINDOW_DAYS + " days");
+        }
+        int wanted = Math.max(1, Math.min(limit, MAX_RESULTS));
+
+        List<DoctorDto> doctors = new ArrayList<>();
+        List<WeeklySchedule> doctorSchedules = new ArrayList<>();
+        for (DoctorDto doctor : doctorService.getAvailableDoctors()) {
+            if (!matches(specialization, doctor.getSpecialization()) || !matches(department, doctor.getDepartment())
+                    || (doctor.getUser() != null && Boolean.FALSE.equals(doctor.getUser().getActive()))) {
+                continue;
+            }
+            WeeklySchedule schedule = scheduleOf(doctor);
+            if (!schedule.isEmpty()) {
+                doctors.add(doctor);
+                doctorSchedules.add(schedule);
+            }
+        }
+
+        List<FreeSlotDto> slots = new ArrayList<>();
+        long[] free = new long[doctors.size()];
+        for (LocalDate date = start; !date.isAfter(end) && slots.size() < wanted; date = date.plusDays(1)) {
+            long earliest = date.equals(today) ? WeeklySchedule.from(now.getHour() * 60 + now.getMinute() + 1) : -1L;
+            long union = 0;
+            for (int i = 0; i < doctors.size(); i++) {
+                long cells = doctorSchedules.get(i).startMask(date.getDayOfWeek()) & earliest;
+                free[i] = cells == 0 ? 0 : cells & ~booked(doctors.get(i).getId(), date);
+                union |= free[i];
+            }
+            while (union != 0 && slots.size() < wanted) {
+                int cell = Long.numberOfTrailingZeros(union);
+                union &= union - 1;
+                LocalDateTime slotStart = date.atStartOfDay().plusMinutes((long) cell * WeeklySchedule.SLOT_MINUTES);
+                for (int i = 0; i < doctors.size() && slots.size() < wanted; i++) {
+                    if ((free[i] & (1L << cell)) != 0) {
+                        slots.add(toSlot(doctors.get(i), slotStart));
+                    }
+                }
+            }
+        }
+        return slots;
+    }
+
+    // Cells of the day that would conflict with one of the doctor's bookings, including bookings
+    // just before midnight or just after the next one
+    private long booked(Long doctorId, LocalDate date) {
+        LocalDateTime dayStart = date.atStartOfDay();
+        int margin = AppointmentSlotIndex.APPOINTMENT_MINUTES;
+        int[] bookings = appointmentSlotIndex.bookedMinutes(doctorId,
+                dayStart.minusMinutes(margin), dayStart.plusDays(1).plusMinutes(margin));
+        long blocked = 0;
+        for (int minute : bookings) {
+            blocked |= WeeklySchedule.blockedBy(minute - margin);
+        }
+        return blocked;
+    }
+
+    private WeeklySchedule scheduleOf(DoctorDto doctor) {
+        String workingHours = doctor.getWorkingHours();
+        if (workingHours == null) {
+            return WeeklySchedule.parse(null);
+        }
+        return schedules.computeIfAbsent(workingHours, WeeklySchedule::parse);
+    }
+
+    private static boolean matches(String wanted, String actual) {
+        return wanted == null || wanted.isBlank() || wanted.equalsIgnoreCase(actual);
+    }
+
+    private static FreeSlotDto toSlot(DoctorDto doctor, LocalDateTime start) {
+        FreeSlotDto slot = new FreeSlotDto();
+        slot.setDoctorId(doctor.getId());
+        if (doctor.getUser() != null) {
+            slot.setDoctorName(doctor.getUser().getFirstName() + " " + doctor.getUser().getLastName());
+        }
+        slot.setSpecialization(doctor.getSpecialization());
+        slot.setDepartment(doctor.getDepartment());
+        slot.setStart(start);
+        slot.setEnd(start.plusMinutes(AppointmentSlotIndex.APPOINTMENT_MINUTES));
+        return slot;
+    }
+}
@@ -0,0 +1,99 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.model.MedicalRecord;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Writes medical records as NDJSON straight from a forward-only database cursor. Rows are
+// fetched fetch-size at a time and the persistence context is cleared after each batch, so
+// memory stays flat however many rows match, and output starts after the first row.
+@Service
+public class MedicalRecordExportService {
+
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${medical-records.export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Dates are inclusive visit days; every filter is optional. Not retried on the primary, since
+    // rows may already have been streamed when a replica connection drops
+    @ReplicaRead(retryOnPrimary = false)
+    public void export(LocalDate startDate, LocalDate endDate, Long patientId, Long doctorId, OutputStream output) {
+        StringBuilder jpql = new StringBuilder("SELECT mr FROM MedicalRecord mr " +
+                "JOIN FETCH mr.patient p JOIN FETCH p.user JOIN FETCH mr.doctor d JOIN FETCH d.user WHERE 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (startDate != null) {
+            parameters.add(startDate.atStartOfDay());
+            jpql.append(" AND mr.visitDate >= ?").append(parameters.size());
+        }
+        if (endDate != null) {
+            parameters.add(endDate.plusDays(1).atStartOfDay());
+            jpql.append(" AND mr.visitDate < ?").append(parameters.size());
+        }
+        if (patientId != null) {
+            parameters.add(patientId);
+            jpql.append(" AND p.id = ?").append(parameters.size());
+        }
+        if (doctorId != null) {
+            parameters.add(doctorId);
+            jpql.append(" AND d.id = ?").append(parameters.size());
+        }
+        jpql.append(" ORDER BY mr.id ASC");
+
+        // Read-only: no dirty-checking snapshots and no flush for the life of the cursor
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            SelectionQuery<MedicalRecord> query = session.createSelectionQuery(jpql.toString(), MedicalRecord.class);
+            for (int i = 0; i < parameters.size(); i++) {
+                query.setParameter(i + 1, parameters.get(i));
+            }
+            query.setFetchSize(fetchSize);
+            query.setReadOnly(true);
+
+            try (ScrollableResults<MedicalRecord> results = query.scroll(ScrollMode.FORWARD_ONLY)) {
+                long written = 0;
+                while (results.next()) {
+                    output.write(objectMapper.writeValueAsBytes(medicalRecordService.convertToDto(results.get())));
+                    output.write('\n');
+                    written++;
+                    if (written == 1 || written % fetchSize == 0) {
+                        session.clear();
+                        output.flush();
+                    }
+                }
+                output.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
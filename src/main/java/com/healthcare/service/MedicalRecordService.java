@@ -1,27 +1,42 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.AuditEntryDto;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.MedicalRecordDto;
 import com.healthcare.model.MedicalRecord;
 import com.healthcare.model.Patient;
 import com.healthcare.model.Doctor;
 import com.healthcare.model.Appointment;
+import com.healthcare.repository.ProjectionRepository;
 import com.healthcare.repository.MedicalRecordRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.DoctorRepository;
 import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class MedicalRecordService {
 
+    private static final Set<String> PATCHABLE = Set.of(
+            "version", "diagnosis", "symptoms", "treatment", "prescription", "testResults", "notes", "visitDate");
+
     @Autowired
     private MedicalRecordRepository medicalRecordRepository;
 
@@ -31,27 +46,77 @@ public class MedicalRecordService {
     @Autowired
     private DoctorRepository doctorRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
     @Autowired
     private AppointmentRepository appointmentRepository;
 
-    public List<MedicalRecordDto> getAllMedicalRecords() {
-        return medicalRecordRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    @Autowired
+    private DiagnosisIndex diagnosisIndex;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private MergePatch mergePatch;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public CursorPage<MedicalRecordDto> getMedicalRecords(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<MedicalRecord> slice = after == null
+                ? medicalRecordRepository.findFirstPage(pageable)
+                : medicalRecordRepository.findPageAfter(after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
     }
 
-    public List<MedicalRecordDto> getMedicalRecordsByPatient(Long patientId) {
-        return medicalRecordRepository.findByPatientIdOrderByVisitDateDesc(patientId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    // The fields= variants select only the requested columns; the text fields are often large
+    public CursorPage<MedicalRecordDto> getMedicalRecords(FieldSelection fields, String cursor, int size) {
+        if (fields.isAll()) {
+            return getMedicalRecords(cursor, size);
+        }
+        return Projections.MEDICAL_RECORD.page(projectionRepository, fields, Map.of(), false, cursor, size);
     }
 
-    public List<MedicalRecordDto> getMedicalRecordsByDoctor(Long doctorId) {
-        return medicalRecordRepository.findByDoctorId(doctorId).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<MedicalRecordDto> getMedicalRecordsByPatient(Long patientId, String cursor, int size) {
+        PageCursor before = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<MedicalRecord> slice = before == null
+                ? medicalRecordRepository.findFirstPageByPatientId(patientId, pageable)
+                : medicalRecordRepository.findPageByPatientIdBefore(patientId, before.getTimestamp(), before.getId(), pageable);
+        return toPage(slice);
     }
 
+    public CursorPage<MedicalRecordDto> getMedicalRecordsByPatient(FieldSelection fields, Long patientId, String cursor, int size) {
+        if (fields.isAll()) {
+            return getMedicalRecordsByPatient(patientId, cursor, size);
+        }
+        return Projections.MEDICAL_RECORD.page(projectionRepository, fields, Map.of("patient.id", patientId), true, cursor, size);
+    }
+
+    public CursorPage<MedicalRecordDto> getMedicalRecordsByDoctor(Long doctorId, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<MedicalRecord> slice = after == null
+                ? medicalRecordRepository.findFirstPageByDoctorId(doctorId, pageable)
+                : medicalRecordRepository.findPageByDoctorIdAfter(doctorId, after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
+
+    public CursorPage<MedicalRecordDto> getMedicalRecordsByDoctor(FieldSelection fields, Long doctorId, String cursor, int size) {
+        if (fields.isAll()) {
+            return getMedicalRecordsByDoctor(doctorId, cursor, size);
+        }
+        return Projections.MEDICAL_RECORD.page(projectionRepository, fields, Map.of("doctor.id", doctorId), false, cursor, size);
+    }
+
+    @ReplicaRead
     public List<MedicalRecordDto> getMedicalRecordsByDateRange(LocalDate startDate, LocalDate endDate) {
         LocalDateTime start = startDate.atTime(LocalTime.MIN);
         LocalDateTime end = endDate.atTime(LocalTime.MAX);
@@ -60,8 +125,18 @@ public class MedicalRecordService {
                 .collect(Collectors.toList());
     }
 
-    public List<MedicalRecordDto> searchByDiagnosis(String diagnosis) {
-        return medicalRecordRepository.findByDiagnosisContaining(diagnosis).stream()
+    // Matching ids come from the in-memory index; only the returned records are loaded
+    public List<MedicalRecordDto> searchByDiagnosis(String diagnosis, int size) {
+        int limit = Math.max(1, Math.min(size, PageCursor.MAX_PAGE_SIZE));
+        List<Long> ids = diagnosisIndex.search(diagnosis, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MedicalRecord> records = medicalRecordRepository.findAllWithParticipantsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MedicalRecord::getId, Function.identity()));
+        return ids.stream()
+                .map(records::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -71,6 +146,17 @@ public class MedicalRecordService {
                 .map(this::convertToDto);
     }
 
+    // ETag sources for the record and for the record list
+    public Optional<ResourceVersion> getMedicalRecordVersion(Long id) {
+        return medicalRecordRepository.findVersionStampById(id)
+                .map(stamp -> ResourceVersion.of("medical-record", id, stamp));
+    }
+
+    public ResourceVersion getMedicalRecordsVersion() {
+        return ResourceVersion.ofCollection("medical-records", medicalRecordRepository.findCollectionStamp(),
+                userRepository.findLastUpdatedAt());
+    }
+
     public Optional<MedicalRecordDto> getMedicalRecordByAppointment(Long appointmentId) {
         return medicalRecordRepository.findByAppointmentId(appointmentId)
                 .map(this::convertToDto);
@@ -109,16 +195,38 @@ public class MedicalRecordService {
         }
 
         MedicalRecord savedRecord = medicalRecordRepository.save(medicalRecord);
+        diagnosisIndex.put(savedRecord.getId(), savedRecord.getDiagnosis());
+        auditService.record(AuditEntryDto.EntityType.MEDICAL_RECORD, savedRecord.getId(), savedRecord.getPatient().getId(),
+                null, auditService.snapshot(savedRecord));
         return convertToDto(savedRecord);
     }
 
     public MedicalRecordDto updateMedicalRecord(Long id, MedicalRecordDto medicalRecordDto) {
+        return OptimisticLocking.once(() -> applyMedicalRecordUpdate(id, medicalRecordDto));
+    }
+
+    // Merge patch: only the fields a client sends are compared against the stored record, and
+    // the flush at commit writes just the ones that changed
+    public MedicalRecordDto patchMedicalRecord(Long id, JsonNode patch) {
+        return OptimisticLocking.retry(() -> transactionTemplate.execute(status -> {
+            MedicalRecord medicalRecord = medicalRecordRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Medical record not found"));
+            applyMedicalRecordUpdate(id, mergePatch.apply(convertToDto(medicalRecord), patch, PATCHABLE));
+            // Flushed before converting so the response carries the incremented versions
+            medicalRecordRepository.flush();
+            return convertToDto(medicalRecord);
+        }));
+    }
+
+    private MedicalRecordDto applyMedicalRecordUpdate(Long id, MedicalRecordDto medicalRecordDto) {
         Optional<MedicalRecord> existingRecord = medicalRecordRepository.findById(id);
         if (existingRecord.isEmpty()) {
             throw new RuntimeException("Medical record not found");
         }
 
         MedicalRecord medicalRecord = existingRecord.get();
+        OptimisticLocking.checkVersion(medicalRecordDto.getVersion(), medicalRecord.getVersion());
+        Map<String, String> before = auditService.snapshot(medicalRecord);
         medicalRecord.setDiagnosis(medicalRecordDto.getDiagnosis());
         medicalRecord.setSymptoms(medicalRecordDto.getSymptoms());
         medicalRecord.setTreatment(medicalRecordDto.getTreatment());
@@ -131,16 +239,37 @@ public class MedicalRecordService {
         }
 
         MedicalRecord updatedRecord = medicalRecordRepository.save(medicalRecord);
+        String diagnosis = updatedRecord.getDiagnosis();
+        Long patientId = updatedRecord.getPatient().getId();
+        Map<String, String> after = auditService.snapshot(updatedRecord);
+        AfterCommit.run(() -> {
+            diagnosisIndex.put(id, diagnosis);
+            auditService.record(AuditEntryDto.EntityType.MEDICAL_RECORD, id, patientId, before, after);
+        });
         return convertToDto(updatedRecord);
     }
 
     public void deleteMedicalRecord(Long id) {
-        medicalRecordRepository.deleteById(id);
+        // Loaded first so the audit entry can carry what was deleted
+        Optional<MedicalRecord> recordOptional = medicalRecordRepository.findById(id);
+        if (recordOptional.isPresent()) {
+            MedicalRecord medicalRecord = recordOptional.get();
+            medicalRecordRepository.deleteById(id);
+            diagnosisIndex.remove(id);
+            auditService.record(AuditEntryDto.EntityType.MEDICAL_RECORD, id, medicalRecord.getPatient().getId(),
+                    auditService.snapshot(medicalRecord), null);
+        }
+    }
+
+    private CursorPage<MedicalRecordDto> toPage(Slice<MedicalRecord> slice) {
+        return CursorPage.of(slice, this::convertToDto,
+                mr -> PageCursor.encode(mr.getVisitDate(), mr.getId()));
     }
 
-    private MedicalRecordDto convertToDto(MedicalRecord medicalRecord) {
+    MedicalRecordDto convertToDto(MedicalRecord medicalRecord) {
         MedicalRecordDto dto = new MedicalRecordDto();
         dto.setId(medicalRecord.getId());
+        dto.setVersion(medicalRecord.getVersion());
         dto.setPatientId(medicalRecord.getPatient().getId());
         dto.setDoctorId(medicalRecord.getDoctor().getId());
 
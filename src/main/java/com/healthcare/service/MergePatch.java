@@ -0,0 +1,58 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+// RFC 7396 JSON merge patch over a DTO: members present in the patch replace the DTO's values,
+// null clears them, nested objects merge member by member and absent members stay as they are.
+// Only the listed paths may appear, so ids, usernames and roles cannot be changed this way.
+@Component
+public class MergePatch {
+
+    private final ObjectMapper objectMapper;
+
+    public MergePatch(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <D> D apply(D target, JsonNode patch, Set<String> patchable) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("A merge patch must be a JSON object");
+        }
+        ObjectNode merged = objectMapper.valueToTree(target);
+        merge(merged, (ObjectNode) patch, "", patchable);
+        try {
+            return (D) objectMapper.treeToValue(merged, target.getClass());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid patch: " + e.getOriginalMessage());
+        }
+    }
+
+    private static void merge(ObjectNode target, ObjectNode patch, String prefix, Set<String> patchable) {
+        for (Map.Entry<String, JsonNode> member : patch.properties()) {
+            String path = prefix + member.getKey();
+            JsonNode value = member.getValue();
+            if (patchable.contains(path)) {
+                target.set(member.getKey(), value);
+            } else if (value.isObject() && hasChildren(path, patchable)) {
+                JsonNode current = target.get(member.getKey());
+                ObjectNode child = current instanceof ObjectNode object ? object : target.putObject(member.getKey());
+                merge(child, (ObjectNode) value, path + ".", patchable);
+            } else {
+                throw new IllegalArgumentException("Field cannot be patched: " + path);
+            }
+        }
+    }
+
+    private static boolean hasChildren(String path, Set<String> patchable) {
+        String prefix = path + ".";
+        return patchable.stream().anyMatch(candidate -> candidate.startsWith(prefix));
+    }
+}
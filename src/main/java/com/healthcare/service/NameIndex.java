@@ -0,0 +1,329 @@
+package com.healthcare.service;
+
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Autocomplete over patient and doctor names. Every first/last name token is stored in a
+// per-role character trie whose terminal nodes hold user ids. A query token is matched as a
+// prefix, allowing a few edits on longer input, by walking the trie with one edit-distance
+// row per node and pruning branches that can no longer come within the allowed distance.
+@Component
+public class NameIndex {
+
+    // Multi-word queries resolve the longest word first and check the rest against these candidates
+    private static final int CANDIDATES_PER_RESULT = 50;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Map<Role, Node> roots = new EnumMap<>(Role.class);
+    private final Map<Long, Entry> entriesByUser = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @PostConstruct
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            roots.clear();
+            entriesByUser.clear();
+            for (UserRepository.NameEntry entry : userRepository.findNameEntries(List.of(Role.PATIENT, Role.DOCTOR))) {
+                add(entry.getId(), entry.getRole(), entry.getFirstName(), entry.getLastName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(User user) {
+        lock.writeLock().lock();
+        try {
+            remove(user.getId(), entriesByUser.get(user.getId()));
+            add(user.getId(), user.getRole(), user.getFirstName(), user.getLastName());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long userId) {
+        lock.writeLock().lock();
+        try {
+            remove(userId, entriesByUser.get(userId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // User ids whose names match every word of the query, closest matches first
+    public List<Long> search(Role role, String query, int limit) {
+        String[] words = tokens(query);
+        if (words.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        Arrays.sort(words, Comparator.comparingInt(String::length).reversed());
+
+        lock.readLock().lock();
+        try {
+            Node root = roots.get(role);
+            if (root == null) {
+                return List.of();
+            }
+            int wanted = words.length == 1 ? limit : limit * CANDIDATES_PER_RESULT;
+            Map<Long, Integer> candidates = match(root, words[0], wanted);
+            if (words.length == 1) {
+                return new ArrayList<>(candidates.keySet());
+            }
+
+            List<Map.Entry<Long, Integer>> scored = new ArrayList<>();
+            for (Map.Entry<Long, Integer> candidate : candidates.entrySet()) {
+                int score = candidate.getValue();
+                String[] names = entriesByUser.get(candidate.getKey()).tokens;
+                for (int i = 1; i < words.length && score >= 0; i++) {
+                    int best = bestPrefixDistance(words[i], names);
+                    score = best >= 0 ? score + best : -1;
+                }
+                if (score >= 0) {
+                    scored.add(Map.entry(candidate.getKey(), score));
+                }
+            }
+            return scored.stream()
+                    .sorted(Map.Entry.comparingByValue())
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Short prefixes must match exactly; longer ones tolerate one or two typos
+    private static int allowedEdits(String word) {
+        if (word.length() <= 3) {
+            return 0;
+        }
+        return word.length() <= 6 ? 1 : 2;
+    }
+
+    // Users under nodes matching the word as a prefix, in order of edit distance, then name length
+    private Map<Long, Integer> match(Node root, String word, int limit) {
+        List<Match> matches = new ArrayList<>();
+        int[] firstRow = new int[word.length() + 1];
+        for (int j = 0; j < firstRow.length; j++) {
+            firstRow[j] = j;
+        }
+        collectMatches(root, word, null, firstRow, (char) 0, allowedEdits(word), matches);
+        matches.sort(Comparator.comparingInt((Match m) -> m.distance).thenComparingInt(m -> m.depth));
+
+        Map<Long, Integer> users = new LinkedHashMap<>();
+        for (Match match : matches) {
+            collectUsers(match.node, match.distance, limit, users);
+            if (users.size() >= limit) {
+                break;
+            }
+        }
+        return users;
+    }
+
+    private void collectMatches(Node node, String word, int[] previous, int[] row, char last, int maxEdits,
+                                List<Match> matches) {
+        int distance = row[word.length()];
+        if (distance <= maxEdits) {
+            // The whole word is consumed here, so everything below is a completion; keep
+            // descending only while a deeper node could still match more closely
+            matches.add(new Match(node, distance, row[0]));
+            if (distance == 0) {
+                return;
+            }
+        }
+        int min = Integer.MAX_VALUE;
+        for (int value : row) {
+            min = Math.min(min, value);
+        }
+        if (min > maxEdits) {
+            return;
+        }
+        for (int i = 0; i < node.childCount; i++) {
+            char c = node.keys[i];
+            collectMatches(node.children[i], word, row, nextRow(previous, row, word, last, c), c, maxEdits, matches);
+        }
+    }
+
+    // Breadth-first, so shorter completions come before longer ones
+    private void collectUsers(Node start, int distance, int limit, Map<Long, Integer> users) {
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty() && users.size() < limit) {
+            Node node = queue.poll();
+            for (int i = 0; i < node.userCount && users.size() < limit; i++) {
+                users.putIfAbsent(node.users[i], distance);
+            }
+            for (int i = 0; i < node.childCount; i++) {
+                queue.add(node.children[i]);
+            }
+        }
+    }
+
+    // Smallest distance between the word and a prefix of any of the names, or -1 if none is close enough
+    private static int bestPrefixDistance(String word, String[] names) {
+        int maxEdits = allowedEdits(word);
+        int best = -1;
+        for (String name : names) {
+            int[] row = new int[word.length() + 1];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = j;
+            }
+            int[] previous = null;
+            int distance = row[word.length()];
+            for (int i = 0; i < name.length() && distance > 0; i++) {
+                int[] next = nextRow(previous, row, word, i > 0 ? name.charAt(i - 1) : 0, name.charAt(i));
+                previous = row;
+                row = next;
+                distance = Math.min(distance, row[word.length()]);
+            }
+            if (distance <= maxEdits && (best < 0 || distance < best)) {
+                best = distance;
+            }
+        }
+        return best;
+    }
+
+    // Edit-distance row after appending c to a path ending in last. Adjacent transpositions
+    // count as one edit, since swapped letters are the most common typing slip.
+    private static int[] nextRow(int[] beforeLast, int[] current, String word, char last, char c) {
+        int[] row = new int[current.length];
+        row[0] = current[0] + 1;
+        for (int j = 1; j < row.length; j++) {
+            int substitution = current[j - 1] + (word.charAt(j - 1) == c ? 0 : 1);
+            row[j] = Math.min(substitution, Math.min(current[j] + 1, row[j - 1] + 1));
+            if (beforeLast != null && j > 1 && word.charAt(j - 1) == last && word.charAt(j - 2) == c) {
+                row[j] = Math.min(row[j], beforeLast[j - 2] + 1);
+            }
+        }
+        return row;
+    }
+
+    private void add(Long userId, Role role, String firstName, String lastName) {
+        if (role != Role.PATIENT && role != Role.DOCTOR) {
+            return;
+        }
+        String[] names = tokens((firstName == null ? "" : firstName) + " " + (lastName == null ? "" : lastName));
+        entriesByUser.put(userId, new Entry(role, names));
+        Node root = roots.computeIfAbsent(role, r -> new Node());
+        for (String name : names) {
+            Node node = root;
+            for (int i = 0; i < name.length(); i++) {
+                node = node.childFor(name.charAt(i));
+            }
+            node.addUser(userId);
+        }
+    }
+
+    private void remove(Long userId, Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        entriesByUser.remove(userId);
+        Node root = roots.get(entry.role);
+        for (String name : entry.tokens) {
+            Node node = root;
+            for (int i = 0; i < name.length() && node != null; i++) {
+                node = node.child(name.charAt(i));
+            }
+            if (node != null) {
+                node.removeUser(userId);
+            }
+        }
+    }
+
+    private static String[] tokens(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private record Entry(Role role, String[] tokens) {
+    }
+
+    private record Match(Node node, int distance, int depth) {
+    }
+
+    // Children are kept in parallel arrays sorted by character; emptied branches are left in
+    // place until the next rebuild()
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        // Sorted user ids of names ending at this node
+        private long[] users;
+        private int userCount;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node childFor(char c) {
+            int i = Arrays.binarySearch(keys, 0, childCount, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            i = -i - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, i, keys, i + 1, childCount - i);
+            System.arraycopy(children, i, children, i + 1, childCount - i);
+            keys[i] = c;
+            children[i] = new Node();
+            childCount++;
+            return children[i];
+        }
+
+        void addUser(long userId) {
+            if (users == null) {
+                users = new long[1];
+            }
+            int i = Arrays.binarySearch(users, 0, userCount, userId);
+            if (i >= 0) {
+                return;
+            }
+            i = -i - 1;
+            if (userCount == users.length) {
+                users = Arrays.copyOf(users, userCount * 2);
+            }
+            System.arraycopy(users, i, users, i + 1, userCount - i);
+            users[i] = userId;
+            userCount++;
+        }
+
+        void removeUser(long userId) {
+            int i = userCount == 0 ? -1 : Arrays.binarySearch(users, 0, userCount, userId);
+            if (i >= 0) {
+                System.arraycopy(users, i + 1, users, i, userCount - i - 1);
+                userCount--;
+            }
+        }
+    }
+}
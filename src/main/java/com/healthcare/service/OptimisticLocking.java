@@ -0,0 +1,65 @@
+package com.healthcare.service;
+
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Helpers for @Version-guarded read-modify-save updates
+public final class OptimisticLocking {
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long BASE_BACKOFF_MILLIS = 20;
+
+    private OptimisticLocking() {}
+
+    // Re-runs the whole read-modify-save when another writer got in between our read and
+    // our save. Gives up after a few attempts with jittered exponential backoff. Only for
+    // deltas (a status change, a merge patch) that still mean the same thing on the newer row.
+    public static <T> T retry(Supplier<T> update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return update.get();
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw new VersionConflictException("Concurrent update, giving up after " + attempt + " attempts", e);
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    // A full replacement carries every field as the client last saw it, so replaying it over
+    // a newer row would silently undo the other write; a lost race is reported, not retried
+    public static <T> T once(Supplier<T> update) {
+        try {
+            return update.get();
+        } catch (OptimisticLockingFailureException e) {
+            throw new VersionConflictException("Concurrent update", e);
+        }
+    }
+
+    // The client must send the version it last read and still be editing the current one;
+    // those conflicts are not retried since the client has to see the newer state first
+    public static void checkVersion(Long expectedVersion, Long currentVersion) {
+        if (expectedVersion == null) {
+            throw new VersionRequiredException("Version is required");
+        }
+        if (!Objects.equals(expectedVersion, currentVersion)) {
+            throw new VersionConflictException("Stale version " + expectedVersion, currentVersion);
+        }
+    }
+
+    private static void backoff(int attempt) {
+        long ceiling = BASE_BACKOFF_MILLIS << (attempt - 1);
+        try {
+            Thread.sleep(ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new VersionConflictException("Interrupted while retrying update", e);
+        }
+    }
+}
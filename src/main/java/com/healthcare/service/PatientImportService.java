@@ -0,0 +1,375 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.AuditEntryDto;
+import com.healthcare.dto.ImportReport;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.dto.UserDto;
+import com.healthcare.model.Patient;
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Streams a CSV or NDJSON file of patients and writes it in chunks. Rows are parsed and
+// validated one at a time as they arrive; each valid chunk has its passwords encoded across
+// the hashing pool and is inserted as JDBC batches in a single transaction. A chunk that
+// fails to insert is retried row by row, so one bad row never sinks its neighbours.
+@Service
+public class PatientImportService {
+
+    // Columns accepted in a CSV header, in any order; only the first five are required
+    private static final List<String> CSV_COLUMNS = List.of("username", "email", "password", "firstname", "lastname",
+            "phonenumber", "dateofbirth", "gender", "address", "emergencycontact", "bloodgroup", "allergies",
+            "medicalhistory");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private BusinessIdAllocator businessIdAllocator;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${patients.import.chunk-size:500}")
+    private int chunkSize;
+
+    public ImportReport importCsv(InputStream input) throws IOException {
+        BufferedReader reader = reader(input);
+        String header = reader.readLine();
+        if (header == null) {
+            return new ImportReport();
+        }
+        List<String> columns = parseCsvLine(header).stream()
+                .map(column -> column.trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        for (String column : columns) {
+            if (!CSV_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Unknown column: " + column);
+            }
+        }
+
+        int[] rowNumber = {0};
+        return importRows(() -> {
+            String line;
+            while ((line = reader.readLine()) != null && line.isBlank()) {
+                rowNumber[0]++;
+            }
+            if (line == null) {
+                return null;
+            }
+            rowNumber[0]++;
+            List<String> values = parseCsvLine(line);
+            if (values.size() != columns.size()) {
+                return ImportRow.invalid(rowNumber[0], "Expected " + columns.size() + " columns but found " + values.size());
+            }
+            try {
+                return new ImportRow(rowNumber[0], fromCsv(columns, values), null);
+            } catch (DateTimeParseException e) {
+                return ImportRow.invalid(rowNumber[0], "Invalid dateOfBirth, expected yyyy-MM-dd");
+            }
+        });
+    }
+
+    public ImportReport importNdjson(InputStream input) throws IOException {
+        BufferedReader reader = reader(input);
+        int[] rowNumber = {0};
+        return importRows(() -> {
+            String line;
+            while ((line = reader.readLine()) != null && line.isBlank()) {
+                rowNumber[0]++;
+            }
+            if (line == null) {
+                return null;
+            }
+            rowNumber[0]++;
+            try {
+                PatientDto patient = objectMapper.readValue(line, PatientDto.class);
+                return patient != null
+                        ? new ImportRow(rowNumber[0], patient, null)
+                        : ImportRow.invalid(rowNumber[0], "Expected a JSON object");
+            } catch (JsonProcessingException e) {
+                return ImportRow.invalid(rowNumber[0], "Malformed JSON: " + e.getOriginalMessage());
+            }
+        });
+    }
+
+    private ImportReport importRows(RowReader rows) throws IOException {
+        ImportReport report = new ImportReport();
+        // Usernames and emails are unique case-insensitively under the default MySQL collation
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+
+        ImportRow row;
+        while ((row = rows.next()) != null) {
+            String error = row.error() != null ? row.error() : validate(row.patient());
+            if (error == null && !usernames.add(row.patient().getUser().getUsername().toLowerCase(Locale.ROOT))) {
+                error = "Duplicate username in file";
+            }
+            if (error == null && !emails.add(row.patient().getUser().getEmail().toLowerCase(Locale.ROOT))) {
+                error = "Duplicate email in file";
+            }
+            if (error != null) {
+                report.addError(row.number(), error);
+                continue;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                writeChunk(chunk, report);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+        report.getErrors().sort(Comparator.comparingInt(ImportReport.RowError::getRow));
+        return report;
+    }
+
+    private void writeChunk(List<ImportRow> chunk, ImportReport report) {
+        Set<String> takenUsernames = lowerCase(userRepository.findExistingUsernames(
+                chunk.stream().map(r -> r.patient().getUser().getUsername()).collect(Collectors.toList())));
+        Set<String> takenEmails = lowerCase(userRepository.findExistingEmails(
+                chunk.stream().map(r -> r.patient().getUser().getEmail()).collect(Collectors.toList())));
+
+        List<ImportRow> accepted = new ArrayList<>(chunk.size());
+        for (ImportRow row : chunk) {
+            UserDto user = row.patient().getUser();
+            if (takenUsernames.contains(user.getUsername().toLowerCase(Locale.ROOT))) {
+                report.addError(row.number(), "Username already exists");
+            } else if (takenEmails.contains(user.getEmail().toLowerCase(Locale.ROOT))) {
+                report.addError(row.number(), "Email already exists");
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<String> encodedPasswords = passwordHashingService.encodeAll(accepted.stream()
+                .map(r -> r.patient().getUser().getPassword())
+                .collect(Collectors.toList()));
+
+        try {
+            insert(accepted, encodedPasswords);
+            report.addImported(accepted.size());
+        } catch (RuntimeException e) {
+            entityManager.clear();
+            // Something in the chunk clashed (most likely a concurrent registration); isolate it
+            for (int i = 0; i < accepted.size(); i++) {
+                ImportRow row = accepted.get(i);
+                try {
+                    insert(List.of(row), List.of(encodedPasswords.get(i)));
+                    report.addImported(1);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    entityManager.clear();
+                    report.addError(row.number(), "Username or email already exists");
+                } catch (RuntimeException rowFailure) {
+                    entityManager.clear();
+                    report.addError(row.number(), "Could not be saved: " + rowFailure.getMessage());
+                }
+            }
+        }
+    }
+
+    private void insert(List<ImportRow> rows, List<String> encodedPasswords) {
+        List<User> users = new ArrayList<>(rows.size());
+        List<Patient> patients = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            User user = toUser(rows.get(i).patient().getUser(), encodedPasswords.get(i));
+            users.add(user);
+            patients.add(toPatient(rows.get(i).patient(), user));
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.saveAll(users);
+            patientRepository.saveAll(patients);
+        });
+        // The request-scoped persistence context would otherwise keep every imported row managed
+        entityManager.clear();
+
+        for (User user : users) {
+            nameIndex.put(user);
+            dashboardService.recordUserCreated(Role.PATIENT);
+            dashboardService.recordPatientCreated();
+        }
+        for (Patient patient : patients) {
+            auditService.record(AuditEntryDto.EntityType.PATIENT, patient.getId(), patient.getId(),
+                    null, auditService.snapshot(patient));
+        }
+    }
+
+    private User toUser(UserDto userDto, String encodedPassword) {
+        User user = new User();
+        user.setUsername(userDto.getUsername());
+        user.setEmail(userDto.getEmail());
+        user.setPassword(encodedPassword);
+        user.setFirstName(userDto.getFirstName());
+        user.setLastName(userDto.getLastName());
+        user.setPhoneNumber(userDto.getPhoneNumber());
+        user.setRole(Role.PATIENT);
+        user.setActive(true);
+        return user;
+    }
+
+    private Patient toPatient(PatientDto patientDto, User user) {
+        Patient patient = new Patient();
+        patient.setUser(user);
+        patient.setPatientId(businessIdAllocator.nextPatientId());
+        patient.setDateOfBirth(patientDto.getDateOfBirth());
+        patient.setGender(patientDto.getGender());
+        patient.setAddress(patientDto.getAddress());
+        patient.setEmergencyContact(patientDto.getEmergencyContact());
+        patient.setBloodGroup(patientDto.getBloodGroup());
+        patient.setAllergies(patientDto.getAllergies());
+        patient.setMedicalHistory(patientDto.getMedicalHistory());
+        return patient;
+    }
+
+    private String validate(PatientDto patient) {
+        UserDto user = patient.getUser();
+        if (user == null) {
+            return "Missing user details";
+        }
+        if (isBlank(user.getUsername())) {
+            return "username is required";
+        }
+        if (isBlank(user.getEmail()) || !user.getEmail().contains("@")) {
+            return "A valid email is required";
+        }
+        if (isBlank(user.getPassword())) {
+            return "password is required";
+        }
+        if (isBlank(user.getFirstName()) || isBlank(user.getLastName())) {
+            return "firstName and lastName are required";
+        }
+        if (patient.getDateOfBirth() != null && patient.getDateOfBirth().isAfter(LocalDate.now())) {
+            return "dateOfBirth is in the future";
+        }
+        return null;
+    }
+
+    private PatientDto fromCsv(List<String> columns, List<String> values) {
+        PatientDto patient = new PatientDto();
+        UserDto user = new UserDto();
+        patient.setUser(user);
+        for (int i = 0; i < columns.size(); i++) {
+            String value = values.get(i).isEmpty() ? null : values.get(i);
+            switch (columns.get(i)) {
+                case "username" -> user.setUsername(value);
+                case "email" -> user.setEmail(value);
+                case "password" -> user.setPassword(value);
+                case "firstname" -> user.setFirstName(value);
+                case "lastname" -> user.setLastName(value);
+                case "phonenumber" -> user.setPhoneNumber(value);
+                case "dateofbirth" -> patient.setDateOfBirth(value != null ? LocalDate.parse(value) : null);
+                case "gender" -> patient.setGender(value);
+                case "address" -> patient.setAddress(value);
+                case "emergencycontact" -> patient.setEmergencyContact(value);
+                case "bloodgroup" -> patient.setBloodGroup(value);
+                case "allergies" -> patient.setAllergies(value);
+                case "medicalhistory" -> patient.setMedicalHistory(value);
+                default -> throw new IllegalArgumentException("Unknown column: " + columns.get(i));
+            }
+        }
+        return patient;
+    }
+
+    // RFC 4180 fields on a single line: commas separate, quotes wrap, "" is a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static BufferedReader reader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    private static Set<String> lowerCase(List<String> values) {
+        return values.stream().map(v -> v.toLowerCase(Locale.ROOT)).collect(Collectors.toSet());
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private interface RowReader {
+        ImportRow next() throws IOException;
+    }
+
+    private record ImportRow(int number, PatientDto patient, String error) {
+        static ImportRow invalid(int number, String error) {
+            return new ImportRow(number, null, error);
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.AuditEntryDto;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.PatientDto;
 import com.healthcare.dto.UserDto;
 import com.healthcare.model.Patient;
 import com.healthcare.model.User;
 import com.healthcare.model.Role;
+import com.healthcare.repository.ProjectionRepository;
 import com.healthcare.repository.PatientRepository;
 import com.healthcare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class PatientService {
 
+    private static final Set<String> PATCHABLE = Set.of(
+            "version", "dateOfBirth", "gender", "address", "emergencyContact", "bloodGroup",
+            "allergies", "medicalHistory",
+            "user.version", "user.firstName", "user.lastName", "user.email", "user.phoneNumber");
+
     @Autowired
     private PatientRepository patientRepository;
 
@@ -25,16 +42,83 @@ public class PatientService {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private NameIndex nameIndex;
 
-    public List<PatientDto> getAllPatients() {
-        return patientRepository.findAll().stream()
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private BusinessIdAllocator businessIdAllocator;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private MergePatch mergePatch;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${batch.max-ids:100}")
+    private int maxBatchIds;
+
+    public List<PatientDto> getRecentPatients() {
+        return patientRepository.findTop5ByOrderByIdDesc().stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
 
-    public List<PatientDto> getActivePatients() {
-        return patientRepository.findActivePatients().stream()
+    public CursorPage<PatientDto> getPatients(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Patient> slice = after == null
+                ? patientRepository.findFirstPage(pageable)
+                : patientRepository.findPageAfter(after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
+
+    // With a sparse fieldset only the selected columns are read, joining users only when asked for
+    public CursorPage<PatientDto> getPatients(FieldSelection fields, String cursor, int size) {
+        if (fields.isAll()) {
+            return getPatients(cursor, size);
+        }
+        return Projections.PATIENT.page(projectionRepository, fields, Map.of(), false, cursor, size);
+    }
+
+    public CursorPage<PatientDto> getActivePatients(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<Patient> slice = after == null
+                ? patientRepository.findFirstActivePage(pageable)
+                : patientRepository.findActivePageAfter(after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
+
+    public CursorPage<PatientDto> getActivePatients(FieldSelection fields, String cursor, int size) {
+        if (fields.isAll()) {
+            return getActivePatients(cursor, size);
+        }
+        return Projections.PATIENT.page(projectionRepository, fields, Map.of("user.active", true), false, cursor, size);
+    }
+
+    // Matching users come from the in-memory name index; only the returned patients are loaded
+    public List<PatientDto> searchPatientsByName(String name, int size) {
+        int limit = Math.max(1, Math.min(size, PageCursor.MAX_PAGE_SIZE));
+        List<Long> userIds = nameIndex.search(Role.PATIENT, name, limit);
+        if (userIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Patient> patientsByUser = patientRepository.findByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(patient -> patient.getUser().getId(), Function.identity()));
+        return userIds.stream()
+                .map(patientsByUser::get)
+                .filter(Objects::nonNull)
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
@@ -44,6 +128,23 @@ public class PatientService {
                 .map(this::convertToDto);
     }
 
+    // One IN query for a screen's worth of patients instead of a GET per id
+    public Map<Long, BatchEntry<PatientDto>> getPatientsByIds(List<Long> ids) {
+        Set<Long> distinct = BatchIds.distinct(ids, maxBatchIds);
+        return BatchEntry.mapOf(distinct, patientRepository.findAllWithUserByIdIn(distinct), Patient::getId, this::convertToDto);
+    }
+
+    // Validators for conditional GETs, read without loading the patient
+    public Optional<ResourceVersion> getPatientVersion(Long id) {
+        return patientRepository.findVersionStampById(id)
+                .map(stamp -> ResourceVersion.of("patient", id, stamp));
+    }
+
+    public ResourceVersion getPatientsVersion() {
+        return ResourceVersion.ofCollection("patients", patientRepository.findCollectionStamp(),
+                userRepository.findLastUpdatedAt());
+    }
+
     public Optional<PatientDto> getPatientByPatientId(String patientId) {
         return patientRepository.findByPatientId(patientId)
                 .map(this::convertToDto);
@@ -54,7 +155,7 @@ public class PatientService {
         User user = new User();
         user.setUsername(patientDto.getUser().getUsername());
         user.setEmail(patientDto.getUser().getEmail());
-        user.setPassword(passwordEncoder.encode(patientDto.getUser().getPassword()));
+        user.setPassword(passwordHashingService.encode(patientDto.getUser().getPassword()));
         user.setFirstName(patientDto.getUser().getFirstName());
         user.setLastName(patientDto.getUser().getLastName());
         user.setPhoneNumber(patientDto.getUser().getPhoneNumber());
@@ -66,7 +167,7 @@ public class PatientService {
         // Create patient
         Patient patient = new Patient();
         patient.setUser(savedUser);
-        patient.setPatientId(generatePatientId());
+        patient.setPatientId(businessIdAllocator.nextPatientId());
         patient.setDateOfBirth(patientDto.getDateOfBirth());
         patient.setGender(patientDto.getGender());
         patient.setAddress(patientDto.getAddress());
@@ -76,16 +177,42 @@ public class PatientService {
         patient.setMedicalHistory(patientDto.getMedicalHistory());
 
         Patient savedPatient = patientRepository.save(patient);
+        nameIndex.put(savedUser);
+        dashboardService.recordUserCreated(Role.PATIENT);
+        dashboardService.recordPatientCreated();
+        auditService.record(AuditEntryDto.EntityType.PATIENT, savedPatient.getId(), savedPatient.getId(),
+                null, auditService.snapshot(savedPatient));
         return convertToDto(savedPatient);
     }
 
     public PatientDto updatePatient(Long id, PatientDto patientDto) {
+        return OptimisticLocking.once(() -> applyPatientUpdate(id, patientDto));
+    }
+
+    // JSON merge patch: the current state with the patch laid over it goes through the same
+    // update as PUT, in one transaction, so the patient and user rows get at most one UPDATE
+    // each and only for the columns whose values differ
+    public PatientDto patchPatient(Long id, JsonNode patch) {
+        return OptimisticLocking.retry(() -> transactionTemplate.execute(status -> {
+            Patient patient = patientRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Patient not found"));
+            applyPatientUpdate(id, mergePatch.apply(convertToDto(patient), patch, PATCHABLE));
+            // Flushed before converting so the response carries the incremented versions
+            patientRepository.flush();
+            return convertToDto(patient);
+        }));
+    }
+
+    private PatientDto applyPatientUpdate(Long id, PatientDto patientDto) {
         Optional<Patient> existingPatient = patientRepository.findById(id);
         if (existingPatient.isEmpty()) {
             throw new RuntimeException("Patient not found");
         }
 
         Patient patient = existingPatient.get();
+        OptimisticLocking.checkVersion(patientDto.getVersion(), patient.getVersion());
+        OptimisticLocking.checkVersion(patientDto.getUser().getVersion(), patient.getUser().getVersion());
+        Map<String, String> before = auditService.snapshot(patient);
         patient.setDateOfBirth(patientDto.getDateOfBirth());
         patient.setGender(patientDto.getGender());
         patient.setAddress(patientDto.getAddress());
@@ -103,6 +230,11 @@ public class PatientService {
 
         userRepository.save(user);
         Patient updatedPatient = patientRepository.save(patient);
+        Map<String, String> after = auditService.snapshot(updatedPatient);
+        AfterCommit.run(() -> {
+            nameIndex.put(user);
+            auditService.record(AuditEntryDto.EntityType.PATIENT, id, id, before, after);
+        });
         return convertToDto(updatedPatient);
     }
 
@@ -113,17 +245,22 @@ public class PatientService {
             User user = patient.getUser();
             patientRepository.deleteById(id);
             userRepository.deleteById(user.getId());
+            nameIndex.remove(user.getId());
+            dashboardService.recordPatientDeleted();
+            dashboardService.recordUserDeleted(user.getRole());
+            auditService.record(AuditEntryDto.EntityType.PATIENT, id, id, auditService.snapshot(patient), null);
         }
     }
 
-    private String generatePatientId() {
-        long count = patientRepository.count();
-        return "P" + String.format("%06d", count + 1);
+    private CursorPage<PatientDto> toPage(Slice<Patient> slice) {
+        return CursorPage.of(slice, this::convertToDto,
+                p -> PageCursor.encode(p.getCreatedAt(), p.getId()));
     }
 
-    private PatientDto convertToDto(Patient patient) {
+    PatientDto convertToDto(Patient patient) {
         PatientDto patientDto = new PatientDto();
         patientDto.setId(patient.getId());
+        patientDto.setVersion(patient.getVersion());
         patientDto.setPatientId(patient.getPatientId());
         patientDto.setDateOfBirth(patient.getDateOfBirth());
         patientDto.setGender(patient.getGender());
@@ -143,6 +280,7 @@ public class PatientService {
         userDto.setPhoneNumber(patient.getUser().getPhoneNumber());
         userDto.setRole(patient.getUser().getRole());
         userDto.setActive(patient.getUser().getActive());
+        userDto.setVersion(patient.getUser().getVersion());
 
         patientDto.setUser(userDto);
         return patientDto;
@@ -0,0 +1,106 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.CursorPage;
+import com.healthcare.repository.ProjectionRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// The selectable properties of a DTO and the entity attributes each one is read from, so a
+// sparse fieldset can be served by a query that selects only the columns behind it
+public final class Projection<D> {
+
+    private final Class<?> entityType;
+    private final String sortAttribute;
+    private final Supplier<D> factory;
+    private final List<Field<D>> fields = new ArrayList<>();
+    // Property paths and their parents, e.g. "user.firstName" and "user"
+    private final Set<String> names = new LinkedHashSet<>();
+
+    private record Field<D>(String name, List<String> paths, BiConsumer<D, Object[]> setter) {}
+
+    Projection(Class<?> entityType, String sortAttribute, Supplier<D> factory) {
+        this.entityType = entityType;
+        this.sortAttribute = sortAttribute;
+        this.factory = factory;
+    }
+
+    @SuppressWarnings("unchecked")
+    <T> Projection<D> field(String name, String path, BiConsumer<D, T> setter) {
+        return field(name, List.of(path), (dto, values) -> setter.accept(dto, (T) values[0]));
+    }
+
+    // A property computed from several columns
+    Projection<D> field(String name, List<String> paths, BiConsumer<D, Object[]> setter) {
+        fields.add(new Field<>(name, paths, setter));
+        for (int dot = name.indexOf('.'); dot > 0; dot = name.indexOf('.', dot + 1)) {
+            names.add(name.substring(0, dot));
+        }
+        names.add(name);
+        return this;
+    }
+
+    // A nested DTO read through an association, e.g. the UserDto of a PatientDto
+    <C> Projection<D> nested(String name, String association, Function<D, C> child, Projection<C> projection) {
+        for (Field<C> field : projection.fields) {
+            List<String> paths = field.paths().stream()
+                    .map(path -> association + "." + path)
+                    .toList();
+            field(name + "." + field.name(), paths, (dto, values) -> field.setter().accept(child.apply(dto), values));
+        }
+        return this;
+    }
+
+    public Set<String> names() {
+        return Collections.unmodifiableSet(names);
+    }
+
+    CursorPage<D> page(ProjectionRepository repository, FieldSelection selection, Map<String, Object> filters,
+                       boolean descending, String cursor, int size) {
+        PageCursor position = PageCursor.decode(cursor);
+        int limit = PageCursor.limit(size).getPageSize();
+
+        List<Field<D>> selected = fields.stream()
+                .filter(field -> selection.includes(field.name()))
+                .toList();
+        List<String> paths = new ArrayList<>();
+        selected.forEach(field -> paths.addAll(field.paths()));
+
+        // One extra row tells whether there is a next page
+        List<Object[]> rows = repository.findPage(entityType, paths, filters, sortAttribute, descending,
+                position != null ? position.getTimestamp() : null,
+                position != null ? position.getId() : null,
+                limit + 1);
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+
+        List<D> items = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            D dto = factory.get();
+            int column = 0;
+            for (Field<D> field : selected) {
+                int width = field.paths().size();
+                field.setter().accept(dto, Arrays.copyOfRange(row, column, column + width));
+                column += width;
+            }
+            items.add(dto);
+        }
+        String nextCursor = null;
+        if (hasMore && !rows.isEmpty()) {
+            Object[] last = rows.get(rows.size() - 1);
+            nextCursor = PageCursor.encode((LocalDateTime) last[paths.size()], (Long) last[paths.size() + 1]);
+        }
+        return new CursorPage<>(items, nextCursor, hasMore);
+    }
+}
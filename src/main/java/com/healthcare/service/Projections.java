@@ -0,0 +1,120 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.DoctorDto;
+import com.healthcare.dto.MedicalRecordDto;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.dto.UserDto;
+import com.healthcare.model.Appointment;
+import com.healthcare.model.Doctor;
+import com.healthcare.model.MedicalRecord;
+import com.healthcare.model.Patient;
+import com.healthcare.model.User;
+
+import java.util.List;
+import java.util.Map;
+
+// Column mappings for sparse fieldsets, mirroring the services' convertToDto methods. The
+// password is deliberately not selectable.
+public final class Projections {
+
+    public static final Projection<UserDto> USER = new Projection<>(User.class, "createdAt", UserDto::new)
+            .field("id", "id", UserDto::setId)
+            .field("username", "username", UserDto::setUsername)
+            .field("email", "email", UserDto::setEmail)
+            .field("firstName", "firstName", UserDto::setFirstName)
+            .field("lastName", "lastName", UserDto::setLastName)
+            .field("phoneNumber", "phoneNumber", UserDto::setPhoneNumber)
+            .field("role", "role", UserDto::setRole)
+            .field("active", "active", UserDto::setActive)
+            .field("version", "version", UserDto::setVersion);
+
+    public static final Projection<PatientDto> PATIENT = new Projection<>(Patient.class, "createdAt", PatientDto::new)
+            .field("id", "id", PatientDto::setId)
+            .field("version", "version", PatientDto::setVersion)
+            .field("patientId", "patientId", PatientDto::setPatientId)
+            .field("dateOfBirth", "dateOfBirth", PatientDto::setDateOfBirth)
+            .field("gender", "gender", PatientDto::setGender)
+            .field("address", "address", PatientDto::setAddress)
+            .field("emergencyContact", "emergencyContact", PatientDto::setEmergencyContact)
+            .field("bloodGroup", "bloodGroup", PatientDto::setBloodGroup)
+            .field("allergies", "allergies", PatientDto::setAllergies)
+            .field("medicalHistory", "medicalHistory", PatientDto::setMedicalHistory)
+            .nested("user", "user", Projections::userOf, USER);
+
+    public static final Projection<DoctorDto> DOCTOR = new Projection<>(Doctor.class, "createdAt", DoctorDto::new)
+            .field("id", "id", DoctorDto::setId)
+            .field("version", "version", DoctorDto::setVersion)
+            .field("doctorId", "doctorId", DoctorDto::setDoctorId)
+            .field("specialization", "specialization", DoctorDto::setSpecialization)
+            .field("qualification", "qualification", DoctorDto::setQualification)
+            .field("experience", "experience", DoctorDto::setExperience)
+            .field("department", "department", DoctorDto::setDepartment)
+            .field("consultationFee", "consultationFee", DoctorDto::setConsultationFee)
+            .field("workingHours", "workingHours", DoctorDto::setWorkingHours)
+            .field("available", "available", DoctorDto::setAvailable)
+            .nested("user", "user", Projections::userOf, USER);
+
+    public static final Projection<AppointmentDto> APPOINTMENT =
+            new Projection<>(Appointment.class, "appointmentDateTime", AppointmentDto::new)
+            .field("id", "id", AppointmentDto::setId)
+            .field("version", "version", AppointmentDto::setVersion)
+            .field("patientId", "patient.id", AppointmentDto::setPatientId)
+            .field("doctorId", "doctor.id", AppointmentDto::setDoctorId)
+            .field("patientName", List.of("patient.user.firstName", "patient.user.lastName"),
+                    (dto, name) -> dto.setPatientName(name[0] + " " + name[1]))
+            .field("doctorName", List.of("doctor.user.firstName", "doctor.user.lastName"),
+                    (dto, name) -> dto.setDoctorName(name[0] + " " + name[1]))
+            .field("appointmentDateTime", "appointmentDateTime", AppointmentDto::setAppointmentDateTime)
+            .field("reason", "reason", AppointmentDto::setReason)
+            .field("status", "status", AppointmentDto::setStatus)
+            .field("notes", "notes", AppointmentDto::setNotes)
+            .field("prescription", "prescription", AppointmentDto::setPrescription);
+
+    public static final Projection<MedicalRecordDto> MEDICAL_RECORD =
+            new Projection<>(MedicalRecord.class, "visitDate", MedicalRecordDto::new)
+            .field("id", "id", MedicalRecordDto::setId)
+            .field("version", "version", MedicalRecordDto::setVersion)
+            .field("patientId", "patient.id", MedicalRecordDto::setPatientId)
+            .field("doctorId", "doctor.id", MedicalRecordDto::setDoctorId)
+            .field("appointmentId", "appointment.id", MedicalRecordDto::setAppointmentId)
+            .field("patientName", List.of("patient.user.firstName", "patient.user.lastName"),
+                    (dto, name) -> dto.setPatientName(name[0] + " " + name[1]))
+            .field("doctorName", List.of("doctor.user.firstName", "doctor.user.lastName"),
+                    (dto, name) -> dto.setDoctorName(name[0] + " " + name[1]))
+            .field("diagnosis", "diagnosis", MedicalRecordDto::setDiagnosis)
+            .field("symptoms", "symptoms", MedicalRecordDto::setSymptoms)
+            .field("treatment", "treatment", MedicalRecordDto::setTreatment)
+            .field("prescription", "prescription", MedicalRecordDto::setPrescription)
+            .field("testResults", "testResults", MedicalRecordDto::setTestResults)
+            .field("notes", "notes", MedicalRecordDto::setNotes)
+            .field("visitDate", "visitDate", MedicalRecordDto::setVisitDate);
+
+    private static final Map<Class<?>, Projection<?>> BY_DTO = Map.of(
+            UserDto.class, USER,
+            PatientDto.class, PATIENT,
+            DoctorDto.class, DOCTOR,
+            AppointmentDto.class, APPOINTMENT,
+            MedicalRecordDto.class, MEDICAL_RECORD);
+
+    private Projections() {}
+
+    // The projection whose fields a response of this DTO type can be trimmed to, or null
+    public static Projection<?> forDto(Class<?> dtoType) {
+        return BY_DTO.get(dtoType);
+    }
+
+    private static UserDto userOf(PatientDto patient) {
+        if (patient.getUser() == null) {
+            patient.setUser(new UserDto());
+        }
+        return patient.getUser();
+    }
+
+    private static UserDto userOf(DoctorDto doctor) {
+        if (doctor.getUser() == null) {
+            doctor.setUser(new UserDto());
+        }
+        return doctor.getUser();
+    }
+}
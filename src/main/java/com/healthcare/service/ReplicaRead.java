@@ -0,0 +1,19 @@
+package com.healthcare.service;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a public service method that only reads and tolerates data a few seconds old. When a
+// read replica is configured the method runs in a read-only transaction on it, unless the
+// replica is lagging or the caller has just written (see ReadReplicaConfig). Never put it on a
+// method that writes, or on a read whose result is compared against the primary.
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReplicaRead {
+
+    // Re-run on the primary if the replica connection fails; turn off for methods that have
+    // already produced output by the time a failure can surface
+    boolean retryOnPrimary() default true;
+}
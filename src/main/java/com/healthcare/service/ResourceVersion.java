@@ -0,0 +1,37 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.CollectionStamp;
+import com.healthcare.repository.VersionStamp;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Validator for a conditional GET: a tag that changes whenever the representation does, and
+// when it last changed. Read with a projection query instead of loading the entity graph.
+public record ResourceVersion(String tag, LocalDateTime lastModified) {
+
+    static ResourceVersion of(String type, Long id, VersionStamp stamp) {
+        return new ResourceVersion(tag(type, id, stamp.getVersion()), stamp.getUpdatedAt());
+    }
+
+    // From versions already in hand, e.g. a cached DTO; the DTOs carry no updatedAt
+    static ResourceVersion of(String type, Long id, long version) {
+        return new ResourceVersion(tag(type, id, version), null);
+    }
+
+    private static String tag(String type, Long id, long version) {
+        return type + "-" + id + "-" + version;
+    }
+
+    // No last-modified time for collections: a delete changes the list but not the latest
+    // updatedAt, so If-Modified-Since would wrongly answer 304
+    static ResourceVersion ofCollection(String type, CollectionStamp stamp, LocalDateTime usersUpdatedAt) {
+        return new ResourceVersion(type + "-" + stamp.getCount() + "-" + micros(stamp.getUpdatedAt())
+                + "-" + micros(usersUpdatedAt), null);
+    }
+
+    // Full column precision, so two changes within the same millisecond still differ
+    private static long micros(LocalDateTime time) {
+        return time == null ? 0 : time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+}
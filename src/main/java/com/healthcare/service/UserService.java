@@ -1,36 +1,85 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.BatchEntry;
+import com.healthcare.dto.CursorPage;
 import com.healthcare.dto.UserDto;
 import com.healthcare.model.User;
 import com.healthcare.model.Role;
+import com.healthcare.repository.ProjectionRepository;
 import com.healthcare.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @Service
 public class UserService {
 
+    private static final Set<String> PATCHABLE = Set.of(
+            "version", "firstName", "lastName", "email", "phoneNumber", "active", "password");
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private NameIndex nameIndex;
+
+    @Autowired
+    private DoctorService doctorService;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private MergePatch mergePatch;
+
+    @Value("${batch.max-ids:100}")
+    private int maxBatchIds;
+
+    public CursorPage<UserDto> getUsers(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<User> slice = after == null
+                ? userRepository.findFirstPage(pageable)
+                : userRepository.findPageAfter(after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
+    }
 
-    public List<UserDto> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    // Reads only the requested columns when the client sent fields=
+    public CursorPage<UserDto> getUsers(FieldSelection fields, String cursor, int size) {
+        if (fields.isAll()) {
+            return getUsers(cursor, size);
+        }
+        return Projections.USER.page(projectionRepository, fields, Map.of(), false, cursor, size);
+    }
+
+    public CursorPage<UserDto> getUsersByRole(Role role, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        Pageable pageable = PageCursor.limit(size);
+        Slice<User> slice = after == null
+                ? userRepository.findFirstPageByRole(role, pageable)
+                : userRepository.findPageByRoleAfter(role, after.getTimestamp(), after.getId(), pageable);
+        return toPage(slice);
     }
 
-    public List<UserDto> getUsersByRole(Role role) {
-        return userRepository.findByRole(role).stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPage<UserDto> getUsersByRole(FieldSelection fields, Role role, String cursor, int size) {
+        if (fields.isAll()) {
+            return getUsersByRole(role, cursor, size);
+        }
+        return Projections.USER.page(projectionRepository, fields, Map.of("role", role), false, cursor, size);
     }
 
     public Optional<UserDto> getUserById(Long id) {
@@ -38,6 +87,12 @@ public class UserService {
                 .map(this::convertToDto);
     }
 
+    // findAllById is already a single IN query; users have no associations to fetch
+    public Map<Long, BatchEntry<UserDto>> getUsersByIds(List<Long> ids) {
+        Set<Long> distinct = BatchIds.distinct(ids, maxBatchIds);
+        return BatchEntry.mapOf(distinct, userRepository.findAllById(distinct), User::getId, this::convertToDto);
+    }
+
     public UserDto createUser(UserDto userDto) {
         if (userRepository.existsByUsername(userDto.getUsername())) {
             throw new RuntimeException("Username already exists");
@@ -47,18 +102,35 @@ public class UserService {
         }
 
         User user = convertToEntity(userDto);
-        user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+        user.setPassword(passwordHashingService.encode(userDto.getPassword()));
         User savedUser = userRepository.save(user);
+        nameIndex.put(savedUser);
+        dashboardService.recordUserCreated(savedUser.getRole());
         return convertToDto(savedUser);
     }
 
     public UserDto updateUser(Long id, UserDto userDto) {
+        return OptimisticLocking.once(() -> applyUserUpdate(id, userDto));
+    }
+
+    // Merge patch over the user's current DTO. One row, so save() commits it on its own and no
+    // transaction is held open while a new password is hashed.
+    public UserDto patchUser(Long id, JsonNode patch) {
+        return OptimisticLocking.retry(() -> {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+            return applyUserUpdate(id, mergePatch.apply(convertToDto(user), patch, PATCHABLE));
+        });
+    }
+
+    private UserDto applyUserUpdate(Long id, UserDto userDto) {
         Optional<User> existingUser = userRepository.findById(id);
         if (existingUser.isEmpty()) {
             throw new RuntimeException("User not found");
         }
 
         User user = existingUser.get();
+        OptimisticLocking.checkVersion(userDto.getVersion(), user.getVersion());
         user.setFirstName(userDto.getFirstName());
         user.setLastName(userDto.getLastName());
         user.setEmail(userDto.getEmail());
@@ -66,27 +138,47 @@ public class UserService {
         user.setActive(userDto.getActive());
 
         if (userDto.getPassword() != null && !userDto.getPassword().isEmpty()) {
-            user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+            user.setPassword(passwordHashingService.encode(userDto.getPassword()));
         }
 
         User updatedUser = userRepository.save(user);
+        nameIndex.put(updatedUser);
+        if (updatedUser.getRole() == Role.DOCTOR) {
+            doctorService.evictCachedDoctor(updatedUser.getId());
+        }
         return convertToDto(updatedUser);
     }
 
     public void deleteUser(Long id) {
-        userRepository.deleteById(id);
-    }
-
-    public void deactivateUser(Long id) {
         Optional<User> userOptional = userRepository.findById(id);
         if (userOptional.isPresent()) {
-            User user = userOptional.get();
-            user.setActive(false);
-            userRepository.save(user);
+            userRepository.deleteById(id);
+            nameIndex.remove(id);
+            dashboardService.recordUserDeleted(userOptional.get().getRole());
         }
     }
 
-    private UserDto convertToDto(User user) {
+    public void deactivateUser(Long id) {
+        OptimisticLocking.retry(() -> {
+            Optional<User> userOptional = userRepository.findById(id);
+            if (userOptional.isPresent()) {
+                User user = userOptional.get();
+                user.setActive(false);
+                userRepository.save(user);
+                if (user.getRole() == Role.DOCTOR) {
+                    doctorService.evictCachedDoctor(user.getId());
+                }
+            }
+            return null;
+        });
+    }
+
+    private CursorPage<UserDto> toPage(Slice<User> slice) {
+        return CursorPage.of(slice, this::convertToDto,
+                u -> PageCursor.encode(u.getCreatedAt(), u.getId()));
+    }
+
+    UserDto convertToDto(User user) {
         UserDto userDto = new UserDto();
         userDto.setId(user.getId());
         userDto.setUsername(user.getUsername());
@@ -96,6 +188,7 @@ public class UserService {
         userDto.setPhoneNumber(user.getPhoneNumber());
         userDto.setRole(user.getRole());
         userDto.setActive(user.getActive());
+        userDto.setVersion(user.getVersion());
         return userDto;
     }
 
@@ -0,0 +1,176 @@
+package com.healthcare.service;
+
+import java.time.DayOfWeek;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// A doctor's working week, parsed from the free-text Doctor.workingHours. Each day is a bitmap
+// of the half-hour cells at which an appointment can start and still end within working hours,
+// so bit i stands for a start at i * SLOT_MINUTES past midnight.
+//
+// Accepts the forms found in practice, e.g. "Mon-Fri 08:00-17:00", "Mon, Wed 9am-1pm; Sat 10-14",
+// "Weekdays 09:00-12:00, 13:00-17:00" or "Daily 8:30-16:30". Hours without any day apply to
+// Monday to Friday; text that cannot be read yields an empty week.
+public final class WeeklySchedule {
+
+    public static final int SLOT_MINUTES = 30;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+
+    private static final WeeklySchedule EMPTY = new WeeklySchedule(new long[7]);
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "(?<from>\\d{1,2})(?::(?<fromMin>\\d{2}))?\\s*(?<fromAmPm>[ap]\\.?m\\.?)?\\s*(?:-|\\u2013|to)\\s*"
+                    + "(?<to>\\d{1,2})(?::(?<toMin>\\d{2}))?\\s*(?<toAmPm>[ap]\\.?m\\.?)?"
+                    + "|\\b(?<dayFrom>mon|tue|wed|thu|fri|sat|sun)[a-z]*\\.?"
+                    + "(?:\\s*(?:-|\\u2013|to)\\s*(?<dayTo>mon|tue|wed|thu|fri|sat|sun)[a-z]*\\.?)?"
+                    + "|\\b(?<group>weekdays|weekends|daily|everyday)");
+
+    private static final int WEEKDAYS = 0b0011111;
+    private static final int WEEKENDS = 0b1100000;
+    private static final int ALL_DAYS = 0b1111111;
+
+    // Indexed by DayOfWeek.getValue() - 1
+    private final long[] startsByDay;
+
+    private WeeklySchedule(long[] startsByDay) {
+        this.startsByDay = startsByDay;
+    }
+
+    public static WeeklySchedule parse(String workingHours) {
+        if (workingHours == null || workingHours.isBlank()) {
+            return EMPTY;
+        }
+        long[] starts = new long[7];
+        // Days named since the last hours; consecutive hours share them, the next day name resets them
+        int days = 0;
+        boolean hoursSeen = false;
+        Matcher matcher = TOKEN.matcher(workingHours.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            if (matcher.group("from") != null) {
+                long mask = startMask(matcher);
+                int target = days != 0 ? days : WEEKDAYS;
+                for (int day = 0; day < 7; day++) {
+                    if ((target & (1 << day)) != 0) {
+                        starts[day] |= mask;
+                    }
+                }
+                hoursSeen = true;
+                continue;
+            }
+            if (hoursSeen) {
+                days = 0;
+                hoursSeen = false;
+            }
+            days |= matcher.group("group") != null ? groupDays(matcher.group("group")) : dayRange(matcher);
+        }
+        return new WeeklySchedule(starts);
+    }
+
+    public long startMask(DayOfWeek day) {
+        return startsByDay[day.getValue() - 1];
+    }
+
+    public boolean isEmpty() {
+        for (long starts : startsByDay) {
+            if (starts != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Cells whose appointment would conflict with one booked at the given minute of the day,
+    // i.e. start within an hour of it either side, the hour itself included
+    public static long blockedBy(int bookedMinute) {
+        int first = -Math.floorDiv(-(bookedMinute - AppointmentSlotIndex.APPOINTMENT_MINUTES), SLOT_MINUTES);
+        int last = Math.floorDiv(bookedMinute + AppointmentSlotIndex.APPOINTMENT_MINUTES, SLOT_MINUTES);
+        return cells(first, last);
+    }
+
+    // Cells starting at or after the given minute of the day
+    public static long from(int minute) {
+        return cells(-Math.floorDiv(-minute, SLOT_MINUTES), SLOTS_PER_DAY - 1);
+    }
+
+    private static long startMask(Matcher matcher) {
+        int open = minuteOfDay(matcher.group("from"), matcher.group("fromMin"), matcher.group("fromAmPm"));
+        int close = minuteOfDay(matcher.group("to"), matcher.group("toMin"), matcher.group("toAmPm"));
+        if (matcher.group("fromAmPm") == null && matcher.group("toAmPm") != null) {
+            // "1-5pm" means 13:00-17:00, while "9-5pm" still opens in the morning
+            int shared = minuteOfDay(matcher.group("from"), matcher.group("fromMin"), matcher.group("toAmPm"));
+            if (shared >= 0 && shared < close) {
+                open = shared;
+            }
+        }
+        if (open < 0 || close < 0 || close <= open) {
+            return 0;
+        }
+        // First start at or after opening, last one that still ends by closing
+        int first = -Math.floorDiv(-open, SLOT_MINUTES);
+        int last = Math.floorDiv(close - AppointmentSlotIndex.APPOINTMENT_MINUTES, SLOT_MINUTES);
+        return cells(first, last);
+    }
+
+    // Minutes after midnight, or -1 when out of range
+    private static int minuteOfDay(String hourText, String minuteText, String amPm) {
+        int hour = Integer.parseInt(hourText);
+        int minute = minuteText != null ? Integer.parseInt(minuteText) : 0;
+        if (amPm != null) {
+            if (hour < 1 || hour > 12) {
+                return -1;
+            }
+            hour = hour % 12 + (amPm.startsWith("p") ? 12 : 0);
+        }
+        if (hour > 24 || minute > 59 || (hour == 24 && minute > 0)) {
+            return -1;
+        }
+        return hour * 60 + minute;
+    }
+
+    private static int dayRange(Matcher matcher) {
+        int from = dayIndex(matcher.group("dayFrom"));
+        if (matcher.group("dayTo") == null) {
+            return 1 << from;
+        }
+        int to = dayIndex(matcher.group("dayTo"));
+        int days = 0;
+        // Wraps past Sunday, so "Sat-Mon" is three days
+        for (int day = from; ; day = (day + 1) % 7) {
+            days |= 1 << day;
+            if (day == to) {
+                return days;
+            }
+        }
+    }
+
+    private static int dayIndex(String prefix) {
+        return switch (prefix) {
+            case "mon" -> 0;
+            case "tue" -> 1;
+            case "wed" -> 2;
+            case "thu" -> 3;
+            case "fri" -> 4;
+            case "sat" -> 5;
+            default -> 6;
+        };
+    }
+
+    private static int groupDays(String group) {
+        return switch (group) {
+            case "weekdays" -> WEEKDAYS;
+            case "weekends" -> WEEKENDS;
+            default -> ALL_DAYS;
+        };
+    }
+
+    // Bits first..last inclusive, clamped to the day
+    private static long cells(int first, int last) {
+        first = Math.max(first, 0);
+        last = Math.min(last, SLOTS_PER_DAY - 1);
+        if (first > last) {
+            return 0;
+        }
+        return (-1L >>> (63 - (last - first))) << first;
+    }
+}
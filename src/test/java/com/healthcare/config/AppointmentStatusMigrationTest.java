@@ -0,0 +1,61 @@
+package com.healthcare.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentStatusMigrationTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+            "jdbc:h2:mem:statusmigration;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    private final AppointmentStatusMigration migration = new AppointmentStatusMigration();
+
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(migration, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @AfterEach
+    void drop() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void freshDatabaseIsLeftToHibernate() {
+        migration.normalize();
+
+        assertFalse(DatabaseTables.exists(jdbcTemplate, "appointments"));
+    }
+
+    @Test
+    void legacyValuesBecomeTheStatusTheyStandFor() {
+        jdbcTemplate.execute("CREATE TABLE appointments (id BIGINT PRIMARY KEY, status VARCHAR(255))");
+        jdbcTemplate.execute("INSERT INTO appointments VALUES (1, 'SCHEDULED'), (2, 'Completed'), (3, ' done'), " +
+                "(4, 'canceled'), (5, 'Cancelled'), (6, 'Pending'), (7, NULL), (8, 'CANCELLED')");
+
+        migration.normalize();
+
+        assertEquals(List.of("SCHEDULED", "COMPLETED", "COMPLETED", "CANCELLED", "CANCELLED", "SCHEDULED",
+                        "SCHEDULED", "CANCELLED"),
+                jdbcTemplate.queryForList("SELECT status FROM appointments ORDER BY id", String.class));
+    }
+
+    @Test
+    void tableNamesAreMatchedLiterally() {
+        // The underscore of a LIKE pattern would otherwise match this table too
+        jdbcTemplate.execute("CREATE TABLE usersXseq (next_val BIGINT)");
+        assertFalse(DatabaseTables.exists(jdbcTemplate, "users_seq"));
+
+        jdbcTemplate.execute("CREATE TABLE users_seq (next_val BIGINT)");
+        assertTrue(DatabaseTables.exists(jdbcTemplate, "users_seq"));
+    }
+}
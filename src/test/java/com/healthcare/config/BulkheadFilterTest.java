@@ -0,0 +1,153 @@
+package com.healthcare.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Requests that must overlap are nested: the outer request's chain runs the inner one while
+// it still holds its permit, so no test needs threads
+class BulkheadFilterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BulkheadFilter filter = new BulkheadFilter(meterRegistry, 12, 2, 2, 2, 1, 2, 1, 10);
+
+    @Test
+    void requestUnderTheCapPassesAndGivesThePermitBack() throws Exception {
+        List<Integer> statuses = new ArrayList<>();
+
+        statuses.add(call("/api/medical-records/1", (request, response) ->
+                assertEquals(1.0, available("medical-records"))));
+
+        assertEquals(List.of(200), statuses);
+        assertEquals(2.0, available("medical-records"));
+    }
+
+    @Test
+    void requestOverTheCapIsTurnedAway() throws Exception {
+        List<MockHttpServletResponse> inner = new ArrayList<>();
+
+        call("/api/admin/dashboard", (request, response) -> inner.add(response("/api/admin")));
+
+        assertEquals(503, inner.get(0).getStatus());
+        assertEquals("1", inner.get(0).getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(1.0, rejected("admin"));
+        assertEquals(1.0, available("admin"));
+    }
+
+    @Test
+    void exportsDoNotUseTheRecordsPermits() throws Exception {
+        List<Integer> inner = new ArrayList<>();
+
+        call("/api/medical-records/export/patient/1", (request, response) -> {
+            inner.add(response("/api/medical-records/export/patient/2").getStatus());
+            inner.add(nested("/api/medical-records/1",
+                    () -> inner.add(response("/api/medical-records/2").getStatus())));
+        });
+
+        assertEquals(List.of(503, 200, 200), inner);
+        assertEquals(1.0, rejected("exports"));
+        assertEquals(0.0, rejected("medical-records"));
+    }
+
+    @Test
+    void subsystemsOnlyBlockThemselves() throws Exception {
+        List<Integer> inner = new ArrayList<>();
+
+        call("/api/admin", (request, response) -> {
+            inner.add(response("/api/patients/1").getStatus());
+            inner.add(response("/api/admin/users/stats").getStatus());
+        });
+
+        assertEquals(List.of(200, 503), inner);
+    }
+
+    @Test
+    void streamsAndUnlistedPathsAreNotCapped() throws Exception {
+        List<Integer> inner = new ArrayList<>();
+
+        call("/api/appointments/1", (request, response) -> nested("/api/appointments/2", () -> {
+            inner.add(response("/api/appointments/stream").getStatus());
+            inner.add(response("/actuator/health").getStatus());
+            inner.add(response("/api/appointments/3").getStatus());
+        }));
+
+        assertEquals(List.of(200, 200, 503), inner);
+    }
+
+    @Test
+    void asyncRequestHoldsItsPermitUntilItCompletes() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/medical-records/export/patient/1");
+        request.setAsyncSupported(true);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(0.0, available("exports"));
+        ((MockAsyncContext) request.getAsyncContext()).complete();
+        assertEquals(1.0, available("exports"));
+    }
+
+    @Test
+    void capsMustLeaveAConnectionFree() {
+        assertThrows(IllegalStateException.class,
+                () -> new BulkheadFilter(new SimpleMeterRegistry(), 10, 2, 2, 2, 1, 2, 1, 10));
+        assertThrows(IllegalStateException.class,
+                () -> new BulkheadFilter(new SimpleMeterRegistry(), 12, 2, 2, 2, 0, 2, 1, 10));
+    }
+
+    @Test
+    void filterIsOnlyRegisteredWhenEnabled() {
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withUserConfiguration(BulkheadFilter.class);
+
+        runner.run(context -> assertFalse(context.containsBean("bulkheadFilter")));
+        runner.withPropertyValues("bulkhead.enabled=true", "spring.datasource.hikari.maximum-pool-size=12")
+                .run(context -> assertTrue(context.containsBean("bulkheadFilter")));
+    }
+
+    private int call(String uri, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", uri), response, chain);
+        return response.getStatus();
+    }
+
+    private int nested(String uri, Runnable whileHeld) {
+        try {
+            return call(uri, (request, response) -> whileHeld.run());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private MockHttpServletResponse response(String uri) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        try {
+            filter.doFilter(new MockHttpServletRequest("GET", uri), response, (request, res) -> { });
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return response;
+    }
+
+    private double available(String subsystem) {
+        return meterRegistry.get("bulkhead.available").tag("subsystem", subsystem).gauge().value();
+    }
+
+    private double rejected(String subsystem) {
+        return meterRegistry.get("bulkhead.rejected").tag("subsystem", subsystem).counter().count();
+    }
+}
@@ -0,0 +1,173 @@
+package com.healthcare.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.MedicalRecordDto;
+import com.healthcare.model.Doctor;
+import com.healthcare.model.Patient;
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.UserRepository;
+import com.healthcare.service.MedicalRecordService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Primary and replica are two in-memory H2 databases. Each test copies the primary into the
+// replica and then changes the record's diagnosis on the replica only, so the diagnosis a read
+// returns shows which database answered it.
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "replica.datasource.url=jdbc:h2:mem:replica;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "replica.heartbeat-ms=3600000",
+        "replica.max-lag-ms=60000",
+        "audit.dir=target/replica-test-audit"
+})
+class ReadReplicaRoutingTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Autowired
+    private MedicalRecordService medicalRecordService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private ReplicaLagMonitor monitor;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    private Long recordId;
+
+    @BeforeEach
+    void replicate() {
+        String suffix = Long.toString(System.nanoTime());
+        User user = userRepository.save(new User("patient" + suffix, "p" + suffix + "@example.com", "secret",
+                "Pat", "Ient", Role.PATIENT));
+        Patient patient = new Patient();
+        patient.setUser(user);
+        patient.setPatientId("P" + suffix);
+        patient = patientRepository.save(patient);
+        User doctorUser = userRepository.save(new User("doctor" + suffix, "d" + suffix + "@example.com", "secret",
+                "Doc", "Tor", Role.DOCTOR));
+        Doctor doctor = new Doctor();
+        doctor.setUser(doctorUser);
+        doctor.setDoctorId("D" + suffix);
+        doctor = doctorRepository.save(doctor);
+
+        MedicalRecordDto dto = new MedicalRecordDto();
+        dto.setPatientId(patient.getId());
+        dto.setDoctorId(doctor.getId());
+        dto.setDiagnosis("primary");
+        dto.setVisitDate(LocalDateTime.now());
+        recordId = medicalRecordService.createMedicalRecord(dto).getId();
+
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        for (String statement : new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class)) {
+            replica.execute(statement);
+        }
+        replica.update("UPDATE medical_records SET diagnosis = 'replica' WHERE id = ?", recordId);
+        monitor.check();
+        // The test framework binds one mock request per test; the writes above made it sticky
+        newRequest();
+    }
+
+    @AfterEach
+    void clearContext() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void annotatedReadsUseTheReplicaWhileItIsCaughtUp() {
+        assertEquals("replica", diagnosisInDateRange());
+        assertEquals("primary", medicalRecordService.getMedicalRecordById(recordId).orElseThrow().getDiagnosis());
+    }
+
+    @Test
+    void laggingReplicaFallsBackToThePrimary() {
+        new JdbcTemplate(replicaDataSource).update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1",
+                System.currentTimeMillis() - 600_000);
+        monitor.check();
+
+        assertEquals("primary", diagnosisInDateRange());
+    }
+
+    @Test
+    void requestThatWroteReadsFromThePrimary() throws Exception {
+        assertEquals("replica", diagnosisInDateRange());
+
+        medicalRecordService.patchMedicalRecord(recordId, objectMapper.readTree("{\"notes\": \"seen\"}"));
+
+        assertEquals("primary", diagnosisInDateRange());
+    }
+
+    @Test
+    void userWhoWroteReadsFromThePrimaryInLaterRequests() throws Exception {
+        authenticate("writer");
+        medicalRecordService.patchMedicalRecord(recordId, objectMapper.readTree("{\"notes\": \"seen\"}"));
+        newRequest();
+        assertEquals("primary", diagnosisInDateRange());
+
+        authenticate("someone-else");
+        assertEquals("replica", diagnosisInDateRange());
+    }
+
+    private String diagnosisInDateRange() {
+        List<MedicalRecordDto> records = medicalRecordService.getMedicalRecordsByDateRange(TODAY, TODAY);
+        return records.stream()
+                .filter(record -> record.getId().equals(recordId))
+                .findFirst()
+                .orElseThrow()
+                .getDiagnosis();
+    }
+
+    private static void newRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, AuthorityUtils.createAuthorityList("ROLE_DOCTOR")));
+    }
+}
@@ -0,0 +1,125 @@
+package com.healthcare.controller;
+
+import com.healthcare.dto.CursorPage;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.service.PatientService;
+import com.healthcare.service.ResourceVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A matching ETag or an unchanged Last-Modified answers 304 without loading the body
+class ConditionalGetTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 3, 1, 9, 30, 15);
+    private static final String ETAG = "\"patient-7-3\"";
+    private static final DateTimeFormatter HTTP_DATE = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+
+    private final PatientService patientService = mock(PatientService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        PatientController controller = new PatientController();
+        ReflectionTestUtils.setField(controller, "patientService", patientService);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        when(patientService.getPatientVersion(7L))
+                .thenReturn(Optional.of(new ResourceVersion("patient-7-3", UPDATED_AT)));
+        when(patientService.getPatientVersion(8L)).thenReturn(Optional.empty());
+        PatientDto patient = new PatientDto();
+        patient.setId(7L);
+        when(patientService.getPatientById(7L)).thenReturn(Optional.of(patient));
+    }
+
+    @Test
+    void matchingEtagIsNotModified() throws Exception {
+        mvc.perform(get("/api/patients/7").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(""));
+
+        verify(patientService, never()).getPatientById(anyLong());
+    }
+
+    @Test
+    void staleEtagGetsTheBody() throws Exception {
+        mvc.perform(get("/api/patients/7").header(HttpHeaders.IF_NONE_MATCH, "\"patient-7-2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.LAST_MODIFIED, httpDate(UPDATED_AT)))
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    void unchangedSinceIsNotModified() throws Exception {
+        mvc.perform(get("/api/patients/7").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(UPDATED_AT)))
+                .andExpect(status().isNotModified());
+
+        verify(patientService, never()).getPatientById(anyLong());
+    }
+
+    @Test
+    void changedSinceGetsTheBody() throws Exception {
+        mvc.perform(get("/api/patients/7").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(UPDATED_AT.minusMinutes(1))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    void etagWinsOverIfModifiedSince() throws Exception {
+        mvc.perform(get("/api/patients/7")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"patient-7-2\"")
+                        .header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(UPDATED_AT)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void missingPatientIsNotFoundWithoutLoading() throws Exception {
+        mvc.perform(get("/api/patients/8").header(HttpHeaders.IF_NONE_MATCH, "\"patient-8-1\""))
+                .andExpect(status().isNotFound());
+
+        verify(patientService, never()).getPatientById(anyLong());
+    }
+
+    @Test
+    void collectionIsNotModifiedOnItsTagAlone() throws Exception {
+        when(patientService.getPatientsVersion()).thenReturn(new ResourceVersion("patients-2-5-0", null));
+        when(patientService.getPatients(any(), any(), anyInt())).thenReturn(new CursorPage<>(List.of(), null, false));
+
+        mvc.perform(get("/api/patients").header(HttpHeaders.IF_NONE_MATCH, "\"patients-2-5-0\""))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/patients").header(HttpHeaders.IF_MODIFIED_SINCE, httpDate(UPDATED_AT)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"patients-2-5-0\""));
+    }
+
+    private static String httpDate(LocalDateTime time) {
+        return HTTP_DATE.format(time.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneId.of("GMT")));
+    }
+}
@@ -0,0 +1,72 @@
+package com.healthcare.controller;
+
+import com.healthcare.exception.PasswordHashingRejectedException;
+import com.healthcare.service.AuthService;
+import com.healthcare.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A saturated hashing pool is the client's cue to back off, not a bad request
+class PasswordHashingRejectionTest {
+
+    private final AuthService authService = mock(AuthService.class);
+    private final UserService userService = mock(UserService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        AuthController authController = new AuthController();
+        ReflectionTestUtils.setField(authController, "authService", authService);
+        UserController userController = new UserController();
+        ReflectionTestUtils.setField(userController, "userService", userService);
+        mvc = MockMvcBuilders.standaloneSetup(authController, userController).build();
+    }
+
+    @Test
+    void loginIsAskedToRetry() throws Exception {
+        when(authService.authenticate(any())).thenThrow(new PasswordHashingRejectedException("Password hashing capacity exhausted"));
+
+        mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jane\", \"password\": \"secret\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                .andExpect(jsonPath("$.success").value(false));
+    }
+
+    @Test
+    void otherLoginFailuresStayBadRequests() throws Exception {
+        when(authService.authenticate(any())).thenThrow(new RuntimeException("Invalid credentials"));
+
+        mvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\": \"jane\", \"password\": \"wrong\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void userWritesAreAskedToRetry() throws Exception {
+        when(userService.createUser(any())).thenThrow(new PasswordHashingRejectedException("Password hashing timed out"));
+        when(userService.updateUser(eq(3L), any())).thenThrow(new PasswordHashingRejectedException("Password hashing timed out"));
+
+        mvc.perform(post("/api/users").contentType(MediaType.APPLICATION_JSON).content("{\"username\": \"jane\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        mvc.perform(put("/api/users/3").contentType(MediaType.APPLICATION_JSON).content("{\"version\": 0}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.healthcare.controller;
+
+import com.healthcare.dto.AppointmentDto;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
+import com.healthcare.service.AppointmentService;
+import com.healthcare.service.PatientService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// A stale write answers 409 with the state the client has to merge with; a full replacement
+// sent without any version answers 428
+class VersionConflictResponseTest {
+
+    private final PatientService patientService = mock(PatientService.class);
+    private final AppointmentService appointmentService = mock(AppointmentService.class);
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        PatientController patientController = new PatientController();
+        ReflectionTestUtils.setField(patientController, "patientService", patientService);
+        AppointmentController appointmentController = new AppointmentController();
+        ReflectionTestUtils.setField(appointmentController, "appointmentService", appointmentService);
+        mvc = MockMvcBuilders.standaloneSetup(patientController, appointmentController).build();
+    }
+
+    @Test
+    void stalePutReturnsTheCurrentPatient() throws Exception {
+        when(patientService.updatePatient(eq(7L), any())).thenThrow(new VersionConflictException("Stale version 2", 3L));
+        when(patientService.getPatientById(7L)).thenReturn(Optional.of(patient(7L, 3L)));
+
+        mvc.perform(put("/api/patients/7").contentType(MediaType.APPLICATION_JSON).content("{\"version\": 2}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void stalePatchReturnsTheCurrentPatient() throws Exception {
+        when(patientService.patchPatient(eq(7L), any())).thenThrow(new VersionConflictException("Concurrent update", new RuntimeException()));
+        when(patientService.getPatientById(7L)).thenReturn(Optional.of(patient(7L, 5L)));
+
+        mvc.perform(patch("/api/patients/7").contentType(MediaType.APPLICATION_JSON).content("{\"address\": \"x\"}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.version").value(5));
+    }
+
+    @Test
+    void conflictOnADeletedPatientIsNotFound() throws Exception {
+        when(patientService.updatePatient(eq(7L), any())).thenThrow(new VersionConflictException("Stale version 2", 3L));
+        when(patientService.getPatientById(7L)).thenReturn(Optional.empty());
+
+        mvc.perform(put("/api/patients/7").contentType(MediaType.APPLICATION_JSON).content("{\"version\": 2}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void putWithoutAVersionIsRefused() throws Exception {
+        when(patientService.updatePatient(eq(7L), any())).thenThrow(new VersionRequiredException("Version is required"));
+
+        mvc.perform(put("/api/patients/7").contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isPreconditionRequired())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void staleAppointmentPutReturnsTheCurrentAppointment() throws Exception {
+        AppointmentDto current = new AppointmentDto();
+        current.setId(9L);
+        current.setVersion(4L);
+        when(appointmentService.updateAppointment(eq(9L), any())).thenThrow(new VersionConflictException("Stale version 1", 4L));
+        when(appointmentService.getAppointmentById(9L)).thenReturn(Optional.of(current));
+
+        mvc.perform(put("/api/appointments/9").contentType(MediaType.APPLICATION_JSON).content("{\"version\": 1}"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    private static PatientDto patient(Long id, Long version) {
+        PatientDto patient = new PatientDto();
+        patient.setId(id);
+        patient.setVersion(version);
+        return patient;
+    }
+}
@@ -0,0 +1,60 @@
+package com.healthcare.model;
+
+import org.junit.jupiter.api.Test;
+
+import static com.healthcare.model.AppointmentStatus.CANCELLED;
+import static com.healthcare.model.AppointmentStatus.COMPLETED;
+import static com.healthcare.model.AppointmentStatus.SCHEDULED;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppointmentStatusTest {
+
+    private final AppointmentStatusConverter converter = new AppointmentStatusConverter();
+
+    @Test
+    void scheduledMayMoveAnywhere() {
+        assertTrue(SCHEDULED.canTransitionTo(SCHEDULED));
+        assertTrue(SCHEDULED.canTransitionTo(COMPLETED));
+        assertTrue(SCHEDULED.canTransitionTo(CANCELLED));
+    }
+
+    @Test
+    void cancelledCanOnlyBeReinstated() {
+        assertTrue(CANCELLED.canTransitionTo(SCHEDULED));
+        assertTrue(CANCELLED.canTransitionTo(CANCELLED));
+        assertFalse(CANCELLED.canTransitionTo(COMPLETED));
+    }
+
+    @Test
+    void completedIsFinal() {
+        assertTrue(COMPLETED.canTransitionTo(COMPLETED));
+        assertFalse(COMPLETED.canTransitionTo(SCHEDULED));
+        assertFalse(COMPLETED.canTransitionTo(CANCELLED));
+    }
+
+    @Test
+    void noStatusIsNeverATarget() {
+        for (AppointmentStatus status : AppointmentStatus.values()) {
+            assertFalse(status.canTransitionTo(null));
+        }
+    }
+
+    @Test
+    void converterWritesTheEnumName() {
+        assertEquals("CANCELLED", converter.convertToDatabaseColumn(CANCELLED));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    void converterReadsAnyCaseOfAKnownName() {
+        assertEquals(SCHEDULED, converter.convertToEntityAttribute("SCHEDULED"));
+        assertEquals(SCHEDULED, converter.convertToEntityAttribute("scheduled"));
+        assertEquals(COMPLETED, converter.convertToEntityAttribute(" Completed "));
+        assertNull(converter.convertToEntityAttribute(null));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute("Pending"));
+    }
+}
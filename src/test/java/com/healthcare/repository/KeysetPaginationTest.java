@@ -0,0 +1,101 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.Appointment;
+import com.healthcare.model.Doctor;
+import com.healthcare.model.Patient;
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.service.PageCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Slice;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Walks the appointment list a page at a time, the way the list endpoints do, over rows that
+// share start times, and checks every row comes back exactly once and in sort order
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:keyset;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetPaginationTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 1, 15, 9, 0);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Appointment> saved = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        Patient patient = new Patient();
+        patient.setUser(userRepository.save(new User("pat", "pat@example.com", "secret", "Pat", "Roe", Role.PATIENT)));
+        patient.setPatientId("P0001");
+        patient = patientRepository.save(patient);
+        Doctor doctor = new Doctor();
+        doctor.setUser(userRepository.save(new User("doc", "doc@example.com", "secret", "Doc", "Who", Role.DOCTOR)));
+        doctor.setDoctorId("D0001");
+        doctor = doctorRepository.save(doctor);
+
+        // Saved out of order, with three rows on the 10:00 tie straddling a page boundary
+        int[] hours = {12, 10, 9, 10, 11, 10, 13};
+        for (int hour : hours) {
+            saved.add(appointmentRepository.save(new Appointment(patient, doctor, NINE.withHour(hour), "Checkup")));
+        }
+        saved.sort(Comparator.comparing(Appointment::getAppointmentDateTime).thenComparing(Appointment::getId));
+    }
+
+    @Test
+    void pagesCoverEveryRowOnceInSortOrder() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Slice<Appointment> slice = appointmentRepository.findFirstPage(PageCursor.limit(3));
+        while (true) {
+            slice.forEach(appointment -> seen.add(appointment.getId()));
+            pageSizes.add(slice.getNumberOfElements());
+            if (!slice.hasNext()) {
+                break;
+            }
+            Appointment last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            PageCursor after = PageCursor.decode(PageCursor.encode(last.getAppointmentDateTime(), last.getId()));
+            slice = appointmentRepository.findPageAfter(after.getTimestamp(), after.getId(), PageCursor.limit(3));
+        }
+
+        assertEquals(saved.stream().map(Appointment::getId).toList(), seen);
+        assertEquals(List.of(3, 3, 1), pageSizes);
+    }
+
+    @Test
+    void cursorInsideATieResumesAfterIt() {
+        Appointment middleOfTie = saved.get(2);
+
+        Slice<Appointment> slice = appointmentRepository.findPageAfter(
+                middleOfTie.getAppointmentDateTime(), middleOfTie.getId(), PageCursor.limit(2));
+
+        assertEquals(List.of(saved.get(3).getId(), saved.get(4).getId()),
+                slice.getContent().stream().map(Appointment::getId).toList());
+    }
+}
@@ -0,0 +1,384 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.Appointment;
+import com.healthcare.model.AppointmentStatus;
+import com.healthcare.model.MedicalRecord;
+import com.healthcare.model.Patient;
+import com.healthcare.model.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs every repository query against H2 in MySQL mode, EXPLAINs each SELECT it issues with the
+// same parameters and fails when a plan falls back to scanning a whole table. Each test also
+// fails when its repository gains a query method that is neither checked here nor exempted.
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:queryplans;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProjectionRepository.class)
+class QueryPlanTest {
+
+    // Bulk loads and aggregates that read every row on purpose
+    private static final Set<String> FULL_SCAN_BY_DESIGN = Set.of(
+            "AppointmentRepository.countGroupByStatus",
+            "MedicalRecordRepository.findDiagnosisEntries",
+            "UserRepository.countGroupByRole",
+            "UserRepository.findNameEntries",
+            "DoctorRepository.findActiveDoctors",
+            // One-time seeds of the business id sequences
+            "PatientRepository.findMaxPatientNumber",
+            "DoctorRepository.findMaxDoctorNumber"
+    );
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 15, 9, 0);
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private MedicalRecordRepository medicalRecordRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private IdSequenceRepository idSequenceRepository;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private StatementRecorder recorder;
+
+    private final Set<String> checked = new HashSet<>();
+
+    @BeforeEach
+    void reset() {
+        checked.clear();
+    }
+
+    @Test
+    void appointmentQueriesUseIndexes() {
+        String repo = "AppointmentRepository.";
+        assertIndexed(repo + "findById", () -> appointmentRepository.findById(1L));
+        assertIndexed(repo + "findVersionStampById", () -> appointmentRepository.findVersionStampById(1L));
+        assertIndexed(repo + "findCollectionStamp", () -> appointmentRepository.findCollectionStamp());
+        assertIndexed(repo + "findAllWithParticipantsByIdIn",
+                () -> appointmentRepository.findAllWithParticipantsByIdIn(List.of(1L, 2L, 3L)));
+        assertIndexed(repo + "findByPatientId", () -> appointmentRepository.findByPatientId(1L));
+        assertIndexed(repo + "findByDoctorId", () -> appointmentRepository.findByDoctorId(1L));
+        assertIndexed(repo + "findByStatus", () -> appointmentRepository.findByStatus(AppointmentStatus.SCHEDULED));
+        assertIndexed(repo + "findByAppointmentDateTimeBetween",
+                () -> appointmentRepository.findByAppointmentDateTimeBetween(NOW, NOW.plusDays(1)));
+        assertIndexed(repo + "findByDoctorIdAndDateRange",
+                () -> appointmentRepository.findByDoctorIdAndDateRange(1L, NOW, NOW.plusDays(1)));
+        assertIndexed(repo + "findByPatientIdAndDateRange",
+                () -> appointmentRepository.findByPatientIdAndDateRange(1L, NOW, NOW.plusDays(1)));
+        assertIndexed(repo + "findTodaysAppointments",
+                () -> appointmentRepository.findTodaysAppointments(NOW, NOW.plusDays(1)));
+        assertIndexed(repo + "findFirstByDateRange",
+                () -> appointmentRepository.findFirstByDateRange(NOW, NOW.plusDays(1), PAGE));
+        assertIndexed(repo + "findBookedSlotsFrom", () -> appointmentRepository.findBookedSlotsFrom(NOW));
+        assertIndexed(repo + "countByDateRange", () -> appointmentRepository.countByDateRange(NOW, NOW.plusDays(1)));
+        assertIndexed(repo + "findFirstPage", () -> appointmentRepository.findFirstPage(PAGE));
+        assertIndexed(repo + "findPageAfter", () -> appointmentRepository.findPageAfter(NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstPageByPatientId", () -> appointmentRepository.findFirstPageByPatientId(1L, PAGE));
+        assertIndexed(repo + "findPageByPatientIdAfter",
+                () -> appointmentRepository.findPageByPatientIdAfter(1L, NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstPageByDoctorId", () -> appointmentRepository.findFirstPageByDoctorId(1L, PAGE));
+        assertIndexed(repo + "findPageByDoctorIdAfter",
+                () -> appointmentRepository.findPageByDoctorIdAfter(1L, NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstPageByStatus",
+                () -> appointmentRepository.findFirstPageByStatus(AppointmentStatus.SCHEDULED, PAGE));
+        assertIndexed(repo + "findPageByStatusAfter",
+                () -> appointmentRepository.findPageByStatusAfter(AppointmentStatus.SCHEDULED, NOW, 1L, PAGE));
+        assertAllCovered(AppointmentRepository.class);
+    }
+
+    @Test
+    void medicalRecordQueriesUseIndexes() {
+        String repo = "MedicalRecordRepository.";
+        assertIndexed(repo + "findById", () -> medicalRecordRepository.findById(1L));
+        assertIndexed(repo + "findVersionStampById", () -> medicalRecordRepository.findVersionStampById(1L));
+        assertIndexed(repo + "findCollectionStamp", () -> medicalRecordRepository.findCollectionStamp());
+        assertIndexed(repo + "findByPatientId", () -> medicalRecordRepository.findByPatientId(1L));
+        assertIndexed(repo + "findByDoctorId", () -> medicalRecordRepository.findByDoctorId(1L));
+        assertIndexed(repo + "findByAppointmentId", () -> medicalRecordRepository.findByAppointmentId(1L));
+        assertIndexed(repo + "findByVisitDateBetween",
+                () -> medicalRecordRepository.findByVisitDateBetween(NOW, NOW.plusDays(1)));
+        assertIndexed(repo + "findByPatientIdOrderByVisitDateDesc",
+                () -> medicalRecordRepository.findByPatientIdOrderByVisitDateDesc(1L));
+        assertIndexed(repo + "findAllWithParticipantsByIdIn",
+                () -> medicalRecordRepository.findAllWithParticipantsByIdIn(List.of(1L, 2L, 3L)));
+        assertIndexed(repo + "findFirstPage", () -> medicalRecordRepository.findFirstPage(PAGE));
+        assertIndexed(repo + "findPageAfter", () -> medicalRecordRepository.findPageAfter(NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstPageByDoctorId", () -> medicalRecordRepository.findFirstPageByDoctorId(1L, PAGE));
+        assertIndexed(repo + "findPageByDoctorIdAfter",
+                () -> medicalRecordRepository.findPageByDoctorIdAfter(1L, NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstPageByPatientId",
+                () -> medicalRecordRepository.findFirstPageByPatientId(1L, PAGE));
+        assertIndexed(repo + "findPageByPatientIdBefore",
+                () -> medicalRecordRepository.findPageByPatientIdBefore(1L, NOW, 1L, PAGE));
+        assertAllCovered(MedicalRecordRepository.class);
+    }
+
+    @Test
+    void patientQueriesUseIndexes() {
+        String repo = "PatientRepository.";
+        assertIndexed(repo + "findById", () -> patientRepository.findById(1L));
+        assertIndexed(repo + "findVersionStampById", () -> patientRepository.findVersionStampById(1L));
+        assertIndexed(repo + "findCollectionStamp", () -> patientRepository.findCollectionStamp());
+        assertIndexed(repo + "findAllWithUserByIdIn", () -> patientRepository.findAllWithUserByIdIn(List.of(1L, 2L, 3L)));
+        assertIndexed(repo + "findByUserId", () -> patientRepository.findByUserId(1L));
+        assertIndexed(repo + "findByPatientId", () -> patientRepository.findByPatientId("P000001"));
+        assertIndexed(repo + "findTop5ByOrderByIdDesc", () -> patientRepository.findTop5ByOrderByIdDesc());
+        assertIndexed(repo + "findByUserIdIn", () -> patientRepository.findByUserIdIn(List.of(1L, 2L)));
+        assertIndexed(repo + "findFirstPage", () -> patientRepository.findFirstPage(PAGE));
+        assertIndexed(repo + "findPageAfter", () -> patientRepository.findPageAfter(NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstActivePage", () -> patientRepository.findFirstActivePage(PAGE));
+        assertIndexed(repo + "findActivePageAfter", () -> patientRepository.findActivePageAfter(NOW, 1L, PAGE));
+        assertAllCovered(PatientRepository.class);
+    }
+
+    @Test
+    void doctorQueriesUseIndexes() {
+        String repo = "DoctorRepository.";
+        assertIndexed(repo + "findById", () -> doctorRepository.findById(1L));
+        assertIndexed(repo + "findVersionStampById", () -> doctorRepository.findVersionStampById(1L));
+        assertIndexed(repo + "findCollectionStamp", () -> doctorRepository.findCollectionStamp());
+        assertIndexed(repo + "findAllWithUserByIdIn", () -> doctorRepository.findAllWithUserByIdIn(List.of(1L, 2L, 3L)));
+        assertIndexed(repo + "findByUserId", () -> doctorRepository.findByUserId(1L));
+        assertIndexed(repo + "findByDoctorId", () -> doctorRepository.findByDoctorId("D000001"));
+        assertIndexed(repo + "findByAvailableTrue", () -> doctorRepository.findByAvailableTrue());
+        assertIndexed(repo + "findBySpecialization", () -> doctorRepository.findBySpecialization("Cardiology"));
+        assertIndexed(repo + "findByDepartment", () -> doctorRepository.findByDepartment("Cardiology"));
+        assertIndexed(repo + "findByUserIdIn", () -> doctorRepository.findByUserIdIn(List.of(1L, 2L)));
+        assertIndexed(repo + "findFirstPage", () -> doctorRepository.findFirstPage(PAGE));
+        assertIndexed(repo + "findPageAfter", () -> doctorRepository.findPageAfter(NOW, 1L, PAGE));
+        assertAllCovered(DoctorRepository.class);
+    }
+
+    @Test
+    void userQueriesUseIndexes() {
+        String repo = "UserRepository.";
+        assertIndexed(repo + "findByUsername", () -> userRepository.findByUsername("jdoe"));
+        assertIndexed(repo + "findByEmail", () -> userRepository.findByEmail("jdoe@example.com"));
+        assertIndexed(repo + "existsByUsername", () -> userRepository.existsByUsername("jdoe"));
+        assertIndexed(repo + "existsByEmail", () -> userRepository.existsByEmail("jdoe@example.com"));
+        assertIndexed(repo + "findLastUpdatedAt", () -> userRepository.findLastUpdatedAt());
+        assertIndexed(repo + "findByRole", () -> userRepository.findByRole(Role.DOCTOR));
+        assertIndexed(repo + "findExistingUsernames",
+                () -> userRepository.findExistingUsernames(List.of("jdoe", "asmith")));
+        assertIndexed(repo + "findExistingEmails",
+                () -> userRepository.findExistingEmails(List.of("jdoe@example.com", "asmith@example.com")));
+        assertIndexed(repo + "findFirstPage", () -> userRepository.findFirstPage(PAGE));
+        assertIndexed(repo + "findPageAfter", () -> userRepository.findPageAfter(NOW, 1L, PAGE));
+        assertIndexed(repo + "findFirstPageByRole", () -> userRepository.findFirstPageByRole(Role.PATIENT, PAGE));
+        assertIndexed(repo + "findPageByRoleAfter",
+                () -> userRepository.findPageByRoleAfter(Role.PATIENT, NOW, 1L, PAGE));
+        assertAllCovered(UserRepository.class);
+    }
+
+    @Test
+    void idSequenceQueriesUseIndexes() {
+        String repo = "IdSequenceRepository.";
+        assertIndexed(repo + "findNextValue", () -> idSequenceRepository.findNextValue("patients"));
+        // Writes are covered by their primary key; only the reads are EXPLAINed
+        checked.add(repo + "create");
+        checked.add(repo + "advance");
+        assertAllCovered(IdSequenceRepository.class);
+    }
+
+    @Test
+    void projectionQueriesUseIndexes() {
+        String repo = "ProjectionRepository.";
+        List<String> names = List.of("patient.user.firstName", "patient.user.lastName", "reason");
+        assertIndexed(repo + "findPage", () -> projectionRepository.findPage(Appointment.class, names,
+                Map.of(), "appointmentDateTime", false, NOW, 1L, 21));
+        assertIndexed(repo + "findPage", () -> projectionRepository.findPage(Appointment.class, names,
+                Map.of("doctor.id", 1L), "appointmentDateTime", false, NOW, 1L, 21));
+        assertIndexed(repo + "findPage", () -> projectionRepository.findPage(Patient.class, List.of("user.email"),
+                Map.of("user.active", true), "createdAt", false, null, null, 21));
+        assertIndexed(repo + "findPage", () -> projectionRepository.findPage(MedicalRecord.class, List.of("diagnosis"),
+                Map.of("patient.id", 1L), "visitDate", true, NOW, 1L, 21));
+        assertAllCovered(ProjectionRepository.class);
+    }
+
+    private void assertIndexed(String method, Runnable call) {
+        recorder.clear();
+        call.run();
+        checked.add(method);
+
+        List<RecordedStatement> selects = recorder.selects();
+        assertFalse(selects.isEmpty(), method + " issued no SELECT");
+        for (RecordedStatement select : selects) {
+            String plan = explain(select);
+            // Quick MIN/MAX aggregates report the scan index but read a single index entry
+            boolean fullScan = plan.contains(".tableScan") && !plan.contains("/* direct lookup */");
+            assertFalse(fullScan, method + " reads a whole table:\n" + plan);
+        }
+    }
+
+    private void assertAllCovered(Class<?> repository) {
+        Set<String> missing = new TreeSet<>();
+        for (Method method : repository.getDeclaredMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isDefault()) {
+                continue;
+            }
+            String name = repository.getSimpleName() + "." + method.getName();
+            if (!checked.contains(name) && !FULL_SCAN_BY_DESIGN.contains(name)) {
+                missing.add(name);
+            }
+        }
+        assertTrue(missing.isEmpty(), "Queries without a plan check: " + missing);
+    }
+
+    private String explain(RecordedStatement statement) {
+        try (Connection connection = recorder.target().getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (ParameterCall call : statement.parameters()) {
+                call.method().invoke(explain, call.args());
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        } catch (SQLException | IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Could not EXPLAIN " + statement.sql(), e);
+        }
+    }
+
+    record ParameterCall(Method method, Object[] args) {
+    }
+
+    record RecordedStatement(String sql, List<ParameterCall> parameters) {
+    }
+
+    // Wraps the pool so every prepared SELECT is recorded together with the setter calls that
+    // bound its parameters, ready to be replayed onto an EXPLAIN of the same text
+    static class StatementRecorder implements BeanPostProcessor {
+
+        private final List<RecordedStatement> statements = new CopyOnWriteArrayList<>();
+        private DataSource target;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (!(bean instanceof DataSource dataSource) || target != null) {
+                return bean;
+            }
+            target = dataSource;
+            return proxy(DataSource.class, (self, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? recording(connection) : result;
+            });
+        }
+
+        DataSource target() {
+            return target;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        List<RecordedStatement> selects() {
+            return statements.stream()
+                    .filter(statement -> statement.sql().trim().toLowerCase().startsWith("select"))
+                    .toList();
+        }
+
+        private Connection recording(Connection connection) {
+            return proxy(Connection.class, (self, method, args) -> {
+                Object result = invoke(connection, method, args);
+                if (method.getName().equals("prepareStatement") && result instanceof PreparedStatement prepared) {
+                    return recording(prepared, (String) args[0]);
+                }
+                return result;
+            });
+        }
+
+        private PreparedStatement recording(PreparedStatement prepared, String sql) {
+            List<ParameterCall> parameters = new ArrayList<>();
+            return proxy(PreparedStatement.class, (self, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.add(new ParameterCall(method, Arrays.copyOf(args, args.length)));
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.equals("executeQuery") || name.equals("execute")) {
+                    statements.add(new RecordedStatement(sql, List.copyOf(parameters)));
+                }
+                return invoke(prepared, method, args);
+            });
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+    }
+
+    @TestConfiguration
+    static class RecorderConfig {
+
+        @Bean
+        static StatementRecorder statementRecorder() {
+            return new StatementRecorder();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.healthcare.repository;
+
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// The @Version columns that OptimisticLocking relies on: bumped by every UPDATE, and an
+// UPDATE carrying an older value matches no row and fails instead of overwriting
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:versions;MODE=MySQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class VersionColumnTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void everyUpdateBumpsTheVersion() {
+        User user = userRepository.saveAndFlush(user());
+        assertEquals(0L, user.getVersion());
+
+        user.setFirstName("Janet");
+        user = userRepository.saveAndFlush(user);
+        assertEquals(1L, user.getVersion());
+
+        // Saving unchanged state issues no UPDATE, so the version stays
+        user = userRepository.saveAndFlush(user);
+        assertEquals(1L, user.getVersion());
+    }
+
+    @Test
+    void updateFromAStaleCopyFails() {
+        User user = userRepository.saveAndFlush(user());
+        entityManager.clear();
+        User stale = copy(user);
+
+        user.setFirstName("Janet");
+        userRepository.saveAndFlush(user);
+        entityManager.clear();
+
+        stale.setLastName("Doe");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userRepository.saveAndFlush(stale));
+    }
+
+    private static User user() {
+        return new User("jane", "jane@example.com", "secret", "Jane", "Roe", Role.PATIENT);
+    }
+
+    private static User copy(User user) {
+        User copy = new User(user.getUsername(), user.getEmail(), user.getPassword(),
+                user.getFirstName(), user.getLastName(), user.getRole());
+        copy.setId(user.getId());
+        copy.setVersion(user.getVersion());
+        copy.setCreatedAt(user.getCreatedAt());
+        return copy;
+    }
+}
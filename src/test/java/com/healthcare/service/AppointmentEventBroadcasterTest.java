@@ -0,0 +1,167 @@
+package com.healthcare.service;
+
+import com.healthcare.controller.AppointmentController;
+import com.healthcare.dto.AppointmentEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Resuming through the stream endpoint: events after the client's Last-Event-ID are replayed,
+// and a RESET is sent whenever the retained history cannot fill the gap
+class AppointmentEventBroadcasterTest {
+
+    private AppointmentEventBroadcaster broadcaster;
+    private MockMvc mvc;
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void resumesWithTheEventsAfterTheLastId() throws Exception {
+        start(8, 100);
+        List<Long> ids = publish(1L, 1L, 1L);
+
+        String body = stream(get("/api/appointments/stream").header("Last-Event-ID", ids.get(0)), ids.get(2));
+
+        assertEquals(List.of(ids.get(1), ids.get(2)), sentIds(body));
+        assertTrue(body.contains("event:UPDATED"));
+    }
+
+    @Test
+    void replayOnlyContainsTheSubscribersDoctor() throws Exception {
+        start(8, 100);
+        List<Long> ids = publish(1L, 2L, 1L, 2L);
+
+        String body = stream(get("/api/appointments/stream").param("doctorId", "2")
+                .param("lastEventId", Long.toString(ids.get(0))), ids.get(3));
+
+        assertEquals(List.of(ids.get(1), ids.get(3)), sentIds(body));
+    }
+
+    @Test
+    void idFromBeforeARestartGetsAReset() throws Exception {
+        start(8, 100);
+        List<Long> ids = publish(1L, 1L);
+
+        String body = stream(get("/api/appointments/stream").header("Last-Event-ID", "42"), ids.get(1));
+
+        assertReset(body, ids.get(1));
+    }
+
+    @Test
+    void idNeverIssuedGetsAReset() throws Exception {
+        start(8, 100);
+        List<Long> ids = publish(1L);
+
+        String body = stream(get("/api/appointments/stream").header("Last-Event-ID", ids.get(0) + 5), ids.get(0));
+
+        assertReset(body, ids.get(0));
+    }
+
+    @Test
+    void idOlderThanTheHistoryGetsAReset() throws Exception {
+        start(8, 2);
+        List<Long> ids = publish(1L, 1L, 1L, 1L);
+
+        String body = stream(get("/api/appointments/stream").header("Last-Event-ID", ids.get(0)), ids.get(3));
+
+        assertReset(body, ids.get(3));
+    }
+
+    @Test
+    void oldestRetainedIdStillReplays() throws Exception {
+        start(8, 2);
+        List<Long> ids = publish(1L, 1L, 1L, 1L);
+
+        // History keeps the last two; resuming from the one just before them loses nothing
+        String body = stream(get("/api/appointments/stream").header("Last-Event-ID", ids.get(1)), ids.get(3));
+
+        assertEquals(List.of(ids.get(2), ids.get(3)), sentIds(body));
+    }
+
+    @Test
+    void replayLargerThanTheBufferGetsAReset() throws Exception {
+        start(2, 100);
+        List<Long> ids = publish(1L, 1L, 1L, 1L);
+
+        String body = stream(get("/api/appointments/stream").header("Last-Event-ID", ids.get(0)), ids.get(3));
+
+        assertReset(body, ids.get(3));
+    }
+
+    @Test
+    void malformedIdIsRejected() throws Exception {
+        start(8, 100);
+
+        mvc.perform(get("/api/appointments/stream").header("Last-Event-ID", "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private void start(int bufferSize, int historySize) {
+        broadcaster = new AppointmentEventBroadcaster(new SimpleMeterRegistry(), bufferSize, historySize, 60_000, false);
+        AppointmentController controller = new AppointmentController();
+        ReflectionTestUtils.setField(controller, "appointmentEventBroadcaster", broadcaster);
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    private List<Long> publish(Long... doctorIds) {
+        List<Long> ids = new ArrayList<>();
+        for (Long doctorId : doctorIds) {
+            AppointmentEventDto event = new AppointmentEventDto();
+            event.setType(AppointmentEventDto.Type.UPDATED);
+            event.setAppointmentId(ids.size() + 1L);
+            event.setDoctorId(doctorId);
+            broadcaster.onAppointmentChanged(event);
+            ids.add(event.getId());
+        }
+        return ids;
+    }
+
+    // Events are written by the subscriber's sender thread, so wait until the last expected id shows up
+    private String stream(MockHttpServletRequestBuilder builder, long untilId) throws Exception {
+        MvcResult result = mvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        MockHttpServletResponse response = result.getResponse();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (System.currentTimeMillis() < deadline) {
+            String body = response.getContentAsString();
+            if (body.contains("id:" + untilId + "\n")) {
+                return body;
+            }
+            Thread.sleep(10);
+        }
+        return fail("No event with id " + untilId + " in: " + response.getContentAsString());
+    }
+
+    private static List<Long> sentIds(String body) {
+        List<Long> ids = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            if (line.startsWith("id:")) {
+                ids.add(Long.valueOf(line.substring(3)));
+            }
+        }
+        return ids;
+    }
+
+    private static void assertReset(String body, long newestId) {
+        assertEquals(List.of(newestId), sentIds(body));
+        assertTrue(body.contains("event:" + AppointmentEventBroadcaster.RESET_EVENT + "\n"), body);
+    }
+}
@@ -0,0 +1,155 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AppointmentSlotIndexTest {
+
+    private static final Long DOCTOR = 1L;
+    private static final LocalDateTime NINE = LocalDate.now().plusDays(1).atTime(9, 0);
+
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final AppointmentSlotIndex index = new AppointmentSlotIndex();
+
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(index, "appointmentRepository", appointmentRepository);
+        stored();
+        index.rebuild();
+    }
+
+    @Test
+    void startsAnHourOrLessApartConflict() {
+        assertTrue(index.tryReserve(DOCTOR, NINE));
+
+        assertFalse(index.tryReserve(DOCTOR, NINE));
+        assertFalse(index.tryReserve(DOCTOR, NINE.minusMinutes(59)));
+        assertFalse(index.tryReserve(DOCTOR, NINE.plusMinutes(59)));
+        assertFalse(index.tryReserve(DOCTOR, NINE.plusMinutes(60)));
+        assertFalse(index.tryReserve(DOCTOR, NINE.minusMinutes(60)));
+        assertTrue(index.tryReserve(DOCTOR, NINE.plusMinutes(61)));
+        assertTrue(index.tryReserve(DOCTOR, NINE.minusMinutes(61)));
+    }
+
+    @Test
+    void doctorsDoNotShareSlots() {
+        assertTrue(index.tryReserve(DOCTOR, NINE));
+
+        assertTrue(index.tryReserve(2L, NINE));
+    }
+
+    @Test
+    void releaseFreesTheSlot() {
+        index.tryReserve(DOCTOR, NINE);
+
+        index.release(DOCTOR, NINE);
+
+        assertTrue(index.tryReserve(DOCTOR, NINE.plusMinutes(30)));
+    }
+
+    @Test
+    void moveIgnoresTheSlotBeingLeft() {
+        index.tryReserve(DOCTOR, NINE);
+
+        assertTrue(index.tryMove(DOCTOR, NINE, NINE.plusMinutes(30)));
+
+        assertArrayEquals(new int[]{30}, index.bookedMinutes(DOCTOR, NINE, NINE.plusHours(2)));
+    }
+
+    @Test
+    void conflictingMoveKeepsTheOriginalSlot() {
+        index.tryReserve(DOCTOR, NINE);
+        index.tryReserve(DOCTOR, NINE.plusHours(2));
+
+        assertFalse(index.tryMove(DOCTOR, NINE, NINE.plusMinutes(90)));
+
+        assertArrayEquals(new int[]{0, 120}, index.bookedMinutes(DOCTOR, NINE, NINE.plusHours(3)));
+    }
+
+    @Test
+    void bookedMinutesCoversAHalfOpenRange() {
+        index.tryReserve(DOCTOR, NINE);
+        index.tryReserve(DOCTOR, NINE.plusMinutes(90));
+        index.tryReserve(DOCTOR, NINE.plusHours(3));
+
+        assertArrayEquals(new int[]{89, 179}, index.bookedMinutes(DOCTOR, NINE.plusMinutes(1), NINE.plusHours(3).plusMinutes(1)));
+        assertArrayEquals(new int[]{0}, index.bookedMinutes(DOCTOR, NINE, NINE.plusMinutes(90)));
+        assertArrayEquals(new int[0], index.bookedMinutes(2L, NINE, NINE.plusHours(3)));
+    }
+
+    @Test
+    void growsPastItsInitialCapacityInAnyInsertOrder() {
+        for (int hour = 40; hour >= 0; hour -= 2) {
+            assertTrue(index.tryReserve(DOCTOR, NINE.plusHours(hour)));
+        }
+
+        int[] expected = new int[21];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i * 120;
+        }
+        assertArrayEquals(expected, index.bookedMinutes(DOCTOR, NINE, NINE.plusDays(2)));
+    }
+
+    @Test
+    void rebuildLoadsStoredBookings() {
+        stored(slot(DOCTOR, NINE));
+
+        index.rebuild();
+
+        assertFalse(index.tryReserve(DOCTOR, NINE.plusMinutes(30)));
+    }
+
+    @Test
+    void pruneDropsAppointmentsThatHaveEnded() {
+        LocalDateTime now = LocalDateTime.now();
+        index.tryReserve(DOCTOR, now.minusHours(3));
+        index.tryReserve(DOCTOR, now.minusMinutes(30));
+
+        index.prune();
+
+        assertArrayEquals(new int[]{150}, index.bookedMinutes(DOCTOR, now.minusHours(3), now));
+        // Still running, so still in the way of a booking that starts now
+        assertFalse(index.tryReserve(DOCTOR, now));
+    }
+
+    @Test
+    void bookingsBeforeTheHorizonAreNotChecked() {
+        LocalDateTime lastWeek = LocalDateTime.now().minusDays(7);
+        index.prune();
+
+        assertTrue(index.tryReserve(DOCTOR, lastWeek));
+        assertTrue(index.tryReserve(DOCTOR, lastWeek));
+        assertArrayEquals(new int[0], index.bookedMinutes(DOCTOR, lastWeek, lastWeek.plusHours(1)));
+    }
+
+    private void stored(AppointmentRepository.BookedSlot... slots) {
+        when(appointmentRepository.findBookedSlotsFrom(any())).thenReturn(List.of(slots));
+    }
+
+    private static AppointmentRepository.BookedSlot slot(Long doctorId, LocalDateTime start) {
+        return new AppointmentRepository.BookedSlot() {
+            @Override
+            public Long getDoctorId() {
+                return doctorId;
+            }
+
+            @Override
+            public LocalDateTime getAppointmentDateTime() {
+                return start;
+            }
+        };
+    }
+}
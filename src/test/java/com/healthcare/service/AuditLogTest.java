@@ -0,0 +1,161 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.AuditEntryDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Segments are kept small so a handful of entries spans several of them
+class AuditLogTest {
+
+    private static final long SEGMENT_BYTES = 400;
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<AuditLog> logs = new ArrayList<>();
+    private MeterRegistry meterRegistry;
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        for (AuditLog log : logs) {
+            log.shutdown();
+        }
+    }
+
+    @Test
+    void rotatesSegmentsWithoutSplittingLines() throws Exception {
+        AuditLog log = start(AuditLog.FsyncPolicy.BATCH);
+
+        for (long i = 0; i < 20; i++) {
+            log.append(entry(i % 3, i));
+        }
+        awaitWritten(20);
+
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 1);
+        int lines = 0;
+        for (Path segment : segments) {
+            assertTrue(Files.size(segment) <= SEGMENT_BYTES);
+            for (String line : Files.readAllLines(segment)) {
+                assertTrue(line.startsWith("{\"patientId\":"));
+                objectMapper.readValue(line, AuditEntryDto.class);
+                lines++;
+            }
+        }
+        assertEquals(20, lines);
+    }
+
+    @Test
+    void patientHistoryIsNewestFirstAcrossSegments() throws Exception {
+        AuditLog log = start(AuditLog.FsyncPolicy.NEVER);
+
+        for (long i = 0; i < 20; i++) {
+            log.append(entry(i % 3, i));
+        }
+        awaitWritten(20);
+
+        assertEquals(List.of(19L, 16L, 13L, 10L, 7L, 4L, 1L), entityIds(log.readPatientHistory(1L, 10)));
+        assertEquals(List.of(19L, 16L), entityIds(log.readPatientHistory(1L, 2)));
+        assertEquals(List.of(), entityIds(log.readPatientHistory(42L, 10)));
+        // Served from the per-segment summaries recorded on the first pass
+        assertEquals(List.of(18L, 15L), entityIds(log.readPatientHistory(0L, 2)));
+    }
+
+    @Test
+    void entryLargerThanASegmentGetsOneOfItsOwn() throws Exception {
+        AuditLog log = start(AuditLog.FsyncPolicy.INTERVAL);
+        AuditEntryDto large = entry(1L, 1L);
+        large.setChanges(List.of(new AuditEntryDto.FieldChange("notes", "", "x".repeat((int) SEGMENT_BYTES))));
+
+        log.append(entry(1L, 0L));
+        log.append(large);
+        log.append(entry(1L, 2L));
+        awaitWritten(3);
+
+        List<Path> segments = segments();
+        assertEquals(3, segments.size());
+        assertEquals(1, Files.readAllLines(segments.get(1)).size());
+        assertEquals(List.of(2L, 1L, 0L), entityIds(log.readPatientHistory(1L, 10)));
+    }
+
+    @Test
+    void restartContinuesInANewSegment() throws Exception {
+        AuditLog first = start(AuditLog.FsyncPolicy.BATCH);
+        first.append(entry(1L, 0L));
+        awaitWritten(1);
+        first.shutdown();
+        logs.remove(first);
+
+        AuditLog second = start(AuditLog.FsyncPolicy.BATCH);
+        second.append(entry(1L, 1L));
+        awaitWritten(1);
+
+        List<Path> segments = segments();
+        assertEquals(List.of("audit-000001.log", "audit-000002.log"),
+                segments.stream().map(segment -> segment.getFileName().toString()).toList());
+        assertEquals(List.of(1L, 0L), entityIds(second.readPatientHistory(1L, 10)));
+    }
+
+    @Test
+    void fullBufferDropsInsteadOfBlocking() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Not started, so nothing drains the buffer
+        AuditLog log = new AuditLog(objectMapper, meterRegistry, directory.toString(), SEGMENT_BYTES,
+                AuditLog.FsyncPolicy.NEVER, 1000, 1, 4, 16);
+
+        int accepted = 0;
+        for (long i = 0; i < 10; i++) {
+            accepted += log.append(entry(1L, i)) ? 1 : 0;
+        }
+
+        assertEquals(4, accepted);
+        assertEquals(6, meterRegistry.get("audit.entries.dropped").counter().count());
+    }
+
+    private AuditLog start(AuditLog.FsyncPolicy fsyncPolicy) throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        AuditLog log = new AuditLog(objectMapper, meterRegistry, directory.toString(), SEGMENT_BYTES,
+                fsyncPolicy, 10, 1, 1024, 4);
+        log.start();
+        logs.add(log);
+        return log;
+    }
+
+    private void awaitWritten(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (meterRegistry.get("audit.entries.written").counter().count() < count
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(count, meterRegistry.get("audit.entries.written").counter().count());
+    }
+
+    private List<Path> segments() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+
+    private static List<Long> entityIds(List<AuditEntryDto> entries) {
+        return entries.stream().map(AuditEntryDto::getEntityId).toList();
+    }
+
+    private static AuditEntryDto entry(long patientId, long entityId) {
+        return new AuditEntryDto(AuditEntryDto.EntityType.MEDICAL_RECORD, entityId, patientId,
+                AuditEntryDto.Action.UPDATE, "tester", List.of());
+    }
+}
@@ -0,0 +1,107 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AuditRingBufferTest {
+
+    @Test
+    void capacityRoundsUpToAPowerOfTwo() {
+        assertEquals(8, new AuditRingBuffer<Integer>(5).capacity());
+        assertEquals(8, new AuditRingBuffer<Integer>(8).capacity());
+        assertEquals(16, new AuditRingBuffer<Integer>(9).capacity());
+    }
+
+    @Test
+    void fullBufferRejectsUntilDrained() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(1, buffer.drainTo(drained, 1));
+        assertTrue(buffer.offer(4));
+        assertFalse(buffer.offer(5));
+    }
+
+    @Test
+    void drainsInOfferOrderAcrossLaps() {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            buffer.offer(2 * i);
+            buffer.offer(2 * i + 1);
+            buffer.drainTo(drained, 2);
+        }
+
+        assertEquals(20, drained.size());
+        for (int i = 0; i < drained.size(); i++) {
+            assertEquals(i, drained.get(i));
+        }
+        assertEquals(0, buffer.size());
+        assertEquals(0, buffer.drainTo(drained, 10));
+    }
+
+    @Test
+    void concurrentProducersLoseNothingAndKeepTheirOwnOrder() throws Exception {
+        int producers = 4;
+        int perProducer = 20_000;
+        AuditRingBuffer<long[]> buffer = new AuditRingBuffer<>(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long producer = p;
+            Thread thread = new Thread(() -> {
+                await(start);
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(new long[]{producer, i})) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+
+        long[] next = new long[producers];
+        int received = 0;
+        List<long[]> batch = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (received < producers * perProducer && System.nanoTime() < deadline) {
+            batch.clear();
+            buffer.drainTo(batch, 64);
+            for (long[] element : batch) {
+                assertEquals(next[(int) element[0]]++, element[1]);
+            }
+            received += batch.size();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(producers * perProducer, received);
+        assertEquals(0, buffer.size());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.healthcare.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BoundedTtlCacheTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void loadsOnceThenServesHits() {
+        BoundedTtlCache<Long, String> cache = cache(60_000, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("a", cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "a";
+        }));
+        assertEquals("a", cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "b";
+        }));
+
+        assertEquals(1, loads.get());
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void nullIsPassedThroughAndNotCached() {
+        BoundedTtlCache<Long, String> cache = cache(60_000, 10);
+
+        assertNull(cache.get(1L, () -> null));
+        assertEquals("a", cache.get(1L, () -> "a"));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void expiredEntryIsReloaded() {
+        BoundedTtlCache<Long, String> cache = cache(0, 10);
+
+        cache.get(1L, () -> "old");
+
+        assertNull(cache.getIfPresent(1L));
+        assertEquals("new", cache.get(1L, () -> "new"));
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedWhenFull() {
+        BoundedTtlCache<Long, String> cache = cache(60_000, 2);
+        cache.get(1L, () -> "one");
+        cache.get(2L, () -> "two");
+        // Touching 1 leaves 2 as the eldest
+        cache.get(1L, () -> "unused");
+
+        cache.get(3L, () -> "three");
+
+        assertEquals(2, cache.size());
+        assertEquals("one", cache.getIfPresent(1L));
+        assertNull(cache.getIfPresent(2L));
+        assertEquals(1, meterRegistry.get("cache.evictions").counter().count());
+    }
+
+    @Test
+    void getIfPresentNeverLoadsOrCounts() {
+        BoundedTtlCache<Long, String> cache = cache(60_000, 10);
+
+        assertNull(cache.getIfPresent(1L));
+        cache.get(1L, () -> "a");
+        assertEquals("a", cache.getIfPresent(1L));
+
+        assertEquals(0, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void loadOverlappingAnEvictionIsReturnedButNotStored() throws Exception {
+        BoundedTtlCache<Long, String> cache = cache(60_000, 10);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        // The reader fetches the row, then a writer updates it and evicts before the reader stores it
+        CompletableFuture<String> reader = CompletableFuture.supplyAsync(() -> cache.get(1L, () -> {
+            loading.countDown();
+            await(evicted);
+            return "stale";
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        cache.evict(1L);
+        evicted.countDown();
+
+        assertEquals("stale", reader.get(5, TimeUnit.SECONDS));
+        assertNull(cache.getIfPresent(1L));
+        assertEquals("fresh", cache.get(1L, () -> "fresh"));
+        assertEquals("fresh", cache.getIfPresent(1L));
+    }
+
+    @Test
+    void clearAlsoDiscardsOverlappingLoads() {
+        BoundedTtlCache<Long, String> cache = cache(60_000, 10);
+        cache.get(2L, () -> "two");
+
+        cache.get(1L, () -> {
+            cache.clear();
+            return "stale";
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    private BoundedTtlCache<Long, String> cache(long ttlMillis, int maxEntries) {
+        return new BoundedTtlCache<>("test", ttlMillis, maxEntries, meterRegistry);
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("cache.gets").tag("result", result).counter().count();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.IdSequenceRepository;
+import com.healthcare.repository.PatientRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// id_sequences is stood in for by a map with the same insert and compare-and-set semantics,
+// shared between allocators the way the table is shared between nodes
+class BusinessIdAllocatorTest {
+
+    private static final int BLOCK_SIZE = 10;
+
+    private final Map<String, Long> table = new ConcurrentHashMap<>();
+    private final AtomicInteger claims = new AtomicInteger();
+    private final IdSequenceRepository idSequenceRepository = mock(IdSequenceRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+
+    @BeforeEach
+    void table() {
+        when(idSequenceRepository.findNextValue(anyString()))
+                .thenAnswer(call -> Optional.ofNullable(table.get(call.<String>getArgument(0))));
+        when(idSequenceRepository.create(anyString(), anyLong())).thenAnswer(call -> {
+            if (table.putIfAbsent(call.getArgument(0), call.getArgument(1)) != null) {
+                throw new DataIntegrityViolationException("Duplicate entry");
+            }
+            return 1;
+        });
+        when(idSequenceRepository.advance(anyString(), anyLong(), anyLong())).thenAnswer(call -> {
+            boolean advanced = table.replace(call.getArgument(0), call.getArgument(1), call.getArgument(2));
+            if (advanced) {
+                claims.incrementAndGet();
+            }
+            return advanced ? 1 : 0;
+        });
+    }
+
+    @Test
+    void firstIdFollowsTheHighestOneAlreadyIssued() {
+        when(patientRepository.findMaxPatientNumber()).thenReturn(41L);
+
+        BusinessIdAllocator allocator = allocator();
+
+        assertEquals("P000042", allocator.nextPatientId());
+        assertEquals("P000043", allocator.nextPatientId());
+        assertEquals("D000001", allocator.nextDoctorId());
+    }
+
+    @Test
+    void tableIsOnlyTouchedOncePerBlock() {
+        BusinessIdAllocator allocator = allocator();
+
+        for (int i = 1; i <= BLOCK_SIZE; i++) {
+            assertEquals(String.format("P%06d", i), allocator.nextPatientId());
+        }
+        assertEquals(1, claims.get());
+
+        assertEquals("P000011", allocator.nextPatientId());
+        assertEquals(2, claims.get());
+        assertEquals(21L, table.get("patient_id"));
+    }
+
+    @Test
+    void rowCreatedByAnotherNodeIsUsedAsIs() {
+        when(idSequenceRepository.findNextValue("patient_id"))
+                .thenReturn(Optional.empty())
+                .thenAnswer(call -> Optional.ofNullable(table.get("patient_id")));
+        when(patientRepository.findMaxPatientNumber()).thenReturn(5L);
+        // Created between our read and our insert
+        table.put("patient_id", 100L);
+
+        assertEquals("P000100", allocator().nextPatientId());
+        verify(idSequenceRepository, times(1)).create("patient_id", 6L);
+    }
+
+    @Test
+    void nodesNeverShareANumber() {
+        BusinessIdAllocator first = allocator();
+        BusinessIdAllocator second = allocator();
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 3 * BLOCK_SIZE; i++) {
+            ids.add(first.nextPatientId());
+            ids.add(second.nextPatientId());
+        }
+
+        assertEquals(ids.size(), Set.copyOf(ids).size());
+        // Each node serves its own block, so the two interleave block by block
+        assertEquals(List.of("P000001", "P000011", "P000002", "P000012"), ids.subList(0, 4));
+    }
+
+    @Test
+    void concurrentCallersGetEveryNumberOnce() throws Exception {
+        BusinessIdAllocator first = allocator();
+        BusinessIdAllocator second = allocator();
+        int threads = 8;
+        int perThread = 250;
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            BusinessIdAllocator allocator = t % 2 == 0 ? first : second;
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    ids.add(allocator.nextDoctorId());
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals(threads * perThread, ids.size());
+        // Whole blocks only: at most each node's last block is left partly unused
+        long highest = table.get("doctor_id") - 1;
+        assertTrue(highest - threads * perThread < 2 * BLOCK_SIZE);
+    }
+
+    private BusinessIdAllocator allocator() {
+        BusinessIdAllocator allocator = new BusinessIdAllocator();
+        ReflectionTestUtils.setField(allocator, "idSequenceRepository", idSequenceRepository);
+        ReflectionTestUtils.setField(allocator, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(allocator, "doctorRepository", doctorRepository);
+        ReflectionTestUtils.setField(allocator, "blockSize", BLOCK_SIZE);
+        return allocator;
+    }
+}
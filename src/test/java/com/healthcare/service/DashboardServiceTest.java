@@ -0,0 +1,250 @@
+package com.healthcare.service;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.healthcare.model.AppointmentStatus;
+import com.healthcare.model.Role;
+import com.healthcare.repository.AppointmentRepository;
+import com.healthcare.repository.DoctorRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DashboardServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final DashboardService dashboard = new DashboardService();
+    private final Logger logger = (Logger) LoggerFactory.getLogger(DashboardService.class);
+    private final ListAppender<ILoggingEvent> logged = new ListAppender<>();
+
+    @BeforeEach
+    void wire() {
+        ReflectionTestUtils.setField(dashboard, "userRepository", userRepository);
+        ReflectionTestUtils.setField(dashboard, "patientRepository", patientRepository);
+        ReflectionTestUtils.setField(dashboard, "doctorRepository", doctorRepository);
+        ReflectionTestUtils.setField(dashboard, "appointmentRepository", appointmentRepository);
+        when(userRepository.countGroupByRole()).thenReturn(List.of(
+                roleCount(Role.ADMIN, 1), roleCount(Role.DOCTOR, 4), roleCount(Role.PATIENT, 10)));
+        when(patientRepository.count()).thenReturn(9L);
+        when(doctorRepository.count()).thenReturn(4L);
+        when(appointmentRepository.countGroupByStatus()).thenReturn(List.of());
+        logged.start();
+        logger.addAppender(logged);
+        logger.setLevel(Level.DEBUG);
+    }
+
+    @AfterEach
+    void detach() {
+        logger.detachAppender(logged);
+        logger.setLevel(null);
+    }
+
+    @Test
+    void firstReadLoadsEveryCounterOnce() {
+        assertEquals(15, dashboard.getTotalUsers());
+        assertEquals(4, dashboard.getUserCount(Role.DOCTOR));
+        assertEquals(9, dashboard.getTotalPatients());
+        assertEquals(4, dashboard.getTotalDoctors());
+
+        verify(userRepository, times(1)).countGroupByRole();
+        verify(patientRepository, times(1)).count();
+    }
+
+    @Test
+    void rolesMissingFromTheGroupByCountZero() {
+        when(userRepository.countGroupByRole()).thenReturn(List.of(roleCount(Role.PATIENT, 3), roleCount(null, 2)));
+
+        assertEquals(0, dashboard.getUserCount(Role.ADMIN));
+        assertEquals(3, dashboard.getUserCount(Role.PATIENT));
+        assertEquals(3, dashboard.getTotalUsers());
+    }
+
+    @Test
+    void writesAdjustTheLoadedCounters() {
+        dashboard.refresh();
+
+        dashboard.recordUserCreated(Role.PATIENT);
+        dashboard.recordPatientCreated();
+        dashboard.recordUserCreated(Role.DOCTOR);
+        dashboard.recordDoctorCreated();
+        dashboard.recordUserDeleted(Role.ADMIN);
+        dashboard.recordDoctorDeleted();
+        dashboard.recordUserCreated(null);
+
+        assertEquals(11, dashboard.getUserCount(Role.PATIENT));
+        assertEquals(5, dashboard.getUserCount(Role.DOCTOR));
+        assertEquals(0, dashboard.getUserCount(Role.ADMIN));
+        assertEquals(16, dashboard.getTotalUsers());
+        assertEquals(10, dashboard.getTotalPatients());
+        assertEquals(4, dashboard.getTotalDoctors());
+        verify(userRepository, times(1)).countGroupByRole();
+    }
+
+    @Test
+    void writesBeforeTheFirstLoadAreLeftToIt() {
+        dashboard.recordUserCreated(Role.PATIENT);
+        dashboard.recordPatientCreated();
+
+        // The load already sees those rows, so counting them again would double them
+        assertEquals(10, dashboard.getUserCount(Role.PATIENT));
+        assertEquals(9, dashboard.getTotalPatients());
+    }
+
+    @Test
+    void refreshReplacesDriftedCounters() {
+        dashboard.refresh();
+        dashboard.recordUserCreated(Role.PATIENT);
+        dashboard.recordPatientDeleted();
+
+        dashboard.refresh();
+
+        assertEquals(10, dashboard.getUserCount(Role.PATIENT));
+        assertEquals(9, dashboard.getTotalPatients());
+    }
+
+    @Test
+    void todaysCountIsOneQueryThenFollowsTheWrites() {
+        LocalDateTime now = LocalDateTime.now();
+        when(appointmentRepository.countByDateRange(any(), any())).thenReturn(3L);
+
+        assertEquals(3, dashboard.getTodaysAppointmentCount());
+        dashboard.recordAppointmentCreated(AppointmentStatus.SCHEDULED, now);
+        dashboard.recordAppointmentCreated(AppointmentStatus.SCHEDULED, now.plusDays(1));
+        // Moved off today
+        dashboard.recordAppointmentChanged(AppointmentStatus.SCHEDULED, now,
+                AppointmentStatus.SCHEDULED, now.plusDays(2));
+        dashboard.recordAppointmentChanged(AppointmentStatus.SCHEDULED, now.minusDays(1),
+                AppointmentStatus.SCHEDULED, now);
+        dashboard.recordAppointmentDeleted(AppointmentStatus.SCHEDULED, now);
+
+        assertEquals(3, dashboard.getTodaysAppointmentCount());
+        LocalDate today = LocalDate.now();
+        verify(appointmentRepository, times(1)).countByDateRange(today.atStartOfDay(), today.plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    void appointmentWritesBeforeTheFirstLoadOnlyTouchALoadedDay() {
+        dashboard.recordAppointmentCreated(AppointmentStatus.SCHEDULED, LocalDateTime.now());
+
+        verify(appointmentRepository, never()).countByDateRange(any(), any());
+        verify(appointmentRepository, never()).countGroupByStatus();
+    }
+
+    @Test
+    void statusCountersFollowCreatesChangesAndDeletes() {
+        statuses(statusCount(AppointmentStatus.SCHEDULED, 5), statusCount(AppointmentStatus.COMPLETED, 2),
+                statusCount(null, 1));
+        LocalDateTime later = LocalDateTime.now().plusDays(3);
+
+        assertEquals(8, dashboard.getTotalAppointments());
+        dashboard.recordAppointmentCreated(AppointmentStatus.SCHEDULED, later);
+        dashboard.recordAppointmentChanged(AppointmentStatus.SCHEDULED, later, AppointmentStatus.CANCELLED, later);
+        // A reschedule alone leaves the status counters as they are
+        dashboard.recordAppointmentChanged(AppointmentStatus.SCHEDULED, later, AppointmentStatus.SCHEDULED, later.plusDays(1));
+        dashboard.recordAppointmentDeleted(AppointmentStatus.COMPLETED, later);
+        // Rows without a status only count towards the total
+        dashboard.recordAppointmentCreated(null, later);
+
+        assertEquals(5, dashboard.getAppointmentCount(AppointmentStatus.SCHEDULED));
+        assertEquals(1, dashboard.getAppointmentCount(AppointmentStatus.COMPLETED));
+        assertEquals(1, dashboard.getAppointmentCount(AppointmentStatus.CANCELLED));
+        assertEquals(9, dashboard.getTotalAppointments());
+    }
+
+    @Test
+    void reconcileDoesNothingBeforeTheFirstLoad() {
+        dashboard.reconcile();
+
+        verify(appointmentRepository, never()).countGroupByStatus();
+        verify(userRepository, never()).countGroupByRole();
+    }
+
+    @Test
+    void reconcileCorrectsDriftAndWarnsOnlyWhenItPersists() {
+        statuses(statusCount(AppointmentStatus.SCHEDULED, 5));
+        dashboard.refresh();
+
+        // One write landing while the GROUP BY ran: corrected quietly
+        dashboard.recordAppointmentCreated(AppointmentStatus.SCHEDULED, null);
+        dashboard.reconcile();
+        assertEquals(5, dashboard.getAppointmentCount(AppointmentStatus.SCHEDULED));
+        assertEquals(List.of(), warnings());
+        assertTrue(logged.list.stream().anyMatch(event -> event.getLevel() == Level.DEBUG));
+
+        // Out of step again on the very next pass: something is missing its hook
+        dashboard.recordAppointmentCreated(AppointmentStatus.SCHEDULED, null);
+        dashboard.reconcile();
+        assertEquals(5, dashboard.getAppointmentCount(AppointmentStatus.SCHEDULED));
+        assertEquals(List.of(
+                "Appointment counter SCHEDULED drifted: 6 in memory, 5 in database",
+                "Appointment total drifted: 6 in memory, 5 in database"), warnings());
+
+        // A clean pass resets the streak
+        logged.list.clear();
+        dashboard.reconcile();
+        dashboard.recordAppointmentDeleted(AppointmentStatus.SCHEDULED, null);
+        dashboard.reconcile();
+        assertEquals(List.of(), warnings());
+    }
+
+    private void statuses(AppointmentRepository.StatusCount... rows) {
+        when(appointmentRepository.countGroupByStatus()).thenReturn(List.of(rows));
+    }
+
+    private List<String> warnings() {
+        return logged.list.stream()
+                .filter(event -> event.getLevel() == Level.WARN)
+                .map(ILoggingEvent::getFormattedMessage)
+                .toList();
+    }
+
+    private static AppointmentRepository.StatusCount statusCount(AppointmentStatus status, long total) {
+        return new AppointmentRepository.StatusCount() {
+            @Override
+            public AppointmentStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+
+    private static UserRepository.RoleCount roleCount(Role role, long total) {
+        return new UserRepository.RoleCount() {
+            @Override
+            public Role getRole() {
+                return role;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.healthcare.service;
+
+import com.healthcare.repository.MedicalRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DiagnosisIndexTest {
+
+    private final MedicalRecordRepository medicalRecordRepository = mock(MedicalRecordRepository.class);
+    private final DiagnosisIndex index = new DiagnosisIndex();
+
+    @BeforeEach
+    void load() {
+        when(medicalRecordRepository.findDiagnosisEntries()).thenReturn(List.of(
+                entry(1L, "Acute bronchitis"),
+                entry(2L, "Type 2 diabetes"),
+                entry(3L, "Chronic BRONCHITIS"),
+                entry(4L, null),
+                entry(5L, "Seasonal allergy")));
+        ReflectionTestUtils.setField(index, "medicalRecordRepository", medicalRecordRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void substringMatchesAreCaseInsensitiveAndNewestFirst() {
+        assertEquals(List.of(3L, 1L), index.search("Bronch", 10));
+        assertEquals(List.of(3L, 1L), index.search("CHITIS", 10));
+        assertEquals(List.of(2L), index.search("e 2 d", 10));
+    }
+
+    @Test
+    void limitKeepsTheNewest() {
+        assertEquals(List.of(3L), index.search("bronchitis", 1));
+        assertEquals(List.of(), index.search("bronchitis", 0));
+    }
+
+    @Test
+    void sharedTrigramsAloneAreNotAMatch() {
+        // "chronic bronchitis" has every trigram of "chronchi" but not the string itself
+        assertEquals(List.of(), index.search("chronchi", 10));
+        assertEquals(List.of(), index.search("asthma", 10));
+    }
+
+    @Test
+    void shortQueriesScanTheTexts() {
+        assertEquals(List.of(5L), index.search("al", 10));
+        assertEquals(List.of(5L, 2L, 1L), index.search("a", 10));
+        assertEquals(List.of(), index.search("", 10));
+        assertEquals(List.of(), index.search(null, 10));
+    }
+
+    @Test
+    void putReplacesTheIndexedText() {
+        index.put(1L, "Acute sinusitis");
+        index.put(4L, "Bronchial asthma");
+        index.put(6L, "Bronchitis, follow-up");
+
+        assertEquals(List.of(6L, 3L), index.search("bronchitis", 10));
+        assertEquals(List.of(1L), index.search("sinus", 10));
+        assertEquals(List.of(6L, 4L, 3L), index.search("bronchi", 10));
+    }
+
+    @Test
+    void removedRecordsAreNotFound() {
+        index.remove(3L);
+        index.remove(99L);
+
+        assertEquals(List.of(1L), index.search("bronchitis", 10));
+        assertEquals(List.of(1L), index.search("ch", 10));
+    }
+
+    private static MedicalRecordRepository.DiagnosisEntry entry(Long id, String diagnosis) {
+        return new MedicalRecordRepository.DiagnosisEntry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDiagnosis() {
+                return diagnosis;
+            }
+        };
+    }
+}
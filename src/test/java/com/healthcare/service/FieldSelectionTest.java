@@ -0,0 +1,84 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldSelectionTest {
+
+    private static final Set<String> KNOWN = Set.of(
+            "id", "patientId", "bloodGroup",
+            "user", "user.id", "user.firstName", "user.lastName", "user.email");
+
+    @Test
+    void missingParameterSelectsEverything() {
+        FieldSelection selection = FieldSelection.parse(null, KNOWN);
+
+        assertSame(FieldSelection.ALL, selection);
+        assertTrue(selection.isAll());
+        assertTrue(selection.includes("user.email"));
+        assertTrue(selection.includes("anything"));
+    }
+
+    @Test
+    void topLevelFieldsOnly() {
+        FieldSelection selection = FieldSelection.parse("id, bloodGroup", KNOWN);
+
+        assertFalse(selection.isAll());
+        assertTrue(selection.includes("id"));
+        assertTrue(selection.includes("bloodGroup"));
+        assertFalse(selection.includes("patientId"));
+        assertFalse(selection.includes("user"));
+        assertFalse(selection.includes("user.id"));
+    }
+
+    @Test
+    void selectingAnObjectKeepsEverythingBelowIt() {
+        FieldSelection selection = FieldSelection.parse("user", KNOWN);
+
+        assertTrue(selection.includes("user"));
+        assertTrue(selection.includes("user.firstName"));
+        assertTrue(selection.includes("user.email"));
+        assertFalse(selection.includes("id"));
+    }
+
+    @Test
+    void selectingANestedFieldKeepsTheObjectsAroundIt() {
+        FieldSelection selection = FieldSelection.parse("user.firstName", KNOWN);
+
+        assertTrue(selection.includes("user"));
+        assertTrue(selection.includes("user.firstName"));
+        assertFalse(selection.includes("user.lastName"));
+        assertFalse(selection.includes("id"));
+    }
+
+    @Test
+    void sharedPrefixIsNotAParent() {
+        // "idCard" starts with "id" but is not below it
+        FieldSelection selection = FieldSelection.parse("id", Set.of("id", "idCard", "idCard.number"));
+
+        assertTrue(selection.includes("id"));
+        assertFalse(selection.includes("idCard"));
+        assertFalse(selection.includes("idCard.number"));
+    }
+
+    @Test
+    void unknownFieldsAreRejectedTogether() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FieldSelection.parse("id,password,user.password", KNOWN));
+
+        assertEquals("Unknown fields: password, user.password", e.getMessage());
+    }
+
+    @Test
+    void emptySelectionIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.parse("", KNOWN));
+        assertThrows(IllegalArgumentException.class, () -> FieldSelection.parse(" , ,", KNOWN));
+    }
+}
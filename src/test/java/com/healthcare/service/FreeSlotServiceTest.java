@@ -0,0 +1,124 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.DoctorDto;
+import com.healthcare.dto.FreeSlotDto;
+import com.healthcare.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// A real AppointmentSlotIndex over no stored bookings; each test books what it needs. Searches
+// start tomorrow or later so the current time of day never trims the results.
+class FreeSlotServiceTest {
+
+    private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+
+    private final DoctorService doctorService = mock(DoctorService.class);
+    private final AppointmentSlotIndex slotIndex = new AppointmentSlotIndex();
+    private final FreeSlotService freeSlotService = new FreeSlotService();
+
+    @BeforeEach
+    void wire() {
+        AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+        when(appointmentRepository.findBookedSlotsFrom(any())).thenReturn(List.of());
+        ReflectionTestUtils.setField(slotIndex, "appointmentRepository", appointmentRepository);
+        slotIndex.rebuild();
+        ReflectionTestUtils.setField(freeSlotService, "doctorService", doctorService);
+        ReflectionTestUtils.setField(freeSlotService, "appointmentSlotIndex", slotIndex);
+    }
+
+    @Test
+    void bookedSlotRemovesTheStartsItOverlaps() {
+        doctors(doctor(1L, "Daily 09:00-12:00"));
+        slotIndex.tryReserve(1L, TOMORROW.atTime(9, 30));
+
+        assertEquals(List.of(TOMORROW.atTime(11, 0)), starts(TOMORROW, TOMORROW, 10));
+    }
+
+    @Test
+    void bookingBeforeMidnightBlocksTheNextDaysFirstStart() {
+        doctors(doctor(1L, "Daily 00:00-02:00"));
+        slotIndex.tryReserve(1L, TOMORROW.atTime(23, 30));
+        LocalDate day = TOMORROW.plusDays(1);
+
+        assertEquals(List.of(day.atTime(1, 0)), starts(day, day, 10));
+    }
+
+    @Test
+    void slotsComeInTimeOrderAcrossDoctors() {
+        doctors(doctor(1L, "Daily 10:00-11:00"), doctor(2L, "Daily 09:00-10:00"));
+
+        List<FreeSlotDto> slots = freeSlotService.findFreeSlots(null, null, TOMORROW, TOMORROW, 10);
+
+        assertEquals(2, slots.size());
+        assertEquals(2L, slots.get(0).getDoctorId());
+        assertEquals(TOMORROW.atTime(9, 0), slots.get(0).getStart());
+        assertEquals(TOMORROW.atTime(10, 0), slots.get(0).getEnd());
+        assertEquals(1L, slots.get(1).getDoctorId());
+    }
+
+    @Test
+    void doctorsOutsideTheSpecializationAreSkipped() {
+        DoctorDto cardiologist = doctor(1L, "Daily 09:00-10:00");
+        cardiologist.setSpecialization("Cardiology");
+        DoctorDto dermatologist = doctor(2L, "Daily 09:00-10:00");
+        dermatologist.setSpecialization("Dermatology");
+        doctors(cardiologist, dermatologist);
+
+        List<FreeSlotDto> slots = freeSlotService.findFreeSlots("cardiology", null, TOMORROW, TOMORROW, 10);
+
+        assertEquals(1, slots.size());
+        assertEquals(1L, slots.get(0).getDoctorId());
+    }
+
+    @Test
+    void windowIsCappedAt62Days() {
+        doctors(doctor(1L, "Daily 09:00-10:00"));
+        LocalDate end = TOMORROW.plusDays(FreeSlotService.MAX_WINDOW_DAYS - 1);
+
+        assertEquals(FreeSlotService.MAX_WINDOW_DAYS, starts(TOMORROW, end, FreeSlotService.MAX_RESULTS).size());
+        assertThrows(IllegalArgumentException.class,
+                () -> freeSlotService.findFreeSlots(null, null, TOMORROW, end.plusDays(1), 10));
+    }
+
+    @Test
+    void endBeforeStartIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> freeSlotService.findFreeSlots(null, null, TOMORROW, TOMORROW.minusDays(1), 10));
+    }
+
+    @Test
+    void resultsAreCappedAt100() {
+        doctors(doctor(1L, "Daily 00:00-24:00"), doctor(2L, "Daily 00:00-24:00"));
+
+        assertEquals(FreeSlotService.MAX_RESULTS, starts(TOMORROW, TOMORROW.plusDays(5), 1000).size());
+        assertEquals(1, starts(TOMORROW, TOMORROW.plusDays(5), 0).size());
+    }
+
+    private void doctors(DoctorDto... doctors) {
+        when(doctorService.getAvailableDoctors()).thenReturn(List.of(doctors));
+    }
+
+    private List<LocalDateTime> starts(LocalDate from, LocalDate to, int limit) {
+        return freeSlotService.findFreeSlots(null, null, from, to, limit).stream()
+                .map(FreeSlotDto::getStart)
+                .toList();
+    }
+
+    private static DoctorDto doctor(Long id, String workingHours) {
+        DoctorDto doctor = new DoctorDto();
+        doctor.setId(id);
+        doctor.setWorkingHours(workingHours);
+        return doctor;
+    }
+}
@@ -0,0 +1,123 @@
+package com.healthcare.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.PatientDto;
+import com.healthcare.dto.UserDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MergePatchTest {
+
+    private static final Set<String> PATCHABLE = Set.of(
+            "dateOfBirth", "address", "allergies", "user.firstName", "user.email");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final MergePatch mergePatch = new MergePatch(objectMapper);
+
+    @Test
+    void presentMembersReplaceAndAbsentOnesStay() throws Exception {
+        PatientDto patched = apply(patient(), "{\"address\": \"2 New Road\", \"dateOfBirth\": \"1990-05-01\"}");
+
+        assertEquals("2 New Road", patched.getAddress());
+        assertEquals(LocalDate.of(1990, 5, 1), patched.getDateOfBirth());
+        assertEquals("Penicillin", patched.getAllergies());
+        assertEquals("P0001", patched.getPatientId());
+        assertEquals("Jane", patched.getUser().getFirstName());
+    }
+
+    @Test
+    void nullClearsAField() throws Exception {
+        PatientDto patched = apply(patient(), "{\"allergies\": null}");
+
+        assertNull(patched.getAllergies());
+        assertEquals("1 Old Road", patched.getAddress());
+    }
+
+    @Test
+    void nestedObjectsMergeMemberByMember() throws Exception {
+        PatientDto patched = apply(patient(), "{\"user\": {\"email\": \"jane@new.example\"}}");
+
+        assertEquals("jane@new.example", patched.getUser().getEmail());
+        assertEquals("Jane", patched.getUser().getFirstName());
+        assertEquals("jane", patched.getUser().getUsername());
+    }
+
+    @Test
+    void nestedNullClearsOnlyThatMember() throws Exception {
+        PatientDto patched = apply(patient(), "{\"user\": {\"firstName\": null}}");
+
+        assertNull(patched.getUser().getFirstName());
+        assertEquals("jane@example.com", patched.getUser().getEmail());
+    }
+
+    @Test
+    void nestedObjectMissingFromTheTargetIsCreated() throws Exception {
+        PatientDto patient = patient();
+        patient.setUser(null);
+
+        PatientDto patched = apply(patient, "{\"user\": {\"firstName\": \"Jo\"}}");
+
+        assertEquals("Jo", patched.getUser().getFirstName());
+    }
+
+    @Test
+    void pathsOutsideTheListAreRejected() {
+        assertRejected("{\"patientId\": \"P9999\"}", "patientId");
+        assertRejected("{\"user\": {\"username\": \"mallory\"}}", "user.username");
+        // A parent of patchable paths can only be merged into, not replaced or cleared
+        assertRejected("{\"user\": null}", "user");
+        assertRejected("{\"user\": \"jane\"}", "user");
+    }
+
+    @Test
+    void rejectedPatchLeavesTheTargetUntouched() {
+        PatientDto patient = patient();
+
+        assertThrows(IllegalArgumentException.class,
+                () -> apply(patient, "{\"address\": \"2 New Road\", \"id\": 7}"));
+
+        assertEquals("1 Old Road", patient.getAddress());
+    }
+
+    @Test
+    void patchMustBeAnObjectOfTheRightTypes() {
+        assertThrows(IllegalArgumentException.class, () -> apply(patient(), "[]"));
+        assertThrows(IllegalArgumentException.class, () -> mergePatch.apply(patient(), null, PATCHABLE));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> apply(patient(), "{\"dateOfBirth\": \"yesterday\"}"));
+        assertTrue(e.getMessage().startsWith("Invalid patch"));
+    }
+
+    private PatientDto apply(PatientDto target, String patch) throws Exception {
+        return mergePatch.apply(target, objectMapper.readTree(patch), PATCHABLE);
+    }
+
+    private void assertRejected(String patch, String path) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> apply(patient(), patch));
+        assertEquals("Field cannot be patched: " + path, e.getMessage());
+    }
+
+    private static PatientDto patient() {
+        UserDto user = new UserDto();
+        user.setId(3L);
+        user.setUsername("jane");
+        user.setEmail("jane@example.com");
+        user.setFirstName("Jane");
+        user.setLastName("Roe");
+        PatientDto patient = new PatientDto();
+        patient.setId(7L);
+        patient.setPatientId("P0001");
+        patient.setUser(user);
+        patient.setAddress("1 Old Road");
+        patient.setAllergies("Penicillin");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 1));
+        return patient;
+    }
+}
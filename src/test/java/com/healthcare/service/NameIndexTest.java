@@ -0,0 +1,123 @@
+package com.healthcare.service;
+
+import com.healthcare.model.Role;
+import com.healthcare.model.User;
+import com.healthcare.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NameIndexTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final NameIndex index = new NameIndex();
+
+    @BeforeEach
+    void load() {
+        when(userRepository.findNameEntries(any())).thenReturn(List.of(
+                entry(1L, Role.PATIENT, "John", "Smith"),
+                entry(2L, Role.PATIENT, "Joanna", "Doe"),
+                entry(3L, Role.PATIENT, "Maria", "Lopez"),
+                entry(4L, Role.PATIENT, "Marla", "Williamson"),
+                entry(5L, Role.DOCTOR, "John", "Carter"),
+                entry(6L, Role.PATIENT, "Bob", "Jones")));
+        ReflectionTestUtils.setField(index, "userRepository", userRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void shortPrefixesMatchExactlyWithShorterNamesFirst() {
+        assertEquals(List.of(1L, 6L, 2L), index.search(Role.PATIENT, "jo", 10));
+        assertEquals(List.of(), index.search(Role.PATIENT, "jho", 10));
+    }
+
+    @Test
+    void longerWordsTolerateTypos() {
+        // One transposition
+        assertEquals(List.of(1L), index.search(Role.PATIENT, "smtih", 10));
+        // Two edits once the word is seven letters or more
+        assertEquals(List.of(4L), index.search(Role.PATIENT, "wiliamsn", 10));
+        assertEquals(List.of(), index.search(Role.PATIENT, "wlamsn", 10));
+    }
+
+    @Test
+    void closerMatchesComeFirst() {
+        assertEquals(List.of(3L, 4L), index.search(Role.PATIENT, "maria", 10));
+        assertEquals(List.of(3L), index.search(Role.PATIENT, "maria", 1));
+    }
+
+    @Test
+    void everyWordMustMatchSomeName() {
+        assertEquals(List.of(1L), index.search(Role.PATIENT, "smith jo", 10));
+        assertEquals(List.of(1L), index.search(Role.PATIENT, "Jhon, Smth", 10));
+        assertEquals(List.of(), index.search(Role.PATIENT, "john lopez", 10));
+    }
+
+    @Test
+    void rolesAreSearchedSeparately() {
+        assertEquals(List.of(5L), index.search(Role.DOCTOR, "john", 10));
+        assertEquals(List.of(), index.search(Role.ADMIN, "john", 10));
+    }
+
+    @Test
+    void blankQueriesMatchNothing() {
+        assertEquals(List.of(), index.search(Role.PATIENT, " - ", 10));
+        assertEquals(List.of(), index.search(Role.PATIENT, null, 10));
+        assertEquals(List.of(), index.search(Role.PATIENT, "john", 0));
+    }
+
+    @Test
+    void putReplacesTheIndexedNames() {
+        index.put(user(1L, Role.PATIENT, "John", "Walker"));
+        index.put(user(7L, Role.PATIENT, "Anna", "Smithson"));
+        index.put(user(8L, Role.ADMIN, "Sam", "Smith"));
+
+        assertEquals(List.of(7L), index.search(Role.PATIENT, "smith", 10));
+        assertEquals(List.of(1L), index.search(Role.PATIENT, "walker", 10));
+    }
+
+    @Test
+    void removedUsersAreNotFound() {
+        index.remove(1L);
+        index.remove(99L);
+
+        assertEquals(List.of(6L, 2L), index.search(Role.PATIENT, "jo", 10));
+    }
+
+    private static User user(Long id, Role role, String firstName, String lastName) {
+        User user = new User("user" + id, "user" + id + "@example.com", "secret", firstName, lastName, role);
+        user.setId(id);
+        return user;
+    }
+
+    private static UserRepository.NameEntry entry(Long id, Role role, String firstName, String lastName) {
+        return new UserRepository.NameEntry() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Role getRole() {
+                return role;
+            }
+
+            @Override
+            public String getFirstName() {
+                return firstName;
+            }
+
+            @Override
+            public String getLastName() {
+                return lastName;
+            }
+        };
+    }
+}
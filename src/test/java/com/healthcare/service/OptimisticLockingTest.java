@@ -0,0 +1,94 @@
+package com.healthcare.service;
+
+import com.healthcare.exception.VersionConflictException;
+import com.healthcare.exception.VersionRequiredException;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OptimisticLockingTest {
+
+    @Test
+    void retryRerunsTheUpdateAfterALostRace() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = OptimisticLocking.retry(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw conflict();
+            }
+            return "saved";
+        });
+
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void retryGivesUpAfterThreeAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        VersionConflictException e = assertThrows(VersionConflictException.class, () -> OptimisticLocking.retry(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        }));
+
+        assertEquals(3, attempts.get());
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, e.getCause());
+    }
+
+    @Test
+    void retryLeavesOtherFailuresAlone() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> OptimisticLocking.retry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a conflict");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void staleClientVersionIsNotRetried() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        VersionConflictException e = assertThrows(VersionConflictException.class, () -> OptimisticLocking.retry(() -> {
+            attempts.incrementAndGet();
+            OptimisticLocking.checkVersion(1L, 2L);
+            return null;
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(2L, e.getCurrentVersion());
+    }
+
+    @Test
+    void onceReportsALostRaceWithoutReplaying() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        VersionConflictException e = assertThrows(VersionConflictException.class, () -> OptimisticLocking.once(() -> {
+            attempts.incrementAndGet();
+            throw conflict();
+        }));
+
+        assertEquals(1, attempts.get());
+        assertInstanceOf(ObjectOptimisticLockingFailureException.class, e.getCause());
+        assertEquals("saved", OptimisticLocking.once(() -> "saved"));
+    }
+
+    @Test
+    void checkVersionRequiresTheCurrentVersion() {
+        assertDoesNotThrow(() -> OptimisticLocking.checkVersion(4L, 4L));
+        assertThrows(VersionConflictException.class, () -> OptimisticLocking.checkVersion(3L, 4L));
+        assertThrows(VersionRequiredException.class, () -> OptimisticLocking.checkVersion(null, 4L));
+    }
+
+    private static ObjectOptimisticLockingFailureException conflict() {
+        return new ObjectOptimisticLockingFailureException(Object.class, 1L);
+    }
+}
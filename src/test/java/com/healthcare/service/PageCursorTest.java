@@ -0,0 +1,84 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.CursorPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCursorTest {
+
+    private static final LocalDateTime NINE = LocalDateTime.of(2024, 1, 15, 9, 0, 0, 123_000_000);
+
+    @Test
+    void encodedCursorDecodesToTheSameKey() {
+        String cursor = PageCursor.encode(NINE, 42L);
+
+        PageCursor decoded = PageCursor.decode(cursor);
+
+        assertEquals(NINE, decoded.getTimestamp());
+        assertEquals(42L, decoded.getId());
+        // Safe to pass as a query parameter without escaping
+        assertTrue(cursor.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void missingCursorMeansTheFirstPage() {
+        assertNull(PageCursor.decode(null));
+        assertNull(PageCursor.decode(""));
+        assertNull(PageCursor.decode("  "));
+    }
+
+    @Test
+    void foreignCursorsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encoded("2024-01-15T09:00")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encoded("yesterday|42")));
+        assertThrows(IllegalArgumentException.class, () -> PageCursor.decode(encoded("2024-01-15T09:00|x")));
+    }
+
+    @Test
+    void pageSizeIsClamped() {
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.limit(0).getPageSize());
+        assertEquals(PageCursor.DEFAULT_PAGE_SIZE, PageCursor.limit(-5).getPageSize());
+        assertEquals(5, PageCursor.limit(5).getPageSize());
+        assertEquals(PageCursor.MAX_PAGE_SIZE, PageCursor.limit(500).getPageSize());
+        assertEquals(0, PageCursor.limit(5).getPageNumber());
+    }
+
+    @Test
+    void pageWithMoreRowsPointsPastItsLastRow() {
+        CursorPage<String> page = CursorPage.of(
+                new SliceImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), true),
+                id -> "row" + id, id -> PageCursor.encode(NINE, id));
+
+        assertEquals(List.of("row1", "row2"), page.getItems());
+        assertEquals(2, page.getSize());
+        assertTrue(page.isHasMore());
+        assertEquals(2L, PageCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage<String> page = CursorPage.of(
+                new SliceImpl<>(List.of(1L), PageRequest.of(0, 2), false),
+                id -> "row" + id, id -> PageCursor.encode(NINE, id));
+
+        assertFalse(page.isHasMore());
+        assertNull(page.getNextCursor());
+    }
+
+    private static String encoded(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
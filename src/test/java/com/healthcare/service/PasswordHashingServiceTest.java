@@ -0,0 +1,123 @@
+package com.healthcare.service;
+
+import com.healthcare.exception.PasswordHashingRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The encoder blocks on a gate, so the tests decide exactly when the pool's workers are busy
+class PasswordHashingServiceTest {
+
+    private final CountDownLatch gate = new CountDownLatch(1);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void stop() {
+        gate.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void hashesOnThePool() {
+        service = start(2, 4, 5000);
+        gate.countDown();
+
+        assertEquals("hash:secret", service.encode("secret"));
+        assertTrue(service.matches("secret", "hash:secret"));
+        assertFalse(service.matches("other", "hash:secret"));
+        assertEquals(2, meterRegistry.get("password.hash.duration").tag("operation", "matches").timer().count());
+    }
+
+    @Test
+    void fullQueueRejectsRightAway() throws Exception {
+        service = start(1, 1, 5000);
+        // One task on the only worker, one waiting in the queue
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> service.encode("first"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> service.encode("second"));
+        awaitQueueDepth(1);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> service.encode("third"));
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+
+        gate.countDown();
+        assertEquals("hash:first", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash:second", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void slowHashTimesOut() {
+        service = start(1, 4, 50);
+
+        assertThrows(PasswordHashingRejectedException.class, () -> service.encode("secret"));
+        assertEquals(1, meterRegistry.get("password.hash.rejected").counter().count());
+    }
+
+    @Test
+    void bulkEncodeKeepsOrderAndIsNeverRejected() throws Exception {
+        service = start(2, 1, 5000);
+        CompletableFuture<List<String>> bulk = CompletableFuture.supplyAsync(
+                () -> service.encodeAll(List.of("a", "b", "c", "d", "e")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Bulk work holds at most one of the two workers, leaving the other for a login
+        CompletableFuture<Boolean> login = CompletableFuture.supplyAsync(() -> service.matches("x", "hash:x"));
+        gate.countDown();
+
+        assertEquals(List.of("hash:a", "hash:b", "hash:c", "hash:d", "hash:e"), bulk.get(5, TimeUnit.SECONDS));
+        assertTrue(login.get(5, TimeUnit.SECONDS));
+        assertEquals(0, meterRegistry.get("password.hash.rejected").counter().count());
+    }
+
+    private PasswordHashingService start(int threads, int queueCapacity, long timeoutMillis) {
+        return new PasswordHashingService(new GatedEncoder(), meterRegistry, threads, queueCapacity, timeoutMillis);
+    }
+
+    private void awaitQueueDepth(double depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("password.hash.queue.depth").gauge().value() < depth
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(depth, meterRegistry.get("password.hash.queue.depth").gauge().value());
+    }
+
+    private class GatedEncoder implements PasswordEncoder {
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            pass();
+            return "hash:" + rawPassword;
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            pass();
+            return encodedPassword.equals("hash:" + rawPassword);
+        }
+
+        private void pass() {
+            started.countDown();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
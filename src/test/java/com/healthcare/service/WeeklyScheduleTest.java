@@ -0,0 +1,135 @@
+package com.healthcare.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Masks are compared against cells(first, last) written as clock times, so 10:00 is cell 20.
+class WeeklyScheduleTest {
+
+    @Test
+    void dayRangeWithHours() {
+        WeeklySchedule schedule = WeeklySchedule.parse("Mon-Fri 08:00-17:00");
+
+        // The last start that still ends by closing is 16:00
+        assertEquals(cells("08:00", "16:00"), schedule.startMask(DayOfWeek.MONDAY));
+        assertEquals(cells("08:00", "16:00"), schedule.startMask(DayOfWeek.FRIDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.SATURDAY));
+    }
+
+    @Test
+    void hoursWithoutDaysApplyToWeekdays() {
+        WeeklySchedule schedule = WeeklySchedule.parse("9-17");
+
+        assertEquals(cells("09:00", "16:00"), schedule.startMask(DayOfWeek.WEDNESDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.SUNDAY));
+    }
+
+    @Test
+    void dayListsAmPmAndSeparateGroups() {
+        WeeklySchedule schedule = WeeklySchedule.parse("Mon, Wed 9am-1pm; Sat 10-14");
+
+        assertEquals(cells("09:00", "12:00"), schedule.startMask(DayOfWeek.MONDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.TUESDAY));
+        assertEquals(cells("09:00", "12:00"), schedule.startMask(DayOfWeek.WEDNESDAY));
+        assertEquals(cells("10:00", "13:00"), schedule.startMask(DayOfWeek.SATURDAY));
+    }
+
+    @Test
+    void trailingPmAppliesToBothEndsOnlyWhenThatKeepsTheRangeOpen() {
+        assertEquals(cells("13:00", "16:00"), WeeklySchedule.parse("Tue 1-5pm").startMask(DayOfWeek.TUESDAY));
+        assertEquals(cells("09:00", "16:00"), WeeklySchedule.parse("Tue 9-5pm").startMask(DayOfWeek.TUESDAY));
+    }
+
+    @Test
+    void splitShiftsShareTheirDays() {
+        WeeklySchedule schedule = WeeklySchedule.parse("Weekdays 09:00-12:00, 13:00-17:00");
+
+        long expected = cells("09:00", "11:00") | cells("13:00", "16:00");
+        assertEquals(expected, schedule.startMask(DayOfWeek.THURSDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.SATURDAY));
+    }
+
+    @Test
+    void dayRangeWrapsPastSunday() {
+        WeeklySchedule schedule = WeeklySchedule.parse("Sat-Mon 10-12");
+
+        assertEquals(cells("10:00", "11:00"), schedule.startMask(DayOfWeek.SATURDAY));
+        assertEquals(cells("10:00", "11:00"), schedule.startMask(DayOfWeek.SUNDAY));
+        assertEquals(cells("10:00", "11:00"), schedule.startMask(DayOfWeek.MONDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.TUESDAY));
+    }
+
+    @Test
+    void unreadableTextYieldsAnEmptyWeek() {
+        assertTrue(WeeklySchedule.parse(null).isEmpty());
+        assertTrue(WeeklySchedule.parse("   ").isEmpty());
+        assertTrue(WeeklySchedule.parse("By appointment only").isEmpty());
+        assertTrue(WeeklySchedule.parse("Mon-Fri 25:00-26:00").isEmpty());
+        assertTrue(WeeklySchedule.parse("Mon-Fri 9:75-12:00").isEmpty());
+        assertTrue(WeeklySchedule.parse("Mon-Fri 13pm-2pm").isEmpty());
+    }
+
+    @Test
+    void overnightRangeIsDropped() {
+        WeeklySchedule schedule = WeeklySchedule.parse("Mon-Fri 08:00-12:00; Sat 22:00-06:00");
+
+        assertEquals(cells("08:00", "11:00"), schedule.startMask(DayOfWeek.MONDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.SATURDAY));
+        assertEquals(0, schedule.startMask(DayOfWeek.SUNDAY));
+    }
+
+    @Test
+    void rangeBoundaries() {
+        assertEquals(cells("00:00", "23:00"), WeeklySchedule.parse("Daily 00:00-24:00").startMask(DayOfWeek.SUNDAY));
+        assertEquals(cells("16:00", "16:00"), WeeklySchedule.parse("Daily 16:00-17:00").startMask(DayOfWeek.SUNDAY));
+        // Shorter than one appointment
+        assertTrue(WeeklySchedule.parse("Daily 16:30-17:00").isEmpty());
+        // Off-grid opening rounds up to the next cell, closing still bounds the last start
+        assertEquals(cells("08:30", "09:00"), WeeklySchedule.parse("Daily 08:15-10:00").startMask(DayOfWeek.SUNDAY));
+    }
+
+    @Test
+    void bookingOnTheGridBlocksTheCellsWithinAnHourEitherSide() {
+        // Starts exactly an hour away still conflict
+        assertEquals(cells("09:00", "11:00"), WeeklySchedule.blockedBy(minute("10:00")));
+    }
+
+    @Test
+    void bookingOffTheGridBlocksEveryCellItOverlaps() {
+        assertEquals(cells("09:30", "11:00"), WeeklySchedule.blockedBy(minute("10:10")));
+    }
+
+    @Test
+    void bookingsAcrossMidnightBlockOnlyThisDaysEdgeCells() {
+        // 23:30 the day before reaches to 00:30
+        assertEquals(cells("00:00", "00:30"), WeeklySchedule.blockedBy(-30));
+        // Midnight at the end of the day
+        assertEquals(cells("23:00", "23:30"), WeeklySchedule.blockedBy(24 * 60));
+        // 00:30 the day after is exactly an hour from a 23:30 start
+        assertEquals(cells("23:30", "23:30"), WeeklySchedule.blockedBy(24 * 60 + 30));
+        assertEquals(0, WeeklySchedule.blockedBy(24 * 60 + 31));
+    }
+
+    @Test
+    void fromRoundsUpToTheNextCell() {
+        assertEquals(cells("10:00", "23:30"), WeeklySchedule.from(minute("10:00")));
+        assertEquals(cells("10:30", "23:30"), WeeklySchedule.from(minute("10:01")));
+    }
+
+    private static int minute(String time) {
+        String[] parts = time.split(":");
+        return Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+    }
+
+    private static long cells(String first, String last) {
+        long mask = 0;
+        for (int cell = minute(first) / WeeklySchedule.SLOT_MINUTES; cell <= minute(last) / WeeklySchedule.SLOT_MINUTES; cell++) {
+            mask |= 1L << cell;
+        }
+        return mask;
+    }
+}